@@ -0,0 +1,147 @@
+package com.campus.safety.ambulancetracker.benchmark;
+
+import com.campus.safety.ambulancetracker.AmbulanceTrackerApplication;
+import com.campus.safety.ambulancetracker.model.Ambulance;
+import com.campus.safety.ambulancetracker.service.FleetRegistry;
+import com.campus.safety.ambulancetracker.service.PendingRequestQueue;
+import com.campus.safety.ambulancetracker.service.ReportAggregator;
+import com.campus.safety.ambulancetracker.service.ResponseTimeTracker;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The full application on an in-memory H2 database, without the web server,
+ * plus helpers to seed a fleet and a request history of a given size.
+ */
+final class BenchmarkFixture implements AutoCloseable {
+
+    static final double BASE_LATITUDE = 12.9716;
+    static final double BASE_LONGITUDE = 77.5946;
+
+    // Units and pickups are spread over roughly 6 x 6 km around the base
+    private static final double SPREAD_DEGREES = 0.03;
+
+    private static final int BATCH_SIZE = 5_000;
+
+    private final ConfigurableApplicationContext context;
+    private final JdbcTemplate jdbc;
+    private final Random random = new Random(42);
+
+    private List<Long> ambulanceIds = List.of();
+
+    BenchmarkFixture(String name) {
+        Path walDirectory;
+        try {
+            walDirectory = Files.createTempDirectory("benchmark-wal-");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // Command-line arguments, so they take precedence over application.properties
+        context = new SpringApplicationBuilder(AmbulanceTrackerApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.devtools.restart.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.thymeleaf=WARN",
+                        "--logging.level.org.springframework.web=WARN",
+                        "--logging.level.org.springframework.security.config=ERROR",
+                        "--telemetry.wal.dir=" + walDirectory);
+        jdbc = context.getBean(JdbcTemplate.class);
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    Random random() {
+        return random;
+    }
+
+    List<Long> ambulanceIds() {
+        return ambulanceIds;
+    }
+
+    Long adminUserId() {
+        return jdbc.queryForObject("SELECT id FROM users WHERE username = 'admin'", Long.class);
+    }
+
+    double randomLatitude() {
+        return BASE_LATITUDE + (random.nextDouble() - 0.5) * SPREAD_DEGREES;
+    }
+
+    double randomLongitude() {
+        return BASE_LONGITUDE + (random.nextDouble() - 0.5) * SPREAD_DEGREES;
+    }
+
+    /**
+     * Replaces the seeded fleet with {@code size} AVAILABLE units at random positions.
+     */
+    void seedFleet(int size) {
+        FleetRegistry registry = bean(FleetRegistry.class);
+        List<Long> previous = registry.findAll().stream().map(Ambulance::getId).toList();
+
+        jdbc.update("DELETE FROM ambulances");
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            rows.add(new Object[]{"BENCH" + i, "Driver " + i, "90000" + i, "AVAILABLE",
+                    randomLatitude(), randomLongitude(), now});
+        }
+        jdbc.batchUpdate("INSERT INTO ambulances (vehicle_no, driver_name, contact_no, status, latitude, longitude, " +
+                "last_updated, version) VALUES (?, ?, ?, ?, ?, ?, ?, 0)", rows);
+
+        previous.forEach(registry::refresh);
+        registry.reload();
+        ambulanceIds = jdbc.queryForList("SELECT id FROM ambulances ORDER BY id", Long.class);
+    }
+
+    /**
+     * Inserts {@code size} COMPLETED requests spread over the last 30 days and rebuilds
+     * every in-memory view that is derived from the request table.
+     */
+    void seedHistory(int size) {
+        Long userId = adminUserId();
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < size; i++) {
+            LocalDateTime requested = now.minusSeconds(random.nextInt(30 * 24 * 3600));
+            LocalDateTime started = requested.plusSeconds(random.nextInt(300));
+            LocalDateTime ended = started.plusSeconds(300 + random.nextInt(3600));
+            rows.add(new Object[]{userId, ambulanceIds.get(random.nextInt(ambulanceIds.size())),
+                    "history " + i, "Campus clinic", Timestamp.valueOf(requested), Timestamp.valueOf(started),
+                    Timestamp.valueOf(ended)});
+            if (rows.size() == BATCH_SIZE || i == size - 1) {
+                jdbc.batchUpdate("INSERT INTO emergency_requests (user_id, ambulance_id, patient_details, destination, " +
+                        "request_time, start_time, end_time, status, priority, version) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, 'COMPLETED', 'MEDIUM', 0)", rows);
+                rows.clear();
+            }
+        }
+        bean(ReportAggregator.class).rebuildFromTables();
+        bean(ResponseTimeTracker.class).rebuild();
+        bean(PendingRequestQueue.class).rebuild();
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,48 @@
+package com.campus.safety.ambulancetracker.benchmark;
+
+import com.campus.safety.ambulancetracker.model.EmergencyRequest;
+import com.campus.safety.ambulancetracker.model.RequestPriority;
+import com.campus.safety.ambulancetracker.service.EmergencyRequestService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full dispatch cycle with free units: create a request at a random pickup point
+ * (nearest-unit search, claim, insert) and complete it again (release, empty queue check).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DispatchBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int fleetSize;
+
+    private BenchmarkFixture fixture;
+    private EmergencyRequestService requestService;
+    private Long userId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new BenchmarkFixture("dispatch");
+        fixture.seedFleet(fleetSize);
+        requestService = fixture.bean(EmergencyRequestService.class);
+        userId = fixture.adminUserId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public EmergencyRequest createAndComplete() {
+        EmergencyRequest request = requestService.createAndAssignRequest(userId, "benchmark patient", "Campus clinic",
+                fixture.randomLatitude(), fixture.randomLongitude(), RequestPriority.MEDIUM);
+        return requestService.completeRequest(request.getId());
+    }
+}
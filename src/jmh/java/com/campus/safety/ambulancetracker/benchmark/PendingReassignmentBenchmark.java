@@ -0,0 +1,62 @@
+package com.campus.safety.ambulancetracker.benchmark;
+
+import com.campus.safety.ambulancetracker.model.EmergencyRequest;
+import com.campus.safety.ambulancetracker.model.RequestPriority;
+import com.campus.safety.ambulancetracker.service.EmergencyRequestService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatch under saturation: every unit is busy, so a new request is queued as PENDING,
+ * and completing the oldest assignment hands the freed unit the queued request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PendingReassignmentBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int fleetSize;
+
+    private BenchmarkFixture fixture;
+    private EmergencyRequestService requestService;
+    private Long userId;
+
+    // Assigned requests, oldest first; the fleet stays fully busy between invocations
+    private final Deque<Long> assigned = new ArrayDeque<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new BenchmarkFixture("pending");
+        fixture.seedFleet(fleetSize);
+        requestService = fixture.bean(EmergencyRequestService.class);
+        userId = fixture.adminUserId();
+        for (int i = 0; i < fleetSize; i++) {
+            assigned.addLast(createRequest().getId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public EmergencyRequest queueAndReassign() {
+        EmergencyRequest queued = createRequest();
+        EmergencyRequest completed = requestService.completeRequest(assigned.removeFirst());
+        assigned.addLast(queued.getId());
+        return completed;
+    }
+
+    private EmergencyRequest createRequest() {
+        return requestService.createAndAssignRequest(userId, "benchmark patient", "Campus clinic",
+                fixture.randomLatitude(), fixture.randomLongitude(), RequestPriority.MEDIUM);
+    }
+}
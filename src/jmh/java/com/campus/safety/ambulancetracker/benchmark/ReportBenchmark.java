@@ -0,0 +1,76 @@
+package com.campus.safety.ambulancetracker.benchmark;
+
+import com.campus.safety.ambulancetracker.dto.ResponseTimeReport;
+import com.campus.safety.ambulancetracker.service.EmergencyRequestService;
+import com.campus.safety.ambulancetracker.service.ReportAggregator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reporting over a request history of the given size: the KPI and percentile reads
+ * served from memory, the first-start rebuild that scans the history, and the restart
+ * path that restores the counters from their snapshot instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ReportBenchmark {
+
+    private static final int FLEET_SIZE = 100;
+
+    @Param({"1000", "100000", "1000000"})
+    public int historySize;
+
+    private BenchmarkFixture fixture;
+    private EmergencyRequestService requestService;
+    private ReportAggregator reportAggregator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new BenchmarkFixture("reports");
+        fixture.seedFleet(FLEET_SIZE);
+        fixture.seedHistory(historySize);
+        requestService = fixture.bean(EmergencyRequestService.class);
+        reportAggregator = fixture.bean(ReportAggregator.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public Map<String, String> generateReports() {
+        return requestService.generateReports();
+    }
+
+    @Benchmark
+    public ResponseTimeReport generateResponseTimeReport() {
+        return requestService.generateResponseTimeReport();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public ReportAggregator.Snapshot rebuildCounters() {
+        reportAggregator.rebuildFromTables();
+        return reportAggregator.snapshot();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public ReportAggregator.Snapshot restoreCounters() {
+        reportAggregator.rebuild();
+        return reportAggregator.snapshot();
+    }
+}
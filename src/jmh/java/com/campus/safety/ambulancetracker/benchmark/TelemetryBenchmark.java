@@ -0,0 +1,66 @@
+package com.campus.safety.ambulancetracker.benchmark;
+
+import com.campus.safety.ambulancetracker.dto.TelemetryResult;
+import com.campus.safety.ambulancetracker.dto.TelemetryUpdate;
+import com.campus.safety.ambulancetracker.model.Ambulance;
+import com.campus.safety.ambulancetracker.model.AmbulanceStatus;
+import com.campus.safety.ambulancetracker.service.AmbulanceService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Position pings: one at a time through {@code updateStatusAndLocation}, and in
+ * batches of 100 through {@code ingestTelemetry}. Both include the write-ahead log sync.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TelemetryBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int fleetSize;
+
+    private BenchmarkFixture fixture;
+    private AmbulanceService ambulanceService;
+    private List<Long> ambulanceIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new BenchmarkFixture("telemetry");
+        fixture.seedFleet(fleetSize);
+        ambulanceService = fixture.bean(AmbulanceService.class);
+        ambulanceIds = fixture.ambulanceIds();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public Ambulance updateStatusAndLocation() {
+        Long id = ambulanceIds.get(fixture.random().nextInt(ambulanceIds.size()));
+        return ambulanceService.updateStatusAndLocation(id, AmbulanceStatus.AVAILABLE,
+                fixture.randomLatitude(), fixture.randomLongitude());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<TelemetryResult> ingestTelemetryBatch() {
+        List<TelemetryUpdate> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            Long id = ambulanceIds.get(fixture.random().nextInt(ambulanceIds.size()));
+            batch.add(new TelemetryUpdate(id, AmbulanceStatus.AVAILABLE,
+                    fixture.randomLatitude(), fixture.randomLongitude(), null));
+        }
+        return ambulanceService.ingestTelemetry(batch);
+    }
+}
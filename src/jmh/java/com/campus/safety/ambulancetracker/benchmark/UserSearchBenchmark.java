@@ -0,0 +1,48 @@
+package com.campus.safety.ambulancetracker.benchmark;
+
+import com.campus.safety.ambulancetracker.dto.UserMatch;
+import com.campus.safety.ambulancetracker.dto.UserSummary;
+import com.campus.safety.ambulancetracker.service.UserDirectory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requester typeahead against a directory of the given size, with the queries a
+ * dispatcher types: a short name prefix, a full username and a phone number prefix.
+ * Needs no application context; the index is filled directly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class UserSearchBenchmark {
+
+    private static final String[] FIRST_NAMES = {"Aarav", "Diya", "Ishaan", "Meera", "Rohan", "Sara", "Vikram", "Zoya"};
+
+    @Param({"10000", "100000"})
+    public int directorySize;
+
+    @Param({"me", "student4242", "98450"})
+    public String query;
+
+    private UserDirectory directory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        directory = new UserDirectory(null);
+        for (int i = 1; i <= directorySize; i++) {
+            String first = FIRST_NAMES[i % FIRST_NAMES.length];
+            directory.put(new UserSummary((long) i, first, "Student " + i, "student" + i + "@campus.edu",
+                    "9845" + String.format("%06d", i), "student" + i, "STUDENT"));
+        }
+    }
+
+    @Benchmark
+    public List<UserMatch> search() {
+        return directory.search(query, 8);
+    }
+}
@@ -0,0 +1,96 @@
+package com.campus.safety.ambulancetracker.loadtest;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One browser-like session against the application: logs in through the form with
+ * its CSRF token, keeps the session cookie, and sends the token as a header on
+ * every state-changing call, exactly as the pages' own scripts would.
+ */
+class AppClient {
+
+    private static final Pattern CSRF_FIELD = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private String csrfToken;
+
+    AppClient(int port, Executor executor) {
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(TIMEOUT)
+                .executor(executor)
+                .build();
+        this.baseUrl = "http://127.0.0.1:" + port;
+    }
+
+    void login(String username, String password) throws IOException, InterruptedException {
+        String loginToken = csrfFrom(get("/login"));
+        String form = "username=" + encode(username) + "&password=" + encode(password) + "&_csrf=" + encode(loginToken);
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(uri("/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .timeout(TIMEOUT)
+                .build(), HttpResponse.BodyHandlers.ofString());
+        String location = response.headers().firstValue("Location").orElse("");
+        if (response.statusCode() != 302 || location.contains("error")) {
+            throw new IllegalStateException("Login failed for " + username + ": HTTP " + response.statusCode()
+                    + " " + location);
+        }
+        // The token is rotated on login; read the one bound to the new session
+        csrfToken = csrfFrom(get("/request/new"));
+    }
+
+    CompletableFuture<HttpResponse<Void>> send(String method, String path, String jsonBody) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(path))
+                .timeout(TIMEOUT)
+                .header("X-CSRF-TOKEN", csrfToken);
+        if (jsonBody != null) {
+            request.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(jsonBody));
+        } else {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+        return http.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private String get(String path) throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(uri(path)).timeout(TIMEOUT).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + path + " returned HTTP " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private static String csrfFrom(String html) {
+        Matcher matcher = CSRF_FIELD.matcher(html);
+        if (!matcher.find()) {
+            throw new IllegalStateException("No CSRF token in page");
+        }
+        return matcher.group(1);
+    }
+}
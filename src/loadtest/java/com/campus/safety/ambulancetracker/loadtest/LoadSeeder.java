@@ -0,0 +1,122 @@
+package com.campus.safety.ambulancetracker.loadtest;
+
+import com.campus.safety.ambulancetracker.service.FleetRegistry;
+import com.campus.safety.ambulancetracker.service.ReportAggregator;
+import com.campus.safety.ambulancetracker.service.ResponseTimeTracker;
+import com.campus.safety.ambulancetracker.service.UserDirectory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fills the embedded database with a synthetic fleet, users and request history,
+ * then rebuilds the in-memory views that the application loaded at startup.
+ * Rows are batch-inserted over JDBC; going through the services would take longer
+ * than the test itself for large histories.
+ */
+class LoadSeeder {
+
+    static final String PASSWORD = "load123";
+
+    static final double BASE_LATITUDE = 12.9716;
+    static final double BASE_LONGITUDE = 77.5946;
+    static final double SPREAD_DEGREES = 0.1;
+
+    private static final int BATCH_SIZE = 5000;
+
+    private final ConfigurableApplicationContext context;
+    private final JdbcTemplate jdbc;
+    private final Random random;
+
+    LoadSeeder(ConfigurableApplicationContext context, Random random) {
+        this.context = context;
+        this.jdbc = context.getBean(JdbcTemplate.class);
+        this.random = random;
+    }
+
+    /**
+     * Adds {@code count} AVAILABLE units at random positions and returns the ids of the whole fleet.
+     */
+    List<Long> seedAmbulances(int count) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{"LOAD" + i, "Driver " + i, "80000" + i, "AVAILABLE",
+                    randomLatitude(), randomLongitude(), now});
+            if (rows.size() == BATCH_SIZE || i == count - 1) {
+                jdbc.batchUpdate("INSERT INTO ambulances (vehicle_no, driver_name, contact_no, status, latitude, " +
+                        "longitude, last_updated, version) VALUES (?, ?, ?, ?, ?, ?, ?, 0)", rows);
+                rows.clear();
+            }
+        }
+        context.getBean(FleetRegistry.class).reload();
+        return jdbc.queryForList("SELECT id FROM ambulances ORDER BY id", Long.class);
+    }
+
+    /**
+     * Adds {@code count} USER accounts, all with {@link #PASSWORD}, and returns the ids of every user.
+     */
+    List<Long> seedUsers(int count) {
+        // One hash for everyone; BCrypt per row would dominate the seeding time
+        String hash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{"Load", "User " + i, "load" + i + "@campus.edu", "70000" + i,
+                    "load" + i, hash, "USER"});
+            if (rows.size() == BATCH_SIZE || i == count - 1) {
+                jdbc.batchUpdate("INSERT INTO users (first_name, last_name, email, contact_number, username, " +
+                        "password, role) VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+        context.getBean(UserDirectory.class).rebuild();
+        return jdbc.queryForList("SELECT id FROM users ORDER BY id", Long.class);
+    }
+
+    /**
+     * Adds {@code count} COMPLETED requests spread over the last 30 days.
+     */
+    void seedHistory(int count, List<Long> userIds, List<Long> ambulanceIds) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime requested = now.minusSeconds(random.nextInt(30 * 24 * 3600));
+            LocalDateTime started = requested.plusSeconds(random.nextInt(300));
+            LocalDateTime ended = started.plusSeconds(300 + random.nextInt(3600));
+            rows.add(new Object[]{userIds.get(random.nextInt(userIds.size())),
+                    ambulanceIds.get(random.nextInt(ambulanceIds.size())), "Seeded history " + i,
+                    "Campus clinic", randomLatitude(), randomLongitude(), Timestamp.valueOf(requested),
+                    Timestamp.valueOf(started), Timestamp.valueOf(ended)});
+            if (rows.size() == BATCH_SIZE || i == count - 1) {
+                jdbc.batchUpdate("INSERT INTO emergency_requests (user_id, ambulance_id, patient_details, " +
+                        "destination, pickup_latitude, pickup_longitude, request_time, start_time, end_time, " +
+                        "status, priority, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 'COMPLETED', 'MEDIUM', 0)", rows);
+                rows.clear();
+            }
+        }
+        context.getBean(ReportAggregator.class).rebuildFromTables();
+        context.getBean(ResponseTimeTracker.class).rebuild();
+    }
+
+    /**
+     * ASSIGNED requests created by the load test whose ambulance has been out longer than the service time.
+     */
+    List<Long> assignedBefore(LocalDateTime cutoff) {
+        return jdbc.queryForList("SELECT id FROM emergency_requests WHERE status = 'ASSIGNED' " +
+                "AND start_time <= ? AND patient_details LIKE 'Load test%'", Long.class, Timestamp.valueOf(cutoff));
+    }
+
+    double randomLatitude() {
+        return BASE_LATITUDE + (random.nextDouble() - 0.5) * SPREAD_DEGREES;
+    }
+
+    double randomLongitude() {
+        return BASE_LONGITUDE + (random.nextDouble() - 0.5) * SPREAD_DEGREES;
+    }
+}
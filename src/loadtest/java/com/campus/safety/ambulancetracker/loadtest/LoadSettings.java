@@ -0,0 +1,46 @@
+package com.campus.safety.ambulancetracker.loadtest;
+
+import org.springframework.core.env.Environment;
+
+/**
+ * The {@code loadtest.*} properties; defaults are in application-loadtest.properties.
+ */
+record LoadSettings(int ambulances,
+                    int users,
+                    int historyRequests,
+                    int durationSeconds,
+                    double gpsPingsPerSecond,
+                    int telemetryBatchSize,
+                    int requestBurstSize,
+                    int requestBurstIntervalSeconds,
+                    int serviceTimeSeconds,
+                    double dashboardReadsPerSecond,
+                    double reportReadsPerSecond,
+                    int clientThreads,
+                    int maxInFlight) {
+
+    static LoadSettings from(Environment env) {
+        LoadSettings settings = new LoadSettings(
+                env.getRequiredProperty("loadtest.ambulances", Integer.class),
+                env.getRequiredProperty("loadtest.users", Integer.class),
+                env.getRequiredProperty("loadtest.history-requests", Integer.class),
+                env.getRequiredProperty("loadtest.duration-seconds", Integer.class),
+                env.getRequiredProperty("loadtest.gps-pings-per-second", Double.class),
+                env.getRequiredProperty("loadtest.telemetry-batch-size", Integer.class),
+                env.getRequiredProperty("loadtest.request-burst-size", Integer.class),
+                env.getRequiredProperty("loadtest.request-burst-interval-seconds", Integer.class),
+                env.getRequiredProperty("loadtest.service-time-seconds", Integer.class),
+                env.getRequiredProperty("loadtest.dashboard-reads-per-second", Double.class),
+                env.getRequiredProperty("loadtest.report-reads-per-second", Double.class),
+                env.getRequiredProperty("loadtest.client-threads", Integer.class),
+                env.getRequiredProperty("loadtest.max-in-flight", Integer.class));
+        if (settings.ambulances < 1 || settings.users < 1) {
+            throw new IllegalArgumentException("loadtest.ambulances and loadtest.users must be at least 1");
+        }
+        if (settings.durationSeconds < 1 || settings.telemetryBatchSize < 1 || settings.requestBurstIntervalSeconds < 1
+                || settings.clientThreads < 1 || settings.maxInFlight < 1) {
+            throw new IllegalArgumentException("loadtest durations, sizes and limits must be positive");
+        }
+        return settings;
+    }
+}
@@ -0,0 +1,346 @@
+package com.campus.safety.ambulancetracker.loadtest;
+
+import com.campus.safety.ambulancetracker.AmbulanceTrackerApplication;
+import com.campus.safety.ambulancetracker.model.AmbulanceStatus;
+import com.campus.safety.ambulancetracker.model.RequestPriority;
+import com.campus.safety.ambulancetracker.service.FleetRegistry;
+import com.campus.safety.ambulancetracker.service.LatencyHistogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Capacity test against the real HTTP endpoints, on an embedded database.
+ *
+ * Boots the application with the {@code loadtest} profile, seeds it through
+ * {@link LoadSeeder}, then drives open-loop traffic for {@code loadtest.duration-seconds}:
+ * GPS pings from the fleet, bursts of new emergency requests, completion of
+ * requests once their service time is up, and dashboard and report reads.
+ * Calls are issued on a fixed schedule whether or not earlier ones have returned,
+ * so a slow server shows up as latency and skipped calls instead of silently
+ * lowering the offered load. Prints throughput, latency percentiles and errors
+ * per operation at the end.
+ */
+public class LoadTest {
+
+    private static final long TICK_MILLIS = 100;
+    private static final long DRAIN_SECONDS = 30;
+
+    private static final RequestPriority[] PRIORITIES = RequestPriority.values();
+
+    private final ConfigurableApplicationContext context;
+    private final LoadSettings settings;
+    private final Random random = new Random(42);
+    private final LoadSeeder seeder;
+    private final FleetRegistry fleetRegistry;
+
+    private final OperationStats gpsPings;
+    private final OperationStats createRequests = new OperationStats("create-request", 202);
+    private final OperationStats completeRequests = new OperationStats("complete-request", 200);
+    private final OperationStats dashboardReads = new OperationStats("dashboard", 200);
+    private final OperationStats reportPageReads = new OperationStats("reports-page", 200);
+    private final OperationStats responseTimeReads = new OperationStats("response-times-api", 200);
+
+    private final AtomicLong requestCounter = new AtomicLong();
+    private final Set<Long> completing = ConcurrentHashMap.newKeySet();
+    private final Map<Long, double[]> positions = new ConcurrentHashMap<>();
+
+    private Semaphore inFlight;
+    private List<Long> ambulanceIds;
+    private List<Long> userIds;
+
+    LoadTest(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.settings = LoadSettings.from(context.getEnvironment());
+        this.seeder = new LoadSeeder(context, random);
+        this.fleetRegistry = context.getBean(FleetRegistry.class);
+        this.gpsPings = settings.telemetryBatchSize() > 1
+                ? new OperationStats("telemetry-batch", 200)
+                : new OperationStats("gps-ping", 200);
+    }
+
+    public static void main(String[] args) throws Exception {
+        run(new String[]{"loadtest"}, args);
+        System.exit(0);
+    }
+
+    /**
+     * Boots the application with the given profiles and arguments, drives the load,
+     * prints the report and returns the stats per operation.
+     */
+    static List<OperationStats> run(String[] profiles, String[] args) throws Exception {
+        // Devtools would otherwise restart the context in a new class loader
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        // A fresh log per run; segments left by an earlier run would be replayed into the new database
+        Path walDirectory = Files.createTempDirectory("loadtest-wal-");
+        List<String> appArgs = new ArrayList<>(Arrays.asList(args));
+        appArgs.add("--telemetry.wal.dir=" + walDirectory);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(AmbulanceTrackerApplication.class)
+                .profiles(profiles)
+                .run(appArgs.toArray(String[]::new));
+        try {
+            return new LoadTest(context).run();
+        } finally {
+            context.close();
+            FileSystemUtils.deleteRecursively(walDirectory);
+        }
+    }
+
+    List<OperationStats> run() throws Exception {
+        long seedStart = System.nanoTime();
+        ambulanceIds = seeder.seedAmbulances(settings.ambulances());
+        userIds = seeder.seedUsers(settings.users());
+        seeder.seedHistory(settings.historyRequests(), userIds, ambulanceIds);
+        System.out.println(">>> Load test seeded " + ambulanceIds.size() + " ambulances, " + userIds.size()
+                + " users and " + settings.historyRequests() + " historical requests in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seedStart) + " ms <<<");
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        ExecutorService clientPool = Executors.newFixedThreadPool(settings.clientThreads(),
+                Thread.ofPlatform().name("loadtest-client-", 0).daemon().factory());
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2,
+                Thread.ofPlatform().name("loadtest-schedule-", 0).daemon().factory());
+        inFlight = new Semaphore(settings.maxInFlight());
+
+        // Dispatchers act as the admin; dashboards are read by an ordinary user
+        AppClient dispatcher = new AppClient(port, clientPool);
+        dispatcher.login("admin", "admin123");
+        AppClient viewer = new AppClient(port, clientPool);
+        viewer.login("load0", LoadSeeder.PASSWORD);
+
+        System.out.println(">>> Load test running for " + settings.durationSeconds() + " s against port " + port + " <<<");
+        long start = System.nanoTime();
+
+        Pacer pings = new Pacer(settings.gpsPingsPerSecond() / settings.telemetryBatchSize());
+        Pacer dashboards = new Pacer(settings.dashboardReadsPerSecond());
+        Pacer reports = new Pacer(settings.reportReadsPerSecond());
+        scheduler.scheduleAtFixedRate(() -> {
+            for (int i = pings.due(); i > 0; i--) {
+                sendPing(dispatcher);
+            }
+            for (int i = dashboards.due(); i > 0; i--) {
+                issue(dashboardReads, () -> viewer.send("GET", "/dashboard", null));
+            }
+            for (int i = reports.due(); i > 0; i--) {
+                issue(reportPageReads, () -> dispatcher.send("GET", "/reports", null));
+                issue(responseTimeReads, () -> dispatcher.send("GET", "/api/reports/response-times", null));
+            }
+        }, 0, TICK_MILLIS, TimeUnit.MILLISECONDS);
+
+        scheduler.scheduleAtFixedRate(() -> {
+            for (int i = 0; i < settings.requestBurstSize(); i++) {
+                createRequest(dispatcher);
+            }
+        }, 0, settings.requestBurstIntervalSeconds(), TimeUnit.SECONDS);
+
+        scheduler.scheduleWithFixedDelay(() -> completeDueRequests(dispatcher), 1, 1, TimeUnit.SECONDS);
+
+        Thread.sleep(TimeUnit.SECONDS.toMillis(settings.durationSeconds()));
+        scheduler.shutdownNow();
+        scheduler.awaitTermination(DRAIN_SECONDS, TimeUnit.SECONDS);
+        boolean drained = inFlight.tryAcquire(settings.maxInFlight(), DRAIN_SECONDS, TimeUnit.SECONDS);
+        long elapsedNanos = System.nanoTime() - start;
+        if (!drained) {
+            System.out.println(">>> Load test: calls still in flight after " + DRAIN_SECONDS
+                    + " s of draining; they are not counted <<<");
+        }
+        clientPool.shutdownNow();
+
+        List<OperationStats> operations = List.of(gpsPings, createRequests, completeRequests,
+                dashboardReads, reportPageReads, responseTimeReads);
+        printReport(operations, elapsedNanos);
+        return operations;
+    }
+
+    private void sendPing(AppClient client) {
+        if (settings.telemetryBatchSize() == 1) {
+            Long id = randomAmbulance();
+            double[] position = move(id);
+            String path = "/api/ambulances/" + id + "/status?status=" + currentStatus(id)
+                    + "&lat=" + position[0] + "&lng=" + position[1];
+            issue(gpsPings, () -> client.send("PUT", path, null));
+            return;
+        }
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < settings.telemetryBatchSize(); i++) {
+            Long id = randomAmbulance();
+            double[] position = move(id);
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append("{\"ambulanceId\":").append(id)
+                    .append(",\"status\":\"").append(currentStatus(id))
+                    .append("\",\"lat\":").append(position[0])
+                    .append(",\"lng\":").append(position[1]).append('}');
+        }
+        String json = body.append(']').toString();
+        issue(gpsPings, () -> client.send("POST", "/api/ambulances/telemetry", json));
+    }
+
+    private void createRequest(AppClient client) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        String path = "/api/requests?userId=" + userIds.get(rnd.nextInt(userIds.size()))
+                + "&patientDetails=" + AppClient.encode("Load test " + requestCounter.incrementAndGet())
+                + "&destination=" + AppClient.encode("Campus clinic")
+                + "&pickupLat=" + seeder.randomLatitude()
+                + "&pickupLng=" + seeder.randomLongitude()
+                + "&priority=" + PRIORITIES[rnd.nextInt(PRIORITIES.length)];
+        issue(createRequests, () -> client.send("POST", path, null));
+    }
+
+    /**
+     * Completes every request whose ambulance has been out for the service time. Pending
+     * requests are picked up here once a freed unit has been assigned to them.
+     */
+    private void completeDueRequests(AppClient client) {
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(settings.serviceTimeSeconds());
+        for (Long id : seeder.assignedBefore(cutoff)) {
+            if (completing.add(id)) {
+                issue(completeRequests, () -> client.send("PUT", "/api/requests/" + id + "/complete", null)
+                        .whenComplete((response, error) -> completing.remove(id)));
+            }
+        }
+    }
+
+    private void issue(OperationStats stats, CallSupplier call) {
+        if (!inFlight.tryAcquire()) {
+            stats.recordSkipped();
+            return;
+        }
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<Void>> future;
+        try {
+            future = call.start();
+        } catch (RuntimeException e) {
+            inFlight.release();
+            stats.recordError(e);
+            return;
+        }
+        future.whenComplete((response, error) -> {
+            if (error != null) {
+                stats.recordError(error);
+            } else {
+                stats.recordResponse(response.statusCode(), start);
+            }
+            inFlight.release();
+        });
+    }
+
+    private Long randomAmbulance() {
+        return ambulanceIds.get(ThreadLocalRandom.current().nextInt(ambulanceIds.size()));
+    }
+
+    /**
+     * The device reports the status it currently has, as a real one would.
+     */
+    private AmbulanceStatus currentStatus(Long ambulanceId) {
+        return fleetRegistry.statusOf(ambulanceId).orElse(AmbulanceStatus.AVAILABLE);
+    }
+
+    /**
+     * Moves the unit a few metres from where it last reported.
+     */
+    private double[] move(Long ambulanceId) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        return positions.compute(ambulanceId, (id, last) -> {
+            double[] from = last != null ? last : new double[]{seeder.randomLatitude(), seeder.randomLongitude()};
+            return new double[]{from[0] + (rnd.nextDouble() - 0.5) * 0.0005,
+                    from[1] + (rnd.nextDouble() - 0.5) * 0.0005};
+        });
+    }
+
+    private void printReport(List<OperationStats> operations, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "%n%-20s %9s %9s %8s %8s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "calls", "ok", "errors", "skipped", "req/s", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms",
+                "max ms"));
+        long totalCalls = 0;
+        long totalErrors = 0;
+        long totalSkipped = 0;
+        for (OperationStats stats : operations) {
+            long calls = stats.succeeded() + stats.failed();
+            totalCalls += calls;
+            totalErrors += stats.failed();
+            totalSkipped += stats.skipped();
+            report.append(row(stats.name(), calls, stats.succeeded(), stats.failed(), stats.skipped(), seconds,
+                    stats.latencyMicros()));
+        }
+        report.append(String.format(Locale.ROOT, "%-20s %9d %9d %8d %8d %9.1f%n", "total", totalCalls,
+                totalCalls - totalErrors, totalErrors, totalSkipped, totalCalls / seconds));
+
+        for (OperationStats stats : operations) {
+            for (Map.Entry<String, LongAdder> failure : stats.failures().entrySet()) {
+                report.append(String.format(Locale.ROOT, "  %s: %s x %d%n", stats.name(), failure.getKey(),
+                        failure.getValue().sum()));
+            }
+        }
+
+        System.out.println(String.format(Locale.ROOT, ">>> Load test finished: %d calls in %.1f s, %.1f req/s, "
+                        + "error rate %.2f%% <<<", totalCalls, seconds, totalCalls / seconds,
+                totalCalls == 0 ? 0.0 : 100.0 * totalErrors / totalCalls) + report);
+    }
+
+    private static String row(String name, long calls, long ok, long errors, long skipped, double seconds,
+                              LatencyHistogram latencyMicros) {
+        return String.format(Locale.ROOT, "%-20s %9d %9d %8d %8d %9.1f %9s %9s %9s %9s %9s%n", name, calls, ok,
+                errors, skipped, calls / seconds, millis(latencyMicros.valueAtPercentile(50)),
+                millis(latencyMicros.valueAtPercentile(95)), millis(latencyMicros.valueAtPercentile(99)),
+                millis(latencyMicros.valueAtPercentile(99.9)), millis(latencyMicros.maxValue()));
+    }
+
+    static String millis(Long micros) {
+        return micros == null ? "-" : String.format(Locale.ROOT, "%.2f", micros / 1000.0);
+    }
+
+    @FunctionalInterface
+    private interface CallSupplier {
+        CompletableFuture<HttpResponse<Void>> start();
+    }
+
+    /**
+     * Turns a per-second rate into a whole number of calls per tick, carrying the fraction over.
+     */
+    private static final class Pacer {
+
+        private final double perTick;
+        private double credit;
+
+        Pacer(double perSecond) {
+            this.perTick = perSecond * TICK_MILLIS / 1000.0;
+        }
+
+        int due() {
+            credit += perTick;
+            int calls = (int) credit;
+            credit -= calls;
+            return calls;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.campus.safety.ambulancetracker.loadtest;
+
+import com.campus.safety.ambulancetracker.service.LatencyHistogram;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcome counters and latency histogram for one kind of call.
+ *
+ * Latencies are recorded in microseconds. The histogram's error is relative to the
+ * value, so the unit only decides the smallest distinguishable step.
+ */
+class OperationStats {
+
+    private final String name;
+    private final int expectedStatus;
+    private final LatencyHistogram latencyMicros = new LatencyHistogram();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    // e.g. "HTTP 500" or "HttpTimeoutException", with how often each happened
+    private final Map<String, LongAdder> failures = new ConcurrentSkipListMap<>();
+
+    OperationStats(String name, int expectedStatus) {
+        this.name = name;
+        this.expectedStatus = expectedStatus;
+    }
+
+    String name() {
+        return name;
+    }
+
+    void recordResponse(int status, long startNanos) {
+        latencyMicros.record((System.nanoTime() - startNanos) / 1_000);
+        if (status == expectedStatus) {
+            succeeded.increment();
+        } else {
+            recordFailure("HTTP " + status);
+        }
+    }
+
+    void recordError(Throwable error) {
+        Throwable cause = error.getCause() != null ? error.getCause() : error;
+        recordFailure(cause.getClass().getSimpleName());
+    }
+
+    /**
+     * The client was already at its in-flight limit, so the call was never made.
+     */
+    void recordSkipped() {
+        skipped.increment();
+    }
+
+    long succeeded() {
+        return succeeded.sum();
+    }
+
+    long failed() {
+        return failed.sum();
+    }
+
+    long skipped() {
+        return skipped.sum();
+    }
+
+    LatencyHistogram latencyMicros() {
+        return latencyMicros;
+    }
+
+    Map<String, LongAdder> failures() {
+        return failures;
+    }
+
+    private void recordFailure(String kind) {
+        failed.increment();
+        failures.computeIfAbsent(kind, k -> new LongAdder()).increment();
+    }
+}
@@ -0,0 +1,53 @@
+package com.campus.safety.ambulancetracker.loadtest;
+
+import com.campus.safety.ambulancetracker.service.LatencyHistogram;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Runs the same surge load twice, on Tomcat's platform thread pool and then on virtual
+ * threads, and prints tail latencies side by side.
+ *
+ * Uses the {@code loadtest} and {@code loadtest-surge} profiles; each run boots its own
+ * context on a fresh embedded database. Arguments are passed to both runs, so point them
+ * at MySQL with {@code --spring.datasource.*} to compare against the real driver.
+ */
+public class ThreadModeComparison {
+
+    private static final String[] PROFILES = {"loadtest", "loadtest-surge"};
+
+    public static void main(String[] args) throws Exception {
+        Map<String, List<OperationStats>> results = new LinkedHashMap<>();
+        for (boolean virtual : new boolean[]{false, true}) {
+            String[] modeArgs = Arrays.copyOf(args, args.length + 1);
+            modeArgs[args.length] = "--spring.threads.virtual.enabled=" + virtual;
+            String mode = virtual ? "virtual" : "platform";
+            System.out.println(">>> Thread mode comparison: " + mode + " threads <<<");
+            results.put(mode, LoadTest.run(PROFILES, modeArgs));
+        }
+        printComparison(results);
+        System.exit(0);
+    }
+
+    private static void printComparison(Map<String, List<OperationStats>> results) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "%n%-20s %-9s %9s %8s %8s %9s %9s %9s %9s%n",
+                "operation", "threads", "ok", "errors", "skipped", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        List<OperationStats> platform = results.get("platform");
+        for (int i = 0; i < platform.size(); i++) {
+            for (Map.Entry<String, List<OperationStats>> mode : results.entrySet()) {
+                OperationStats stats = mode.getValue().get(i);
+                LatencyHistogram latency = stats.latencyMicros();
+                report.append(String.format(Locale.ROOT, "%-20s %-9s %9d %8d %8d %9s %9s %9s %9s%n",
+                        stats.name(), mode.getKey(), stats.succeeded(), stats.failed(), stats.skipped(),
+                        LoadTest.millis(latency.valueAtPercentile(50)), LoadTest.millis(latency.valueAtPercentile(99)),
+                        LoadTest.millis(latency.valueAtPercentile(99.9)), LoadTest.millis(latency.maxValue())));
+            }
+        }
+        System.out.println(">>> Thread mode comparison finished <<<" + report);
+    }
+}
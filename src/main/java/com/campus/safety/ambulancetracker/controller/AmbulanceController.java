@@ -1,21 +1,40 @@
 package com.campus.safety.ambulancetracker.controller;
 
+import com.campus.safety.ambulancetracker.dto.AssignmentNotice;
+import com.campus.safety.ambulancetracker.dto.NearbyAmbulance;
+import com.campus.safety.ambulancetracker.dto.TelemetryResult;
+import com.campus.safety.ambulancetracker.dto.TelemetryUpdate;
+import com.campus.safety.ambulancetracker.dto.TrackPoint;
 import com.campus.safety.ambulancetracker.model.Ambulance;
 import com.campus.safety.ambulancetracker.model.AmbulanceStatus;
 import com.campus.safety.ambulancetracker.service.AmbulanceService;
+import com.campus.safety.ambulancetracker.service.AssignmentNotifier;
+import com.campus.safety.ambulancetracker.service.LocationHistory;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/ambulances")
 public class AmbulanceController {
 
+    private static final long MIN_WAIT_MS = 1_000;
+    private static final long MAX_WAIT_MS = 120_000;
+
     private final AmbulanceService ambulanceService;
+    private final AssignmentNotifier assignmentNotifier;
+    private final LocationHistory locationHistory;
 
-    public AmbulanceController(AmbulanceService ambulanceService) {
+    public AmbulanceController(AmbulanceService ambulanceService, AssignmentNotifier assignmentNotifier,
+                               LocationHistory locationHistory) {
         this.ambulanceService = ambulanceService;
+        this.assignmentNotifier = assignmentNotifier;
+        this.locationHistory = locationHistory;
     }
 
     // Endpoint: GET /api/ambulances
@@ -31,6 +50,32 @@ public class AmbulanceController {
         return ambulanceService.findAvailableAmbulances();
     }
     
+    // Endpoint: GET /api/ambulances/nearest?lat=..&lng=..&k=..
+    // Closest AVAILABLE units to a point, nearest first
+    @GetMapping("/nearest")
+    public ResponseEntity<List<NearbyAmbulance>> getNearestAvailable(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(defaultValue = "5") int k) {
+        if (k < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(ambulanceService.findNearestAvailable(lat, lng, k));
+    }
+
+    // Endpoint: GET /api/ambulances/within?lat=..&lng=..&radius=..
+    // All units within the radius (meters), whatever their status
+    @GetMapping("/within")
+    public ResponseEntity<List<NearbyAmbulance>> getWithinRadius(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam double radius) {
+        if (radius < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(ambulanceService.findWithinRadius(lat, lng, radius));
+    }
+
     // Endpoint: PUT /api/ambulances/{id}/status
     // Used to simulate an ambulance reporting a status change or location update
     @PutMapping("/{id}/status")
@@ -48,4 +93,48 @@ public class AmbulanceController {
             return ResponseEntity.notFound().build();
         }
     }
-}
\ No newline at end of file
+
+    // Endpoint: GET /api/ambulances/{id}/assignment?since=..&timeout=..
+    // Long-poll for driver devices: returns the first assignment newer than 'since'
+    // as soon as it is made, or 204 No Content when the wait (ms) runs out
+    @GetMapping("/{id}/assignment")
+    public DeferredResult<ResponseEntity<AssignmentNotice>> awaitAssignment(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "30000") long timeout) {
+        if (ambulanceService.findById(id).isEmpty()) {
+            DeferredResult<ResponseEntity<AssignmentNotice>> notFound = new DeferredResult<>();
+            notFound.setResult(ResponseEntity.notFound().build());
+            return notFound;
+        }
+        long wait = Math.min(Math.max(timeout, MIN_WAIT_MS), MAX_WAIT_MS);
+        return assignmentNotifier.await(id, since, wait);
+    }
+
+    // Endpoint: GET /api/ambulances/{id}/trajectory?from=..&to=..
+    // Every recorded position between the two ISO date-times, oldest first
+    @GetMapping("/{id}/trajectory")
+    public ResponseEntity<List<TrackPoint>> getTrajectory(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(locationHistory.trajectory(id, from, to));
+    }
+
+    // Endpoint: POST /api/ambulances/telemetry
+    // Bulk ingestion for gateways that collect pings from many vehicles.
+    // Returns one result per record, in request order.
+    // A signed device may only send readings for its own ambulance (403 otherwise).
+    @PostMapping("/telemetry")
+    public ResponseEntity<List<TelemetryResult>> ingestTelemetry(@RequestBody List<TelemetryUpdate> updates,
+                                                                 Authentication authentication) {
+        if (authentication instanceof DeviceAuthentication device && updates.stream()
+                .anyMatch(update -> update != null && !device.getAmbulanceId().equals(update.ambulanceId()))) {
+            return ResponseEntity.status(403).build();
+        }
+        return ResponseEntity.ok(ambulanceService.ingestTelemetry(updates));
+    }
+}
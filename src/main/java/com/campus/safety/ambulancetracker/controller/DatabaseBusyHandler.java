@@ -0,0 +1,30 @@
+package com.campus.safety.ambulancetracker.controller;
+
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Answers 503 with a Retry-After when a call was refused a database connection, so
+ * clients back off during a surge instead of seeing a server error.
+ */
+@ControllerAdvice
+class DatabaseBusyHandler {
+
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    ResponseEntity<String> databaseBusy(RuntimeException e) {
+        if (!(NestedExceptionUtils.getMostSpecificCause(e) instanceof SQLTransientConnectionException)) {
+            throw e;
+        }
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Server busy, retry shortly");
+    }
+}
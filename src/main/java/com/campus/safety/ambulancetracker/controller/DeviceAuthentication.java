@@ -0,0 +1,39 @@
+package com.campus.safety.ambulancetracker.controller;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+/**
+ * A request signed by the device of one ambulance. Grants {@code ROLE_DEVICE}; the
+ * device may only act for its own ambulance.
+ */
+public class DeviceAuthentication extends AbstractAuthenticationToken {
+
+    private final String keyId;
+    private final Long ambulanceId;
+
+    public DeviceAuthentication(String keyId, Long ambulanceId) {
+        super(AuthorityUtils.createAuthorityList("ROLE_DEVICE"));
+        this.keyId = keyId;
+        this.ambulanceId = ambulanceId;
+        setAuthenticated(true);
+    }
+
+    public Long getAmbulanceId() {
+        return ambulanceId;
+    }
+
+    public String getKeyId() {
+        return keyId;
+    }
+
+    @Override
+    public Object getCredentials() {
+        return "";
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return keyId;
+    }
+}
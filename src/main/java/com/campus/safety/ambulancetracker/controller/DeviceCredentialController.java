@@ -0,0 +1,48 @@
+package com.campus.safety.ambulancetracker.controller;
+
+import com.campus.safety.ambulancetracker.dto.DeviceKeyInfo;
+import com.campus.safety.ambulancetracker.dto.IssuedDeviceKey;
+import com.campus.safety.ambulancetracker.service.DeviceCredentialService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/ambulances/{ambulanceId}/device-keys")
+public class DeviceCredentialController {
+
+    private final DeviceCredentialService credentialService;
+
+    public DeviceCredentialController(DeviceCredentialService credentialService) {
+        this.credentialService = credentialService;
+    }
+
+    // Endpoint: POST /api/ambulances/{ambulanceId}/device-keys
+    // Issues a signing key for the ambulance's device; the secret is only returned here
+    @PostMapping
+    public ResponseEntity<IssuedDeviceKey> issueKey(@PathVariable Long ambulanceId) {
+        try {
+            return ResponseEntity.status(201).body(credentialService.issue(ambulanceId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Endpoint: GET /api/ambulances/{ambulanceId}/device-keys
+    @GetMapping
+    public List<DeviceKeyInfo> getKeys(@PathVariable Long ambulanceId) {
+        return credentialService.findByAmbulance(ambulanceId);
+    }
+
+    // Endpoint: DELETE /api/ambulances/{ambulanceId}/device-keys/{keyId}
+    // Revokes the key; devices still using it get 401
+    @DeleteMapping("/{keyId}")
+    public ResponseEntity<DeviceKeyInfo> revokeKey(@PathVariable Long ambulanceId, @PathVariable String keyId) {
+        try {
+            return ResponseEntity.ok(credentialService.revoke(ambulanceId, keyId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
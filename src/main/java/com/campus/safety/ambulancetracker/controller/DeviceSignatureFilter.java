@@ -0,0 +1,177 @@
+package com.campus.safety.ambulancetracker.controller;
+
+import com.campus.safety.ambulancetracker.service.DeviceKeyCache;
+import com.campus.safety.ambulancetracker.service.DeviceSignature;
+import com.campus.safety.ambulancetracker.service.SignatureReplayCache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Authenticates a device request from its {@link DeviceSignature} headers. Needs no
+ * session and, once the key is cached, no database read: a cache lookup, a SHA-256 of
+ * the body and one HMAC. Requests with a bad, stale, unknown or already used signature
+ * are answered 401 here and never reach a controller.
+ */
+class DeviceSignatureFilter extends OncePerRequestFilter {
+
+    private final DeviceKeyCache keyCache;
+    private final SignatureReplayCache replayCache;
+    private final long maxClockSkewSeconds;
+    private final int maxBodyBytes;
+    private final SecurityContextRepository contextRepository = new RequestAttributeSecurityContextRepository();
+
+    DeviceSignatureFilter(DeviceKeyCache keyCache, SignatureReplayCache replayCache,
+                          long maxClockSkewSeconds, int maxBodyBytes) {
+        this.keyCache = keyCache;
+        this.replayCache = replayCache;
+        this.maxClockSkewSeconds = maxClockSkewSeconds;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String keyId = request.getHeader(DeviceSignature.KEY_HEADER);
+        String timestampHeader = request.getHeader(DeviceSignature.TIMESTAMP_HEADER);
+        String signature = request.getHeader(DeviceSignature.SIGNATURE_HEADER);
+        if (keyId == null || timestampHeader == null || signature == null) {
+            reject(response, "Missing device signature headers");
+            return;
+        }
+
+        long timestamp;
+        try {
+            timestamp = Long.parseLong(timestampHeader);
+        } catch (NumberFormatException e) {
+            reject(response, "Bad timestamp");
+            return;
+        }
+        if (Math.abs(System.currentTimeMillis() / 1000 - timestamp) > maxClockSkewSeconds) {
+            reject(response, "Timestamp outside the allowed clock skew");
+            return;
+        }
+
+        Optional<DeviceKeyCache.DeviceKey> key = keyCache.find(keyId);
+        if (key.isEmpty()) {
+            reject(response, "Unknown or revoked device key");
+            return;
+        }
+
+        if (request.getContentLengthLong() > maxBodyBytes) {
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            return;
+        }
+        byte[] body = request.getInputStream().readNBytes(maxBodyBytes + 1);
+        if (body.length > maxBodyBytes) {
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            return;
+        }
+
+        String query = request.getQueryString();
+        String pathAndQuery = request.getRequestURI() + (query != null ? "?" + query : "");
+        if (!DeviceSignature.verify(key.get().secret(), request.getMethod(), pathAndQuery, timestamp, body, signature)) {
+            reject(response, "Signature does not match");
+            return;
+        }
+        if (!replayCache.firstUse(keyId, signature, timestamp)) {
+            reject(response, "Signature already used");
+            return;
+        }
+
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new DeviceAuthentication(keyId, key.get().ambulanceId()));
+        SecurityContextHolder.setContext(context);
+        // Keeps the device authenticated on the async dispatch of a long-poll
+        contextRepository.saveContext(context, request, response);
+        chain.doFilter(new CachedBodyRequest(request, body), response);
+    }
+
+    private static void reject(HttpServletResponse response, String reason) throws IOException {
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "HMAC-SHA256 realm=\"devices\"");
+        response.sendError(HttpServletResponse.SC_UNAUTHORIZED, reason);
+    }
+
+    /**
+     * Serves the body that was already read to check the signature.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /**
+                 * The whole body is in memory, so it is available at once: the listener
+                 * reads it in one callback and is then told the body is complete.
+                 */
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
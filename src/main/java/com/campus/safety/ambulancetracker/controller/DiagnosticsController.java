@@ -0,0 +1,81 @@
+package com.campus.safety.ambulancetracker.controller;
+
+import com.campus.safety.ambulancetracker.dto.RecordingStatus;
+import com.campus.safety.ambulancetracker.service.FlightRecorderService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@RestController
+@RequestMapping("/api/diagnostics/recording")
+public class DiagnosticsController {
+
+    private final FlightRecorderService flightRecorder;
+
+    public DiagnosticsController(FlightRecorderService flightRecorder) {
+        this.flightRecorder = flightRecorder;
+    }
+
+    // Endpoint: GET /api/diagnostics/recording
+    // State of the current or last recording; 404 if none was started
+    @GetMapping
+    public ResponseEntity<RecordingStatus> getRecording() {
+        return ResponseEntity.of(flightRecorder.status());
+    }
+
+    // Endpoint: POST /api/diagnostics/recording/start?settings=..&duration=..
+    // settings is a JDK settings file ("default" ~1% overhead, "profile" ~2%); duration in seconds
+    @PostMapping("/start")
+    public ResponseEntity<RecordingStatus> startRecording(
+            @RequestParam(defaultValue = "default") String settings,
+            @RequestParam(defaultValue = "300") long duration) {
+        try {
+            return ResponseEntity.ok(flightRecorder.start(settings, duration));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Endpoint: POST /api/diagnostics/recording/stop
+    @PostMapping("/stop")
+    public ResponseEntity<RecordingStatus> stopRecording() {
+        try {
+            return ResponseEntity.ok(flightRecorder.stop());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Endpoint: GET /api/diagnostics/recording/download
+    // The recording so far as a .jfr file, for JDK Mission Control or `jfr print`
+    @GetMapping("/download")
+    public ResponseEntity<StreamingResponseBody> downloadRecording() throws IOException {
+        Path file;
+        try {
+            file = flightRecorder.dump();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+        StreamingResponseBody body = out -> {
+            try {
+                Files.copy(file, out);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .contentLength(Files.size(file))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"ambulance-tracker.jfr\"")
+                .body(body);
+    }
+}
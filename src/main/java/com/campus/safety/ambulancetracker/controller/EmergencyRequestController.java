@@ -1,42 +1,126 @@
 package com.campus.safety.ambulancetracker.controller;
 
+import com.campus.safety.ambulancetracker.dto.IntakeStatus;
+import com.campus.safety.ambulancetracker.dto.KeysetPage;
+import com.campus.safety.ambulancetracker.dto.RequestSummary;
+import com.campus.safety.ambulancetracker.model.DispatchEvent;
 import com.campus.safety.ambulancetracker.model.EmergencyRequest;
+import com.campus.safety.ambulancetracker.model.RequestPriority;
 import com.campus.safety.ambulancetracker.service.EmergencyRequestService;
+import com.campus.safety.ambulancetracker.service.IntakePipeline;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.net.URI;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/requests")
 public class EmergencyRequestController {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int STREAM_BATCH_SIZE = 500;
+
     private final EmergencyRequestService requestService;
+    private final IntakePipeline intakePipeline;
+    private final ObjectMapper objectMapper;
 
-    public EmergencyRequestController(EmergencyRequestService requestService) {
+    public EmergencyRequestController(EmergencyRequestService requestService, IntakePipeline intakePipeline,
+                                      ObjectMapper objectMapper) {
         this.requestService = requestService;
+        this.intakePipeline = intakePipeline;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Endpoint: GET /api/requests?status=..
+     * Every request in the given statuses (repeat the parameter; all when omitted) as one
+     * JSON array, streamed while it is read page by page.
+     */
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> getRequests(
+            @RequestParam(name = "status", defaultValue = "") List<String> statuses) {
+        return JsonArrayResponse.of(objectMapper, () -> requestService.streamAll(statuses, STREAM_BATCH_SIZE));
+    }
+
+    /**
+     * Endpoint: GET /api/requests/page?status=..&after=..&limit=..
+     * Requests after the cursor, by id; pass nextCursor back as 'after' for the next page.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<KeysetPage<RequestSummary>> getRequestPage(
+            @RequestParam(name = "status", defaultValue = "") List<String> statuses,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "50") int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(requestService.findPage(statuses, after, limit));
     }
 
     /**
      * Endpoint: POST /api/requests
-     * Creates a new emergency request and attempts to assign an available ambulance.
+     * Accepts a new emergency request and answers 202 as soon as it is recorded; the
+     * closest available ambulance is assigned in the background. Poll the Location for
+     * the outcome. 400 when invalid, 503 when the intake pipeline is full.
      */
     @PostMapping
-    public ResponseEntity<EmergencyRequest> createEmergencyRequest(
+    public ResponseEntity<IntakeStatus> createEmergencyRequest(
             @RequestParam Long userId,
             @RequestParam String patientDetails,
-            @RequestParam String destination) {
+            @RequestParam String destination,
+            @RequestParam(required = false) Double pickupLat,
+            @RequestParam(required = false) Double pickupLng,
+            @RequestParam(required = false) RequestPriority priority) {
 
         try {
-            EmergencyRequest newRequest = requestService.createAndAssignRequest(
+            IntakeStatus accepted = intakePipeline.submit(
                 userId, 
                 patientDetails, 
-                destination
+                destination,
+                pickupLat,
+                pickupLng,
+                priority
             );
-            // Returns 201 Created
-            return ResponseEntity.status(201).body(newRequest); 
+            // Returns 202 Accepted
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/requests/intake/" + accepted.intakeId()))
+                    .body(accepted);
         } catch (IllegalArgumentException e) {
             // Returns 400 Bad Request on user not found or other validation issues
             return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+        }
+    }
+
+    /**
+     * Endpoint: GET /api/requests/intake/{intakeId}
+     * Status of an accepted request: QUEUED, DISPATCHED (with the request) or REJECTED.
+     */
+    @GetMapping("/intake/{intakeId}")
+    public ResponseEntity<IntakeStatus> getIntakeStatus(@PathVariable String intakeId) {
+        return ResponseEntity.of(intakePipeline.status(intakeId));
+    }
+
+    /**
+     * Endpoint: GET /api/requests/{id}/events
+     * Every recorded transition of the request, oldest first; 404 when there are none.
+     */
+    @GetMapping("/{id}/events")
+    public ResponseEntity<List<DispatchEvent>> getRequestHistory(@PathVariable Long id) {
+        List<DispatchEvent> history = requestService.findHistory(id);
+        if (history.isEmpty()) {
+            return ResponseEntity.notFound().build();
         }
+        return ResponseEntity.ok(history);
     }
 
     /**
@@ -44,12 +128,15 @@ public class EmergencyRequestController {
      * Marks an emergency request as completed and frees the assigned ambulance.
      */
     @PutMapping("/{id}/complete")
-    public ResponseEntity<EmergencyRequest> completeRequest(@PathVariable Long id) {
+    public ResponseEntity<RequestSummary> completeRequest(@PathVariable Long id) {
         try {
             EmergencyRequest completedRequest = requestService.completeRequest(id);
-            return ResponseEntity.ok(completedRequest);
+            return ResponseEntity.ok(requestService.summarize(completedRequest));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
+        } catch (OptimisticLockingFailureException e) {
+            // Completed or reassigned concurrently; the caller should reload the request
+            return ResponseEntity.status(409).build();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.campus.safety.ambulancetracker.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes a lazily read stream as one JSON array, item by item, so a large listing is
+ * never held in memory as a whole. The stream is opened only once the response is
+ * being written, on the MVC async executor.
+ */
+final class JsonArrayResponse {
+
+    private JsonArrayResponse() {
+    }
+
+    static ResponseEntity<StreamingResponseBody> of(ObjectMapper objectMapper, Supplier<? extends Stream<?>> items) {
+        StreamingResponseBody body = out -> {
+            try (Stream<?> stream = items.get();
+                 JsonGenerator json = objectMapper.createGenerator(out)) {
+                json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                json.writeStartArray();
+                for (Iterator<?> it = stream.iterator(); it.hasNext(); ) {
+                    json.writeObject(it.next());
+                }
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
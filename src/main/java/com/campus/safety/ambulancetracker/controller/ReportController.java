@@ -0,0 +1,25 @@
+package com.campus.safety.ambulancetracker.controller;
+
+import com.campus.safety.ambulancetracker.dto.ResponseTimeReport;
+import com.campus.safety.ambulancetracker.service.EmergencyRequestService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/reports")
+public class ReportController {
+
+    private final EmergencyRequestService requestService;
+
+    public ReportController(EmergencyRequestService requestService) {
+        this.requestService = requestService;
+    }
+
+    // Endpoint: GET /api/reports/response-times
+    // p50/p95/p99 of assignment delay and service time over the last hour, 24 hours and 7 days
+    @GetMapping("/response-times")
+    public ResponseTimeReport getResponseTimes() {
+        return requestService.generateResponseTimeReport();
+    }
+}
@@ -1,16 +1,33 @@
 package com.campus.safety.ambulancetracker.controller;
 
 import com.campus.safety.ambulancetracker.service.CustomUserDetailsService;
+import com.campus.safety.ambulancetracker.service.DeviceKeyCache;
+import com.campus.safety.ambulancetracker.service.DeviceSignature;
+import com.campus.safety.ambulancetracker.service.SignatureReplayCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.authentication.AnonymousAuthenticationFilter;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestHeaderRequestMatcher;
+
+import java.util.function.Supplier;
 
 @Configuration
 @EnableWebSecurity
@@ -34,6 +51,70 @@ public class SecurityConfig {
         return authProvider;
     }
 
+    /**
+     * Actuator endpoints for the metrics scraper: HTTP Basic as an ADMIN, no session.
+     * Health and its liveness/readiness probes stay open for load balancer checks.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain actuatorFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher(new AntPathRequestMatcher("/actuator/**"))
+            .authenticationProvider(authenticationProvider())
+            .authorizeHttpRequests(authz -> authz
+                .requestMatchers(new AntPathRequestMatcher("/actuator/health"),
+                        new AntPathRequestMatcher("/actuator/health/**")).permitAll()
+                .anyRequest().hasRole("ADMIN")
+            )
+            .httpBasic(Customizer.withDefaults())
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
+
+        return http.build();
+    }
+
+    /**
+     * Vehicle devices: every request signed with the ambulance's device key (see
+     * {@link DeviceSignature}), no session, no CSRF, no BCrypt. Only requests that carry
+     * a device key header come here; the same paths still work for signed-in admins.
+     */
+    @Bean
+    @Order(2)
+    public SecurityFilterChain deviceFilterChain(HttpSecurity http, DeviceKeyCache deviceKeyCache,
+                                                 SignatureReplayCache replayCache,
+                                                 @Value("${device.auth.max-clock-skew-seconds:300}") long maxClockSkewSeconds,
+                                                 @Value("${device.auth.max-body-bytes:1048576}") int maxBodyBytes)
+            throws Exception {
+        http
+            .securityMatcher(new AndRequestMatcher(
+                new AntPathRequestMatcher("/api/ambulances/**"),
+                new RequestHeaderRequestMatcher(DeviceSignature.KEY_HEADER)
+            ))
+            .authorizeHttpRequests(authz -> authz
+                .requestMatchers(new AntPathRequestMatcher("/api/ambulances/telemetry", "POST")).hasRole("DEVICE")
+                .requestMatchers(
+                    new AntPathRequestMatcher("/api/ambulances/{id}/status", "PUT"),
+                    new AntPathRequestMatcher("/api/ambulances/{id}/assignment", "GET")
+                ).access(SecurityConfig::ownAmbulance)
+                .anyRequest().denyAll()
+            )
+            .addFilterBefore(new DeviceSignatureFilter(deviceKeyCache, replayCache, maxClockSkewSeconds, maxBodyBytes),
+                AnonymousAuthenticationFilter.class)
+            .csrf(csrf -> csrf.disable())
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .exceptionHandling(exception -> exception
+                .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
+            );
+
+        return http.build();
+    }
+
+    // A device may only report for, and poll on behalf of, its own ambulance
+    private static AuthorizationDecision ownAmbulance(Supplier<Authentication> authentication,
+                                                      RequestAuthorizationContext context) {
+        return new AuthorizationDecision(authentication.get() instanceof DeviceAuthentication device
+                && String.valueOf(device.getAmbulanceId()).equals(context.getVariables().get("id")));
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -44,10 +125,15 @@ public class SecurityConfig {
                     new AntPathRequestMatcher("/"),
                     new AntPathRequestMatcher("/login"),
                     new AntPathRequestMatcher("/register"),
+                    new AntPathRequestMatcher("/error"),
                     new AntPathRequestMatcher("/css/**"),
                     new AntPathRequestMatcher("/js/**"),
                     new AntPathRequestMatcher("/webjars/**")
                 ).permitAll()
+
+                // Requester typeahead on the new-request form (must precede /api/**)
+                .requestMatchers(new AntPathRequestMatcher("/api/users/search"))
+                    .hasAnyRole("USER", "ADMIN", "STUDENT", "STAFF", "SECURITY")
                 
                 // Admin only endpoints
                 .requestMatchers(
@@ -62,6 +148,7 @@ public class SecurityConfig {
                 .requestMatchers(
                     new AntPathRequestMatcher("/dashboard"),
                     new AntPathRequestMatcher("/request/new"),
+                    new AntPathRequestMatcher("/request/status/**"),
                     new AntPathRequestMatcher("/requests/active"),
                     new AntPathRequestMatcher("/requests/**/complete")
                 ).hasAnyRole("USER", "ADMIN", "STUDENT", "STAFF", "SECURITY")
@@ -1,19 +1,31 @@
 package com.campus.safety.ambulancetracker.controller;
 
+import com.campus.safety.ambulancetracker.dto.KeysetPage;
+import com.campus.safety.ambulancetracker.dto.UserMatch;
+import com.campus.safety.ambulancetracker.dto.UserSummary;
 import com.campus.safety.ambulancetracker.model.User;
 import com.campus.safety.ambulancetracker.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int STREAM_BATCH_SIZE = 500;
+    private static final int MAX_SEARCH_RESULTS = 25;
+
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, ObjectMapper objectMapper) {
         this.userService = userService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -21,16 +33,42 @@ public class UserController {
      * Registers a new user (used by the admin or registration form).
      */
     @PostMapping
-    public ResponseEntity<User> registerUser(@RequestBody User user) {
+    public ResponseEntity<UserSummary> registerUser(@RequestBody User user) {
         // Assuming you add a save() method in your UserService
         User savedUser = userService.save(user); 
         // Returns 201 Created
-        return ResponseEntity.status(201).body(savedUser);
+        return ResponseEntity.status(201).body(UserSummary.from(savedUser));
     }
     
     // Endpoint: GET /api/users
+    // Every user as one JSON array, streamed while it is read page by page
     @GetMapping
-    public List<User> getAllUsers() {
-        return userService.findAll();
+    public ResponseEntity<StreamingResponseBody> getAllUsers() {
+        return JsonArrayResponse.of(objectMapper, () -> userService.streamAll(STREAM_BATCH_SIZE));
+    }
+
+    // Endpoint: GET /api/users/search?q=..&limit=..
+    // Requester typeahead: users whose username, name, email or phone starts with q.
+    // Open to every signed-in role, since anyone may raise a request
+    @GetMapping("/search")
+    public ResponseEntity<List<UserMatch>> searchUsers(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(userService.search(q, limit));
+    }
+
+    // Endpoint: GET /api/users/page?after=..&limit=..
+    // Users after the cursor, by id; pass nextCursor back as 'after' for the next page
+    @GetMapping("/page")
+    public ResponseEntity<KeysetPage<UserSummary>> getUserPage(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "50") int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(userService.findPage(after, limit));
     }
 }
\ No newline at end of file
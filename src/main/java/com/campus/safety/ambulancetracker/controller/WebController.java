@@ -1,15 +1,26 @@
 package com.campus.safety.ambulancetracker.controller;
 
+import com.campus.safety.ambulancetracker.dto.IntakeStatus;
+import com.campus.safety.ambulancetracker.dto.KeysetPage;
+import com.campus.safety.ambulancetracker.dto.RequestSummary;
 import com.campus.safety.ambulancetracker.model.Ambulance;
 import com.campus.safety.ambulancetracker.model.AmbulanceStatus;
 import com.campus.safety.ambulancetracker.model.EmergencyRequest;
+import com.campus.safety.ambulancetracker.model.RequestPriority;
 import com.campus.safety.ambulancetracker.model.User;
 import com.campus.safety.ambulancetracker.service.AmbulanceService;
 import com.campus.safety.ambulancetracker.service.EmergencyRequestService;
+import com.campus.safety.ambulancetracker.service.FleetFeed;
+import com.campus.safety.ambulancetracker.service.IntakePipeline;
 import com.campus.safety.ambulancetracker.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -18,16 +29,27 @@ import java.util.Map;
 @Controller
 public class WebController {
 
+    private static final Logger log = LoggerFactory.getLogger(WebController.class);
+
+    private static final List<String> ACTIVE_STATUSES = List.of("PENDING", "ASSIGNED");
+    private static final int ACTIVE_PAGE_SIZE = 50;
+
     private final EmergencyRequestService requestService;
     private final AmbulanceService ambulanceService;
     private final UserService userService;
+    private final FleetFeed fleetFeed;
+    private final IntakePipeline intakePipeline;
 
     public WebController(AmbulanceService ambulanceService,
                          UserService userService,
-                         EmergencyRequestService requestService) {
+                         EmergencyRequestService requestService,
+                         FleetFeed fleetFeed,
+                         IntakePipeline intakePipeline) {
         this.ambulanceService = ambulanceService;
         this.userService = userService;
         this.requestService = requestService;
+        this.fleetFeed = fleetFeed;
+        this.intakePipeline = intakePipeline;
     }
 
     /**
@@ -47,6 +69,15 @@ public class WebController {
         return "dashboard"; // src/main/resources/templates/dashboard.html
     }
 
+    /**
+     * Live stream of fleet status and position changes for the dashboard (Server-Sent Events).
+     */
+    @GetMapping(value = "/dashboard/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter dashboardFeed() {
+        return fleetFeed.subscribe();
+    }
+
     /**
      * Displays the user registration form.
      */
@@ -62,17 +93,12 @@ public class WebController {
     @PostMapping("/register")
     public String registerUser(@ModelAttribute User user, Model model) {
         try {
-            System.out.println("📝 Registering new user:");
-            System.out.println("   - Username: " + user.getUsername());
-            System.out.println("   - Email: " + user.getEmail());
-            System.out.println("   - Role: " + user.getRole());
-
             User savedUser = userService.save(user);
 
-            System.out.println("✅ User registered successfully: " + savedUser.getId());
+            log.debug("Registered user {} with id {} (role {})", user.getUsername(), savedUser.getId(), user.getRole());
             return "redirect:/login?registered=true";
         } catch (Exception e) {
-            System.out.println("❌ Registration failed: " + e.getMessage());
+            log.debug("Registration of {} failed: {}", user.getUsername(), e.getMessage());
             model.addAttribute("error", "Registration failed: " + e.getMessage());
             return "user-register";
         }
@@ -83,38 +109,55 @@ public class WebController {
      */
     @GetMapping("/request/new")
     public String showNewRequestForm(Model model) {
-        model.addAttribute("emergencyRequest", new EmergencyRequest());
-        model.addAttribute("users", userService.findAll());
+        EmergencyRequest emergencyRequest = new EmergencyRequest();
+        emergencyRequest.setPriority(RequestPriority.MEDIUM.name());
+        model.addAttribute("emergencyRequest", emergencyRequest);
+        model.addAttribute("priorities", RequestPriority.values());
         return "request-form";
     }
 
     /**
-     * Handles submission of a new emergency request.
+     * Handles submission of a new emergency request. It is accepted immediately and
+     * dispatched in the background; the status page shows the outcome.
      */
     @PostMapping("/request/new")
     public String submitNewRequest(@ModelAttribute EmergencyRequest request, @RequestParam Long requesterId) {
         try {
-            requestService.createAndAssignRequest(
+            IntakeStatus accepted = intakePipeline.submit(
                     requesterId,
                     request.getPatientDetails(),
-                    request.getDestination()
+                    request.getDestination(),
+                    request.getPickupLatitude(),
+                    request.getPickupLongitude(),
+                    RequestPriority.fromString(request.getPriority())
             );
-            return "redirect:/?success=request_assigned";
-        } catch (IllegalArgumentException e) {
+            return "redirect:/request/status/" + accepted.intakeId();
+        } catch (IllegalArgumentException | IllegalStateException e) {
             return "redirect:/request/new?error=" + e.getMessage();
         }
     }
 
     /**
-     * Displays all active (PENDING + ASSIGNED) emergency requests.
+     * Shows where a submitted request is; refreshes itself until it has been dispatched.
+     */
+    @GetMapping("/request/status/{intakeId}")
+    public String viewRequestStatus(@PathVariable String intakeId, Model model) {
+        IntakeStatus status = intakePipeline.status(intakeId)
+                .orElseThrow(() -> new IllegalArgumentException("Request not found: " + intakeId));
+        model.addAttribute("status", status);
+        return "request-status";
+    }
+
+    /**
+     * Displays active (PENDING + ASSIGNED) emergency requests, oldest first, one page at a time.
      */
     @GetMapping("/requests/active")
-    public String viewActiveRequests(Model model) {
-        List<EmergencyRequest> pendingRequests = requestService.findRequestsByStatus("PENDING");
-        List<EmergencyRequest> assignedRequests = requestService.findRequestsByStatus("ASSIGNED");
-        pendingRequests.addAll(assignedRequests);
+    public String viewActiveRequests(@RequestParam(defaultValue = "0") long after, Model model) {
+        KeysetPage<RequestSummary> page = requestService.findPage(ACTIVE_STATUSES, after, ACTIVE_PAGE_SIZE);
 
-        model.addAttribute("activeRequests", pendingRequests);
+        model.addAttribute("activeRequests", page.items());
+        model.addAttribute("after", after);
+        model.addAttribute("nextCursor", page.nextCursor());
         return "request-list";
     }
 
@@ -128,6 +171,8 @@ public class WebController {
             return "redirect:/requests/active?status=completed";
         } catch (IllegalArgumentException e) {
             return "redirect:/requests/active?error=" + e.getMessage();
+        } catch (OptimisticLockingFailureException e) {
+            return "redirect:/requests/active?error=concurrent_update";
         }
     }
 
@@ -181,6 +226,7 @@ public class WebController {
     public String viewReports(Model model) {
         Map<String, String> reports = requestService.generateReports();
         model.addAllAttributes(reports);
+        model.addAttribute("responseTimes", requestService.generateResponseTimeReport());
         return "reports"; // src/main/resources/templates/reports.html
     }
 }
@@ -0,0 +1,21 @@
+package com.campus.safety.ambulancetracker.dto;
+
+import com.campus.safety.ambulancetracker.model.EmergencyRequest;
+
+import java.time.LocalDateTime;
+
+/**
+ * What a driver's device needs to know about a new assignment.
+ * {@code sequence} increases with every assignment; devices pass the last one they saw
+ * as {@code since} so an assignment made between two polls is not missed.
+ */
+public record AssignmentNotice(long sequence, Long ambulanceId, Long requestId, String priority,
+                               String patientDetails, String destination,
+                               Double pickupLatitude, Double pickupLongitude, LocalDateTime assignedAt) {
+
+    public static AssignmentNotice of(long sequence, Long ambulanceId, EmergencyRequest request) {
+        return new AssignmentNotice(sequence, ambulanceId, request.getId(), request.getPriority(),
+                request.getPatientDetails(), request.getDestination(),
+                request.getPickupLatitude(), request.getPickupLongitude(), request.getStartTime());
+    }
+}
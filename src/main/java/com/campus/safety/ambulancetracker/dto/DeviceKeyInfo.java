@@ -0,0 +1,16 @@
+package com.campus.safety.ambulancetracker.dto;
+
+import com.campus.safety.ambulancetracker.model.DeviceCredential;
+
+import java.time.LocalDateTime;
+
+/**
+ * A device key as listed to admins, without its secret.
+ */
+public record DeviceKeyInfo(String keyId, Long ambulanceId, LocalDateTime createdAt, LocalDateTime revokedAt) {
+
+    public static DeviceKeyInfo from(DeviceCredential credential) {
+        return new DeviceKeyInfo(credential.getKeyId(), credential.getAmbulanceId(),
+                credential.getCreatedAt(), credential.getRevokedAt());
+    }
+}
@@ -0,0 +1,23 @@
+package com.campus.safety.ambulancetracker.dto;
+
+import com.campus.safety.ambulancetracker.model.Ambulance;
+import com.campus.safety.ambulancetracker.model.AmbulanceStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Latest status and position of one ambulance, as pushed to live dashboards.
+ * {@code removed} is set when the unit left the fleet.
+ */
+public record FleetDelta(Long id, String vehicleNo, AmbulanceStatus status, Double latitude, Double longitude,
+                         LocalDateTime lastUpdated, boolean removed) {
+
+    public static FleetDelta of(Ambulance ambulance) {
+        return new FleetDelta(ambulance.getId(), ambulance.getVehicleNo(), ambulance.getStatus(),
+                ambulance.getLatitude(), ambulance.getLongitude(), ambulance.getLastUpdated(), false);
+    }
+
+    public static FleetDelta removed(Long ambulanceId) {
+        return new FleetDelta(ambulanceId, null, null, null, null, null, true);
+    }
+}
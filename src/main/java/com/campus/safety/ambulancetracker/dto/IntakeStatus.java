@@ -0,0 +1,34 @@
+package com.campus.safety.ambulancetracker.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Where an accepted emergency request is in the intake pipeline.
+ *
+ * {@code state} is QUEUED until the dispatch stage has created the request, then
+ * DISPATCHED with the request (ASSIGNED or PENDING) in {@code request}, or REJECTED
+ * with the reason in {@code error}.
+ */
+public record IntakeStatus(String intakeId, String state, LocalDateTime receivedAt, RequestSummary request,
+                           String error) {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String DISPATCHED = "DISPATCHED";
+    public static final String REJECTED = "REJECTED";
+
+    public static IntakeStatus queued(String intakeId, LocalDateTime receivedAt) {
+        return new IntakeStatus(intakeId, QUEUED, receivedAt, null, null);
+    }
+
+    public static IntakeStatus dispatched(String intakeId, LocalDateTime receivedAt, RequestSummary request) {
+        return new IntakeStatus(intakeId, DISPATCHED, receivedAt, request, null);
+    }
+
+    public static IntakeStatus rejected(String intakeId, LocalDateTime receivedAt, String error) {
+        return new IntakeStatus(intakeId, REJECTED, receivedAt, null, error);
+    }
+
+    public boolean done() {
+        return !QUEUED.equals(state);
+    }
+}
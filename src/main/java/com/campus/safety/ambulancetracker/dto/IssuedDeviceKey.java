@@ -0,0 +1,10 @@
+package com.campus.safety.ambulancetracker.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A newly issued device key. This is the only time {@code secret} (Base64) is shown;
+ * it has to be provisioned onto the device now.
+ */
+public record IssuedDeviceKey(String keyId, Long ambulanceId, String secret, LocalDateTime createdAt) {
+}
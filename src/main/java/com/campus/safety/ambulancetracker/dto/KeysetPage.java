@@ -0,0 +1,34 @@
+package com.campus.safety.ambulancetracker.dto;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+
+/**
+ * One page of a keyset-paginated listing, ordered by id. Pass {@code nextCursor} as
+ * {@code after} to get the next page; it is null on the last page. Cursors stay valid
+ * while rows are inserted or removed, unlike offsets.
+ */
+public record KeysetPage<T>(List<T> items, Long nextCursor) {
+
+    /**
+     * Builds a page from up to {@code limit + 1} rows read after the cursor; the extra
+     * row only tells whether another page follows and is not returned.
+     */
+    public static <E, T> KeysetPage<T> of(List<E> rows, int limit, Function<E, Long> id, Function<E, T> mapper) {
+        boolean more = rows.size() > limit;
+        List<E> page = more ? rows.subList(0, limit) : rows;
+        return new KeysetPage<>(page.stream().map(mapper).toList(), more ? id.apply(page.get(limit - 1)) : null);
+    }
+
+    /**
+     * Lazily walks every page from the start. Each page is one short query, so no
+     * connection or transaction is held while the caller consumes the items.
+     */
+    public static <T> Stream<T> streamAll(LongFunction<KeysetPage<T>> fetchAfter) {
+        return Stream.iterate(fetchAfter.apply(0L), page -> page != null,
+                        page -> page.nextCursor() != null ? fetchAfter.apply(page.nextCursor()) : null)
+                .flatMap(page -> page.items().stream());
+    }
+}
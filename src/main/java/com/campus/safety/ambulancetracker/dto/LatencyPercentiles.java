@@ -0,0 +1,9 @@
+package com.campus.safety.ambulancetracker.dto;
+
+/**
+ * Percentiles of one duration metric over a rolling window, in milliseconds.
+ * The values are null when the window holds no samples.
+ */
+public record LatencyPercentiles(String window, long count, Long p50Millis, Long p95Millis, Long p99Millis,
+                                 Long maxMillis) {
+}
@@ -0,0 +1,9 @@
+package com.campus.safety.ambulancetracker.dto;
+
+import com.campus.safety.ambulancetracker.model.Ambulance;
+
+/**
+ * An ambulance returned by a proximity query, with its great-circle distance to the query point.
+ */
+public record NearbyAmbulance(Ambulance ambulance, double distanceMeters) {
+}
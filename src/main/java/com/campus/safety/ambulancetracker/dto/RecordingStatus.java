@@ -0,0 +1,10 @@
+package com.campus.safety.ambulancetracker.dto;
+
+import java.time.Instant;
+
+/**
+ * The current or last flight recording. While it runs, {@code stopTime} is when it will stop by itself.
+ */
+public record RecordingStatus(long id, String state, String settings, Instant startTime, Instant stopTime,
+                              long maxDurationSeconds, long sizeBytes) {
+}
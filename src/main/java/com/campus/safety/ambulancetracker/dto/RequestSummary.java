@@ -0,0 +1,32 @@
+package com.campus.safety.ambulancetracker.dto;
+
+import com.campus.safety.ambulancetracker.model.Ambulance;
+import com.campus.safety.ambulancetracker.model.EmergencyRequest;
+import com.campus.safety.ambulancetracker.model.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * An emergency request as returned by the list endpoints, with the requester and the
+ * assigned unit flattened in. {@code ambulanceId} and {@code vehicleNo} are null while PENDING.
+ */
+public record RequestSummary(Long id, String status, String priority, Long userId, String userName, String userRole,
+                             Long ambulanceId, String vehicleNo, String patientDetails, String destination,
+                             Double pickupLatitude, Double pickupLongitude,
+                             LocalDateTime requestTime, LocalDateTime startTime, LocalDateTime endTime) {
+
+    /**
+     * Summarizes a request whose user is loaded. The unit is passed separately (null if
+     * none) so a fleet snapshot can stand in for the request's lazy ambulance reference.
+     */
+    public static RequestSummary of(EmergencyRequest request, Ambulance unit) {
+        User user = request.getUser();
+        return new RequestSummary(request.getId(), request.getStatus(), request.getPriority(),
+                user.getId(), user.getFirstName() + " " + user.getLastName(), user.getRole(),
+                unit != null ? unit.getId() : null,
+                unit != null ? unit.getVehicleNo() : null,
+                request.getPatientDetails(), request.getDestination(),
+                request.getPickupLatitude(), request.getPickupLongitude(),
+                request.getRequestTime(), request.getStartTime(), request.getEndTime());
+    }
+}
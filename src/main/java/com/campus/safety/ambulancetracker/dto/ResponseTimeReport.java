@@ -0,0 +1,12 @@
+package com.campus.safety.ambulancetracker.dto;
+
+import java.util.List;
+
+/**
+ * Rolling-window percentiles of assignment delay (request to assignment),
+ * service time (assignment to completion) and notification delay
+ * (assignment to delivery on the driver's device).
+ */
+public record ResponseTimeReport(List<LatencyPercentiles> assignmentDelay, List<LatencyPercentiles> serviceTime,
+                                 List<LatencyPercentiles> notificationDelay) {
+}
@@ -0,0 +1,14 @@
+package com.campus.safety.ambulancetracker.dto;
+
+/**
+ * Per-record result of a bulk telemetry call, in the same order as the request body.
+ */
+public record TelemetryResult(int index, Long ambulanceId, Outcome outcome) {
+
+    public enum Outcome {
+        APPLIED,
+        STALE,      // older than the last accepted reading for this ambulance
+        NOT_FOUND,
+        INVALID
+    }
+}
@@ -0,0 +1,16 @@
+package com.campus.safety.ambulancetracker.dto;
+
+import com.campus.safety.ambulancetracker.model.AmbulanceStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * One status/position report from a vehicle, as posted to the bulk telemetry endpoint.
+ * {@code timestamp} is when the device took the reading; it defaults to the receive time.
+ */
+public record TelemetryUpdate(Long ambulanceId,
+                              AmbulanceStatus status,
+                              Double lat,
+                              Double lng,
+                              LocalDateTime timestamp) {
+}
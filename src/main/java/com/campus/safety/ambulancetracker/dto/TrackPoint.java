@@ -0,0 +1,9 @@
+package com.campus.safety.ambulancetracker.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One recorded position of an ambulance.
+ */
+public record TrackPoint(LocalDateTime time, double latitude, double longitude) {
+}
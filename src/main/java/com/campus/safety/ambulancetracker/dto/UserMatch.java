@@ -0,0 +1,11 @@
+package com.campus.safety.ambulancetracker.dto;
+
+/**
+ * One typeahead suggestion: just enough to show and pick a requester.
+ */
+public record UserMatch(Long id, String name, String username, String role) {
+
+    public static UserMatch from(UserSummary user) {
+        return new UserMatch(user.id(), user.firstName() + " " + user.lastName(), user.username(), user.role());
+    }
+}
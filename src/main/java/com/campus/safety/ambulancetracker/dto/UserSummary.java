@@ -0,0 +1,15 @@
+package com.campus.safety.ambulancetracker.dto;
+
+import com.campus.safety.ambulancetracker.model.User;
+
+/**
+ * A user as returned by the list endpoints: no password hash and no request collection.
+ */
+public record UserSummary(Long id, String firstName, String lastName, String email, String contactNumber,
+                          String username, String role) {
+
+    public static UserSummary from(User user) {
+        return new UserSummary(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail(),
+                user.getContactNumber(), user.getUsername(), user.getRole());
+    }
+}
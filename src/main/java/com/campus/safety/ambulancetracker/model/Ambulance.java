@@ -1,5 +1,6 @@
 package com.campus.safety.ambulancetracker.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -42,8 +43,15 @@ public class Ambulance {
     @Column(name = "last_updated")
     private LocalDateTime lastUpdated;
 
+    // Optimistic lock: bumped on every status transition so concurrent dispatchers cannot both win
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "BIGINT DEFAULT 0 NOT NULL")
+    private Long version;
+
 
     // JPA Relationship: One ambulance can be assigned to many requests.
+    // Never serialized: walking it from JSON would lazy-load every request of the unit
+    @JsonIgnore
     @OneToMany(mappedBy = "ambulance", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private java.util.List<EmergencyRequest> emergencyRequests;
 }
\ No newline at end of file
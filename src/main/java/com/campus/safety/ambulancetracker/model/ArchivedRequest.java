@@ -0,0 +1,68 @@
+package com.campus.safety.ambulancetracker.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * A COMPLETED {@link EmergencyRequest} moved out of the live table once it aged past
+ * {@code archive.completed-after-days}. Keeps the id it had there, so links, events and
+ * keyset cursors stay valid. Rows here never change.
+ */
+@Entity
+@Table(name = "emergency_requests_archive",
+       indexes = {
+           @Index(name = "idx_emergency_requests_archive_intake_id", columnList = "intake_id", unique = true)
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedRequest {
+
+    // Copied from emergency_requests, not generated
+    @Id
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ambulance_id")
+    private Ambulance ambulance;
+
+    @Column(name = "patient_details")
+    private String patientDetails;
+
+    @Column(name = "destination")
+    private String destination;
+
+    @Column(name = "pickup_latitude")
+    private Double pickupLatitude;
+
+    @Column(name = "pickup_longitude")
+    private Double pickupLongitude;
+
+    @Column(name = "request_time", nullable = false)
+    private LocalDateTime requestTime;
+
+    @Column(name = "start_time")
+    private LocalDateTime startTime;
+
+    @Column(name = "end_time")
+    private LocalDateTime endTime;
+
+    @Column(name = "status", nullable = false, length = 30)
+    private String status;
+
+    @Column(name = "priority", length = 20)
+    private String priority;
+
+    @Column(name = "intake_id", length = 36)
+    private String intakeId;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
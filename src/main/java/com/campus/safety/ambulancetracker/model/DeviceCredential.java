@@ -0,0 +1,42 @@
+package com.campus.safety.ambulancetracker.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * A signing key issued to the device in one ambulance. Devices sign each request with
+ * HMAC-SHA256 under {@code secret} and name the key by {@code keyId}. The secret has to
+ * be kept in the clear for the server to verify signatures; it is only ever returned
+ * once, when issued. A revoked key stays on record but no longer authenticates.
+ */
+@Entity
+@Table(name = "device_credentials",
+       indexes = @Index(name = "idx_device_credentials_ambulance", columnList = "ambulance_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeviceCredential {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "key_id", nullable = false, unique = true, length = 40)
+    private String keyId;
+
+    @Column(name = "ambulance_id", nullable = false)
+    private Long ambulanceId;
+
+    // Base64 of the raw HMAC key
+    @Column(name = "secret", nullable = false, length = 64)
+    private String secret;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt;
+}
@@ -0,0 +1,88 @@
+package com.campus.safety.ambulancetracker.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * One state transition of a request or an ambulance. Rows are appended in the same
+ * transaction as the change they describe and never updated, so the table is the
+ * complete, ordered history that report projections are rebuilt from.
+ *
+ * {@code since} is the start of the interval the transition closes: the request time
+ * for ASSIGNED, the assignment time for COMPLETED.
+ */
+@Entity
+@Table(name = "dispatch_events",
+       indexes = @Index(name = "idx_dispatch_events_request_id", columnList = "request_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DispatchEvent {
+
+    public static final String REQUESTED = "REQUESTED";
+    public static final String ASSIGNED = "ASSIGNED";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String UNIT_STATUS = "UNIT_STATUS";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "type", nullable = false, length = 20)
+    private String type;
+
+    @Column(name = "request_id")
+    private Long requestId;
+
+    @Column(name = "ambulance_id")
+    private Long ambulanceId;
+
+    // Request status, or AmbulanceStatus name for UNIT_STATUS, before and after the transition
+    @Column(name = "previous_status", length = 30)
+    private String previousStatus;
+
+    @Column(name = "status", length = 30)
+    private String status;
+
+    @Column(name = "priority", length = 20)
+    private String priority;
+
+    @Column(name = "since")
+    private LocalDateTime since;
+
+    // When the transition happened, and when it was appended (they differ for queued intakes)
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+
+    public static DispatchEvent requested(Long requestId, String priority, LocalDateTime requestTime) {
+        return of(REQUESTED, requestId, null, null, "PENDING", priority, null, requestTime);
+    }
+
+    public static DispatchEvent assigned(Long requestId, Long ambulanceId, LocalDateTime requestTime,
+                                         LocalDateTime startTime) {
+        return of(ASSIGNED, requestId, ambulanceId, "PENDING", "ASSIGNED", null, requestTime, startTime);
+    }
+
+    public static DispatchEvent completed(Long requestId, Long ambulanceId, String previousStatus,
+                                          LocalDateTime startTime, LocalDateTime endTime) {
+        return of(COMPLETED, requestId, ambulanceId, previousStatus, "COMPLETED", null, startTime, endTime);
+    }
+
+    public static DispatchEvent unitStatus(Long ambulanceId, AmbulanceStatus previous, AmbulanceStatus current,
+                                           LocalDateTime changedAt) {
+        return of(UNIT_STATUS, null, ambulanceId, previous != null ? previous.name() : null, current.name(), null,
+                null, changedAt);
+    }
+
+    private static DispatchEvent of(String type, Long requestId, Long ambulanceId, String previousStatus,
+                                    String status, String priority, LocalDateTime since, LocalDateTime occurredAt) {
+        return new DispatchEvent(null, type, requestId, ambulanceId, previousStatus, status, priority, since,
+                occurredAt, null);
+    }
+}
@@ -7,7 +7,11 @@ import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "emergency_requests")
+@Table(name = "emergency_requests",
+       indexes = {
+           @Index(name = "idx_emergency_requests_status_id", columnList = "status, id"),
+           @Index(name = "idx_emergency_requests_intake_id", columnList = "intake_id", unique = true)
+       })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -34,6 +38,13 @@ public class EmergencyRequest {
     @Column(name = "destination")
     private String destination;
 
+    // PICKUP: Where the patient is; used to dispatch the closest unit
+    @Column(name = "pickup_latitude")
+    private Double pickupLatitude;
+
+    @Column(name = "pickup_longitude")
+    private Double pickupLongitude;
+
     // TIMESTAMPS: Fields used in the service logic
     @Column(name = "request_time", nullable = false)
     private LocalDateTime requestTime; 
@@ -49,4 +60,13 @@ public class EmergencyRequest {
 
     @Column(name = "priority", length = 20)
     private String priority; // e.g., "HIGH", "MEDIUM"
+
+    // INTAKE: Reference returned when the request was accepted, before it had an id
+    @Column(name = "intake_id", length = 36)
+    private String intakeId;
+
+    // Optimistic lock: a request can only be assigned or completed once
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "BIGINT DEFAULT 0 NOT NULL")
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.campus.safety.ambulancetracker.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * One sealed slice of an ambulance's location history: every ping of one unit within
+ * one clock hour, delta-encoded into {@code data}. Rows are immutable except when the
+ * retention job downsamples them.
+ */
+@Entity
+@Table(name = "location_segments",
+       indexes = @Index(name = "idx_location_segments_ambulance_time", columnList = "ambulance_id, start_time"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationSegment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "ambulance_id", nullable = false)
+    private Long ambulanceId;
+
+    // Time of the first and last point in the segment
+    @Column(name = "start_time", nullable = false)
+    private LocalDateTime startTime;
+
+    @Column(name = "end_time", nullable = false)
+    private LocalDateTime endTime;
+
+    @Column(name = "point_count", nullable = false)
+    private Integer pointCount;
+
+    // 0 for every ping; otherwise at most one point per this many seconds
+    @Column(name = "resolution_seconds", nullable = false)
+    private Integer resolutionSeconds;
+
+    @Lob
+    @Column(name = "data", nullable = false, length = 16_777_215)
+    private byte[] data;
+}
@@ -0,0 +1,34 @@
+package com.campus.safety.ambulancetracker.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Saved state of an in-memory projection of {@link DispatchEvent}s, as JSON, covering
+ * every event up to and including {@code position}. A restart restores the state and
+ * replays only the events after it.
+ */
+@Entity
+@Table(name = "projection_snapshots")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectionSnapshot {
+
+    @Id
+    @Column(name = "name", length = 50)
+    private String name;
+
+    @Column(name = "position", nullable = false)
+    private Long position;
+
+    @Lob
+    @Column(name = "state", nullable = false, length = 16_777_215)
+    private String state;
+
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+}
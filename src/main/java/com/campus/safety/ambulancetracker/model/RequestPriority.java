@@ -0,0 +1,25 @@
+package com.campus.safety.ambulancetracker.model;
+
+/**
+ * Triage level of an emergency request, most urgent first.
+ * Stored on EmergencyRequest as the enum name.
+ */
+public enum RequestPriority {
+    HIGH,
+    MEDIUM,
+    LOW;
+
+    /**
+     * Parses a stored priority, treating missing or unknown values as MEDIUM.
+     */
+    public static RequestPriority fromString(String value) {
+        if (value == null) {
+            return MEDIUM;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return MEDIUM;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.campus.safety.ambulancetracker.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * A startup seed that has been applied to this database. Each version runs once;
+ * later boots only read this table.
+ */
+@Entity
+@Table(name = "seed_versions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeedVersion {
+
+    @Id
+    @Column(name = "version")
+    private Integer version;
+
+    @Column(name = "description", nullable = false)
+    private String description;
+
+    @Column(name = "applied_at", nullable = false)
+    private LocalDateTime appliedAt;
+}
@@ -1,5 +1,7 @@
 package com.campus.safety.ambulancetracker.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -37,6 +39,8 @@ public class User implements UserDetails {
     @Column(nullable = false, unique = true)
     private String username;
 
+    // Accepted on registration, never written back out
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @Column(nullable = false)
     private String password;
 
@@ -45,6 +49,7 @@ public class User implements UserDetails {
     private String role; 
 
     // JPA Relationship: One user can make many requests
+    @JsonIgnore
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private java.util.List<EmergencyRequest> emergencyRequests; 
 
@@ -0,0 +1,154 @@
+package com.campus.safety.ambulancetracker.repository;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, first-come-first-served admission in front of the connection pool.
+ *
+ * With virtual threads there is no request thread pool left to limit how many callers
+ * reach the database at once, so a surge parks thousands of them in the pool's own
+ * wait, which is unordered and only gives up after its connection timeout. Here at
+ * most {@code permits} connections are out at a time, callers queue fairly for up to
+ * {@code maxWait}, and once {@code maxWaiting} are queued further callers are refused
+ * at once. Refusals are {@link SQLTransientConnectionException}s, which Spring turns
+ * into a {@code CannotCreateTransactionException} or {@code DataAccessResourceFailureException}.
+ */
+public class AdmissionControlledDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final int maxWaiting;
+    private final long maxWaitNanos;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    public AdmissionControlledDataSource(DataSource target, int permits, int maxWaiting, long maxWaitMillis) {
+        super(target);
+        if (permits < 1 || maxWaiting < 0 || maxWaitMillis < 0) {
+            throw new IllegalArgumentException("Admission permits must be positive and limits non-negative");
+        }
+        this.permits = new Semaphore(permits, true);
+        this.maxWaiting = maxWaiting;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        admit();
+        return admitted(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        admit();
+        return admitted(() -> super.getConnection(username, password));
+    }
+
+    public int waitingCount() {
+        return waiting.get();
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    private void admit() throws SQLException {
+        try {
+            // The timed form respects the queue; plain tryAcquire() would jump it
+            if (permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                return;
+            }
+            if (waiting.incrementAndGet() > maxWaiting) {
+                waiting.decrementAndGet();
+                rejected.increment();
+                throw new SQLTransientConnectionException("Database busy: " + maxWaiting + " callers already waiting");
+            }
+            try {
+                if (!permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                    rejected.increment();
+                    throw new SQLTransientConnectionException("Database busy: no connection within "
+                            + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + " ms");
+                }
+            } finally {
+                waiting.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection", e);
+        }
+    }
+
+    private Connection admitted(ConnectionSource source) throws SQLException {
+        Connection connection;
+        try {
+            connection = source.get();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ReleasingHandler(connection));
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection get() throws SQLException;
+    }
+
+    /**
+     * Gives the permit back when the connection is returned to the pool, once.
+     */
+    private final class ReleasingHandler implements InvocationHandler {
+
+        private final Connection target;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ReleasingHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Admitted[" + target + "]";
+                case "close":
+                    try {
+                        target.close();
+                    } finally {
+                        if (released.compareAndSet(false, true)) {
+                            permits.release();
+                        }
+                    }
+                    return null;
+                default:
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+            }
+        }
+    }
+}
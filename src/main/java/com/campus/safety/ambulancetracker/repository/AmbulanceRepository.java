@@ -3,6 +3,11 @@ package com.campus.safety.ambulancetracker.repository;
 import com.campus.safety.ambulancetracker.model.Ambulance;
 import com.campus.safety.ambulancetracker.model.AmbulanceStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface AmbulanceRepository extends JpaRepository<Ambulance, Long> {
@@ -12,4 +17,29 @@ public interface AmbulanceRepository extends JpaRepository<Ambulance, Long> {
      */
     // Modified to use the AmbulanceStatus Enum instead of a raw String
     List<Ambulance> findByStatus(AmbulanceStatus status);
-}
\ No newline at end of file
+
+    /**
+     * Writes a status transition together with the position it happened at,
+     * without loading the entity first. Returns the number of rows touched.
+     */
+    @Modifying
+    @Query("UPDATE Ambulance a SET a.status = :status, a.latitude = :latitude, " +
+           "a.longitude = :longitude, a.lastUpdated = :lastUpdated, a.version = a.version + 1 WHERE a.id = :id")
+    int updateStatusAndLocation(@Param("id") Long id,
+                                @Param("status") AmbulanceStatus status,
+                                @Param("latitude") Double latitude,
+                                @Param("longitude") Double longitude,
+                                @Param("lastUpdated") LocalDateTime lastUpdated);
+
+    /**
+     * Changes the status only if it still equals {@code expected}, e.g. AVAILABLE to EN_ROUTE on dispatch.
+     * Returns 0 when another dispatcher changed it first.
+     */
+    @Modifying
+    @Query("UPDATE Ambulance a SET a.status = :status, a.lastUpdated = :lastUpdated, a.version = a.version + 1 " +
+           "WHERE a.id = :id AND a.status = :expected")
+    int compareAndSetStatus(@Param("id") Long id,
+                            @Param("expected") AmbulanceStatus expected,
+                            @Param("status") AmbulanceStatus status,
+                            @Param("lastUpdated") LocalDateTime lastUpdated);
+}
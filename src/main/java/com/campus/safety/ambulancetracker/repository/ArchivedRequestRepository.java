@@ -0,0 +1,63 @@
+package com.campus.safety.ambulancetracker.repository;
+
+import com.campus.safety.ambulancetracker.dto.RequestSummary;
+import com.campus.safety.ambulancetracker.model.ArchivedRequest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static com.campus.safety.ambulancetracker.repository.EmergencyRequestRepository.SUMMARY_COLUMNS;
+
+/**
+ * Completed requests moved out of emergency_requests. Mirrors the reporting and history
+ * queries of {@link EmergencyRequestRepository}; every row here is COMPLETED.
+ */
+public interface ArchivedRequestRepository extends JpaRepository<ArchivedRequest, Long> {
+
+    // Copies the given COMPLETED rows of the live table, ids included, in one statement
+    @Modifying
+    @Query(value = "INSERT INTO emergency_requests_archive (id, user_id, ambulance_id, patient_details, destination, " +
+                   "pickup_latitude, pickup_longitude, request_time, start_time, end_time, status, priority, " +
+                   "intake_id, archived_at) " +
+                   "SELECT id, user_id, ambulance_id, patient_details, destination, pickup_latitude, " +
+                   "pickup_longitude, request_time, start_time, end_time, status, priority, intake_id, :archivedAt " +
+                   "FROM emergency_requests WHERE id IN :ids AND status = 'COMPLETED'",
+           nativeQuery = true)
+    int copyFromLive(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    // Keyset page of archived requests, by id, read straight into summaries
+    @Query("SELECT new com.campus.safety.ambulancetracker.dto.RequestSummary(" + SUMMARY_COLUMNS + ") " +
+           "FROM ArchivedRequest r JOIN r.user u LEFT JOIN r.ambulance a " +
+           "WHERE r.id > :afterId ORDER BY r.id")
+    List<RequestSummary> findPageAfter(@Param("afterId") long afterId, Limit limit);
+
+    @Query("SELECT new com.campus.safety.ambulancetracker.dto.RequestSummary(" + SUMMARY_COLUMNS + ") " +
+           "FROM ArchivedRequest r JOIN r.user u LEFT JOIN r.ambulance a " +
+           "WHERE r.intakeId = :intakeId")
+    Optional<RequestSummary> findSummaryByIntakeId(@Param("intakeId") String intakeId);
+
+    // Which of the given intakes became requests that have since been archived
+    @Query("SELECT r.intakeId FROM ArchivedRequest r WHERE r.intakeId IN :intakeIds")
+    Set<String> findExistingIntakeIds(@Param("intakeIds") Collection<String> intakeIds);
+
+    @Query("SELECT r.startTime, r.endTime FROM ArchivedRequest r " +
+           "WHERE r.startTime IS NOT NULL AND r.endTime IS NOT NULL")
+    Stream<Object[]> streamCompletedDurations();
+
+    @Query("SELECT r.requestTime, r.startTime, r.endTime FROM ArchivedRequest r " +
+           "WHERE r.startTime >= :since OR r.endTime >= :since")
+    Stream<Object[]> streamTimingsSince(@Param("since") LocalDateTime since);
+
+    @Query("SELECT r.ambulance.id, COUNT(r) FROM ArchivedRequest r " +
+           "WHERE r.ambulance IS NOT NULL GROUP BY r.ambulance.id")
+    List<Object[]> countCompletionsByAmbulance();
+}
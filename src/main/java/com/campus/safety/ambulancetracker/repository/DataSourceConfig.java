@@ -0,0 +1,50 @@
+package com.campus.safety.ambulancetracker.repository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Puts {@link AdmissionControlledDataSource} in front of the pooled DataSource, with one
+ * permit per pooled connection so the pool itself never has callers waiting on it.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionAdmission(Environment env) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof AdmissionControlledDataSource
+                        || !env.getProperty("db.admission.enabled", Boolean.class, true)) {
+                    return bean;
+                }
+                int poolSize = env.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+                return new AdmissionControlledDataSource(dataSource, poolSize,
+                        env.getProperty("db.admission.max-waiting", Integer.class, 200),
+                        env.getProperty("db.admission.max-wait-ms", Long.class, 2000L));
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder connectionAdmissionMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof AdmissionControlledDataSource admission) {
+                Gauge.builder("db.admission.waiting", admission, AdmissionControlledDataSource::waitingCount)
+                        .description("Callers queued for a database connection")
+                        .register(registry);
+                FunctionCounter.builder("db.admission.rejected", admission, AdmissionControlledDataSource::rejectedCount)
+                        .description("Callers refused because the queue was full or the wait timed out")
+                        .register(registry);
+            }
+        };
+    }
+}
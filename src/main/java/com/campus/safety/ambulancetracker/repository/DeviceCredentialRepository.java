@@ -0,0 +1,17 @@
+package com.campus.safety.ambulancetracker.repository;
+
+import com.campus.safety.ambulancetracker.model.DeviceCredential;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface DeviceCredentialRepository extends JpaRepository<DeviceCredential, Long> {
+
+    // The key a device names in its request, unless revoked
+    Optional<DeviceCredential> findByKeyIdAndRevokedAtIsNull(String keyId);
+
+    Optional<DeviceCredential> findByKeyId(String keyId);
+
+    List<DeviceCredential> findByAmbulanceIdOrderByCreatedAtDesc(Long ambulanceId);
+}
@@ -0,0 +1,26 @@
+package com.campus.safety.ambulancetracker.repository;
+
+import com.campus.safety.ambulancetracker.model.DispatchEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface DispatchEventRepository extends JpaRepository<DispatchEvent, Long> {
+
+    // Events after the cursor up to and including 'through', in append order
+    @Query("SELECT e FROM DispatchEvent e WHERE e.id > :after AND e.id <= :through ORDER BY e.id")
+    List<DispatchEvent> findRange(@Param("after") long after, @Param("through") long through, Limit limit);
+
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM DispatchEvent e")
+    long findLatestId();
+
+    // Last event after the cursor that was appended before the cutoff; the cursor itself if none
+    @Query("SELECT COALESCE(MAX(e.id), :after) FROM DispatchEvent e WHERE e.id > :after AND e.recordedAt < :cutoff")
+    long findLatestIdRecordedBefore(@Param("after") long after, @Param("cutoff") LocalDateTime cutoff);
+
+    List<DispatchEvent> findByRequestIdOrderById(Long requestId);
+}
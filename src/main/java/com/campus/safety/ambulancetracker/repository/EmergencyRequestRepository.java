@@ -1,12 +1,22 @@
 package com.campus.safety.ambulancetracker.repository;
 
+import com.campus.safety.ambulancetracker.model.Ambulance;
 import com.campus.safety.ambulancetracker.model.EmergencyRequest;
+import com.campus.safety.ambulancetracker.dto.RequestSummary;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface EmergencyRequestRepository extends JpaRepository<EmergencyRequest, Long> {
@@ -14,17 +24,87 @@ public interface EmergencyRequestRepository extends JpaRepository<EmergencyReque
     // Find requests by status
     List<EmergencyRequest> findByStatus(String status);
     
+    // The columns of a PENDING request needed to queue it
+    interface QueuedRequest {
+        Long getId();
+        String getPriority();
+        LocalDateTime getRequestTime();
+    }
+
+    List<QueuedRequest> findQueuedByStatus(String status);
+
+    // A request with its requester loaded in the same select (the unit stays a lazy reference)
+    @EntityGraph(attributePaths = "user")
+    Optional<EmergencyRequest> findWithUserById(Long id);
+
+    // Constructor arguments of RequestSummary, for r JOIN r.user u LEFT JOIN r.ambulance a
+    String SUMMARY_COLUMNS = "r.id, r.status, r.priority, u.id, CONCAT(u.firstName, ' ', u.lastName), u.role, " +
+            "a.id, a.vehicleNo, r.patientDetails, r.destination, r.pickupLatitude, r.pickupLongitude, " +
+            "r.requestTime, r.startTime, r.endTime";
+
+    // Keyset page of requests in any of the given statuses, by id, read straight into summaries
+    @Query("SELECT new com.campus.safety.ambulancetracker.dto.RequestSummary(" + SUMMARY_COLUMNS + ") " +
+           "FROM EmergencyRequest r JOIN r.user u LEFT JOIN r.ambulance a " +
+           "WHERE r.status IN :statuses AND r.id > :afterId ORDER BY r.id")
+    List<RequestSummary> findPageByStatusAfter(@Param("statuses") Collection<String> statuses,
+                                               @Param("afterId") long afterId,
+                                               Limit limit);
+
+    // Keyset page of all requests, by id, read straight into summaries
+    @Query("SELECT new com.campus.safety.ambulancetracker.dto.RequestSummary(" + SUMMARY_COLUMNS + ") " +
+           "FROM EmergencyRequest r JOIN r.user u LEFT JOIN r.ambulance a " +
+           "WHERE r.id > :afterId ORDER BY r.id")
+    List<RequestSummary> findPageAfter(@Param("afterId") long afterId, Limit limit);
+
+    // The request created from an accepted intake, as a summary
+    @Query("SELECT new com.campus.safety.ambulancetracker.dto.RequestSummary(" + SUMMARY_COLUMNS + ") " +
+           "FROM EmergencyRequest r JOIN r.user u LEFT JOIN r.ambulance a " +
+           "WHERE r.intakeId = :intakeId")
+    Optional<RequestSummary> findSummaryByIntakeId(@Param("intakeId") String intakeId);
+
+    // Which of the given intakes already became requests (used when replaying the intake journal)
+    @Query("SELECT r.intakeId FROM EmergencyRequest r WHERE r.intakeId IN :intakeIds")
+    Set<String> findExistingIntakeIds(@Param("intakeIds") Collection<String> intakeIds);
+
     // Find requests assigned to a specific ambulance ID
     List<EmergencyRequest> findByAmbulanceId(Long ambulanceId);
 
     // Finds the oldest PENDING request (based on requestTime)
     Optional<EmergencyRequest> findTopByStatusOrderByRequestTimeAsc(String status);
     
+    // Assigns a request only if it is still PENDING; returns 0 if someone else got there first
+    @Modifying
+    @Query("UPDATE EmergencyRequest r SET r.ambulance = :ambulance, r.status = 'ASSIGNED', r.startTime = :startTime, " +
+           "r.version = r.version + 1 " +
+           "WHERE r.id = :id AND r.status = 'PENDING'")
+    int assignIfPending(@Param("id") Long id,
+                        @Param("ambulance") Ambulance ambulance,
+                        @Param("startTime") LocalDateTime startTime);
+
+    // Oldest COMPLETED requests that ended before the cutoff (walks the status, id index)
+    @Query("SELECT r.id FROM EmergencyRequest r WHERE r.status = 'COMPLETED' AND r.endTime < :cutoff ORDER BY r.id")
+    List<Long> findCompletedIdsEndedBefore(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    // Removes rows already copied to the archive; only COMPLETED rows can go
+    @Modifying
+    @Query("DELETE FROM EmergencyRequest r WHERE r.id IN :ids AND r.status = 'COMPLETED'")
+    int deleteCompletedByIdIn(@Param("ids") Collection<Long> ids);
+
     // Count requests by status
     long countByStatus(String status);
 
     // Find all COMPLETED requests with valid start and end times (for duration calculation)
     List<EmergencyRequest> findByStatusAndStartTimeIsNotNullAndEndTimeIsNotNull(String status);
+
+    // Streams only the two timestamps of completed requests (used to rebuild report counters)
+    @Query("SELECT r.startTime, r.endTime FROM EmergencyRequest r " +
+           "WHERE r.status = 'COMPLETED' AND r.startTime IS NOT NULL AND r.endTime IS NOT NULL")
+    Stream<Object[]> streamCompletedDurations();
+
+    // Streams request, start and end times of requests assigned or completed since the given time
+    @Query("SELECT r.requestTime, r.startTime, r.endTime FROM EmergencyRequest r " +
+           "WHERE r.startTime >= :since OR r.endTime >= :since")
+    Stream<Object[]> streamTimingsSince(@Param("since") LocalDateTime since);
     
     // ✅ Native Query: Find the ambulance ID with the highest number of completed requests
     @Query(value = "SELECT r.ambulance_id, COUNT(r.id) AS request_count " +
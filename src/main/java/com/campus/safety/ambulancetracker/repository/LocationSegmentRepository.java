@@ -0,0 +1,35 @@
+package com.campus.safety.ambulancetracker.repository;
+
+import com.campus.safety.ambulancetracker.model.LocationSegment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface LocationSegmentRepository extends JpaRepository<LocationSegment, Long> {
+
+    /**
+     * Segments of one ambulance that overlap [from, to], oldest first.
+     */
+    @Query("SELECT s FROM LocationSegment s WHERE s.ambulanceId = :ambulanceId " +
+           "AND s.startTime <= :to AND s.endTime >= :from ORDER BY s.startTime")
+    List<LocationSegment> findOverlapping(@Param("ambulanceId") Long ambulanceId,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to);
+
+    /**
+     * Full-resolution segments that ended before the cutoff, for downsampling.
+     */
+    @Query("SELECT s FROM LocationSegment s WHERE s.resolutionSeconds = 0 AND s.endTime < :cutoff ORDER BY s.id")
+    List<LocationSegment> findRawEndedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable page);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM LocationSegment s WHERE s.endTime < :cutoff")
+    int deleteEndedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,7 @@
+package com.campus.safety.ambulancetracker.repository;
+
+import com.campus.safety.ambulancetracker.model.ProjectionSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ProjectionSnapshotRepository extends JpaRepository<ProjectionSnapshot, String> {
+}
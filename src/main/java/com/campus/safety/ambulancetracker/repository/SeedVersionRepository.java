@@ -0,0 +1,13 @@
+package com.campus.safety.ambulancetracker.repository;
+
+import com.campus.safety.ambulancetracker.model.SeedVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Set;
+
+public interface SeedVersionRepository extends JpaRepository<SeedVersion, Integer> {
+
+    @Query("SELECT s.version FROM SeedVersion s")
+    Set<Integer> findAllVersions();
+}
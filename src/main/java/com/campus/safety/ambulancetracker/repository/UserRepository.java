@@ -1,12 +1,24 @@
 package com.campus.safety.ambulancetracker.repository;
 
+import com.campus.safety.ambulancetracker.dto.UserSummary;
 import com.campus.safety.ambulancetracker.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
+
+    // Keyset page: users with an id above the cursor, by id (seeks on the primary key).
+    // Read straight into summaries, so the password column is never selected
+    @Query("SELECT new com.campus.safety.ambulancetracker.dto.UserSummary(" +
+           "u.id, u.firstName, u.lastName, u.email, u.contactNumber, u.username, u.role) " +
+           "FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserSummary> findPageAfter(@Param("afterId") long afterId, Limit limit);
 }
\ No newline at end of file
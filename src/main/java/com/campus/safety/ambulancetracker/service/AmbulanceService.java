@@ -1,65 +1,263 @@
 package com.campus.safety.ambulancetracker.service;
 
+import com.campus.safety.ambulancetracker.dto.NearbyAmbulance;
+import com.campus.safety.ambulancetracker.dto.TelemetryResult;
+import com.campus.safety.ambulancetracker.dto.TelemetryUpdate;
 import com.campus.safety.ambulancetracker.model.Ambulance;
 import com.campus.safety.ambulancetracker.model.AmbulanceStatus; // NEW IMPORT
+import com.campus.safety.ambulancetracker.model.DispatchEvent;
+import com.campus.safety.ambulancetracker.repository.AmbulanceLocationWriter;
 import com.campus.safety.ambulancetracker.repository.AmbulanceRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime; // NEW IMPORT
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 public class AmbulanceService {
 
+    // Closest candidates tried per lookup, and lookups before giving up, when claiming a unit
+    private static final int CLAIM_CANDIDATES = 4;
+    private static final int MAX_CLAIM_ROUNDS = 8;
+
     private final AmbulanceRepository ambulanceRepository;
+    private final AmbulanceLocationWriter locationWriter;
+    private final FleetRegistry fleetRegistry;
+    private final SpatialIndex spatialIndex;
+    private final TelemetryLog telemetryLog;
+    private final DispatchEventStore eventStore;
+    private final DispatchMetrics metrics;
 
-    public AmbulanceService(AmbulanceRepository ambulanceRepository) {
+    public AmbulanceService(AmbulanceRepository ambulanceRepository,
+                            AmbulanceLocationWriter locationWriter,
+                            FleetRegistry fleetRegistry,
+                            SpatialIndex spatialIndex,
+                            TelemetryLog telemetryLog,
+                            DispatchEventStore eventStore,
+                            DispatchMetrics metrics) {
         this.ambulanceRepository = ambulanceRepository;
+        this.locationWriter = locationWriter;
+        this.fleetRegistry = fleetRegistry;
+        this.spatialIndex = spatialIndex;
+        this.telemetryLog = telemetryLog;
+        this.eventStore = eventStore;
+        this.metrics = metrics;
     }
 
+    /**
+     * Returns the whole fleet from the in-memory registry.
+     */
     public List<Ambulance> findAll() {
-        return ambulanceRepository.findAll();
+        return fleetRegistry.findAll();
     }
 
     /**
      * Finds all ambulances currently marked as AVAILABLE.
      */
     public List<Ambulance> findAvailableAmbulances() {
-        // FIX: Use the AmbulanceStatus Enum instead of a String
-        return ambulanceRepository.findByStatus(AmbulanceStatus.AVAILABLE);
+        return fleetRegistry.findByStatus(AmbulanceStatus.AVAILABLE);
+    }
+
+    /**
+     * Finds the {@code k} AVAILABLE ambulances closest to the given point, nearest first.
+     */
+    public List<NearbyAmbulance> findNearestAvailable(double latitude, double longitude, int k) {
+        return spatialIndex.nearest(latitude, longitude, k, AmbulanceStatus.AVAILABLE);
+    }
+
+    /**
+     * Finds every ambulance, whatever its status, within the given radius of a point.
+     */
+    public List<NearbyAmbulance> findWithinRadius(double latitude, double longitude, double radiusMeters) {
+        return spatialIndex.within(latitude, longitude, radiusMeters);
+    }
+
+    /**
+     * Claims the closest AVAILABLE ambulance for a dispatch by moving it to EN_ROUTE.
+     * When a candidate is taken by a concurrent dispatcher the next closest one is tried,
+     * so many dispatches can run at once without a global lock or double assignment.
+     */
+    @Transactional
+    public Optional<Ambulance> claimNearestAvailable(double latitude, double longitude) {
+        for (int round = 0; round < MAX_CLAIM_ROUNDS; round++) {
+            List<NearbyAmbulance> candidates = spatialIndex.nearest(latitude, longitude, CLAIM_CANDIDATES, AmbulanceStatus.AVAILABLE);
+            if (candidates.isEmpty()) {
+                return Optional.empty();
+            }
+            for (NearbyAmbulance candidate : candidates) {
+                Optional<Ambulance> claimed = claim(candidate.ambulance().getId());
+                if (claimed.isPresent()) {
+                    return claimed;
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Claims one ambulance if it is still AVAILABLE.
+     * The registry decides the race between threads of this instance; the conditional
+     * UPDATE decides it against other instances sharing the database.
+     */
+    @Transactional
+    public Optional<Ambulance> claim(Long ambulanceId) {
+        Optional<FleetUpdate> claimed = fleetRegistry.compareAndSetStatus(
+                ambulanceId, AmbulanceStatus.AVAILABLE, AmbulanceStatus.EN_ROUTE);
+        if (claimed.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Ambulance current = claimed.get().current();
+        int rows = ambulanceRepository.compareAndSetStatus(
+                ambulanceId, AmbulanceStatus.AVAILABLE, AmbulanceStatus.EN_ROUTE, current.getLastUpdated());
+        if (rows == 0) {
+            // Dispatched elsewhere: adopt what the database says
+            fleetRegistry.refresh(ambulanceId);
+            return Optional.empty();
+        }
+        refreshOnRollback(ambulanceId);
+        eventStore.append(unitStatusEvent(claimed.get()));
+        return Optional.of(current);
     }
 
     /**
      * Updates an ambulance's status and location.
-     * FIX: Updated method signature to use AmbulanceStatus and geo-coordinates.
+     * Position-only pings are applied in memory and flushed to the database in batches
+     * by {@link FleetRegistry}; a status change is also written through synchronously.
+     * Either way the update is in the {@link TelemetryLog} before this returns; it is
+     * appended after the commit, so only acknowledged updates are guaranteed to survive a crash.
      */
     @Transactional
     public Ambulance updateStatusAndLocation(Long ambulanceId, AmbulanceStatus status, Double latitude, Double longitude) {
-        // ... implementation ...
-        Optional<Ambulance> ambulanceOptional = ambulanceRepository.findById(ambulanceId);
-        if (ambulanceOptional.isEmpty()) {
-            throw new IllegalArgumentException("Ambulance not found with ID: " + ambulanceId);
+        return metrics.time(DispatchMetrics.Operation.STATUS_UPDATE,
+                () -> applyStatusAndLocation(ambulanceId, status, latitude, longitude));
+    }
+
+    private Ambulance applyStatusAndLocation(Long ambulanceId, AmbulanceStatus status, Double latitude, Double longitude) {
+        LocationUpdateEvent event = LocationUpdateEvent.start();
+        FleetUpdate update = applyToRegistry(ambulanceId, status, latitude, longitude, null)
+                .orElseThrow(() -> new IllegalArgumentException("Ambulance not found with ID: " + ambulanceId));
+
+        if (update.statusChanged()) {
+            Ambulance current = update.current();
+            ambulanceRepository.updateStatusAndLocation(ambulanceId, current.getStatus(),
+                    current.getLatitude(), current.getLongitude(), current.getLastUpdated());
+            refreshOnRollback(ambulanceId);
+            eventStore.append(unitStatusEvent(update));
         }
-        
-        Ambulance ambulance = ambulanceOptional.get();
-
-        ambulance.setStatus(status);
-        ambulance.setLatitude(latitude);
-        ambulance.setLongitude(longitude);
-        ambulance.setLastUpdated(LocalDateTime.now());
-        
-        return ambulanceRepository.save(ambulance);
+        Ambulance current = update.current();
+        event.end();
+        if (event.shouldCommit()) {
+            event.ambulanceId = ambulanceId;
+            event.status = current.getStatus().name();
+            event.readings = 1;
+            event.applied = update.applied() ? 1 : 0;
+            event.statusChanges = update.statusChanged() ? 1 : 0;
+            event.commit();
+        }
+        TransactionHooks.afterCommit(() -> telemetryLog.appendAll(List.of(current)));
+        return current;
+    }
+
+    /**
+     * Applies a batch of device readings in one pass.
+     * Readings older than the last accepted one for the same ambulance are dropped,
+     * and all status transitions in the batch are written with a single JDBC batch.
+     */
+    @Transactional
+    public List<TelemetryResult> ingestTelemetry(List<TelemetryUpdate> updates) {
+        LocationUpdateEvent event = LocationUpdateEvent.start();
+        List<TelemetryResult> results = new ArrayList<>(updates.size());
+        List<Ambulance> statusChanges = new ArrayList<>();
+        List<DispatchEvent> statusEvents = new ArrayList<>();
+        List<Ambulance> accepted = new ArrayList<>();
+        LocalDateTime receivedAt = LocalDateTime.now();
+
+        for (int i = 0; i < updates.size(); i++) {
+            TelemetryUpdate reading = updates.get(i);
+            if (reading == null || reading.ambulanceId() == null || reading.status() == null
+                    || reading.lat() == null || reading.lng() == null) {
+                results.add(new TelemetryResult(i, reading != null ? reading.ambulanceId() : null,
+                        TelemetryResult.Outcome.INVALID));
+                continue;
+            }
+
+            LocalDateTime timestamp = reading.timestamp() != null ? reading.timestamp() : receivedAt;
+            Optional<FleetUpdate> update = applyToRegistry(reading.ambulanceId(), reading.status(),
+                    reading.lat(), reading.lng(), timestamp);
+
+            if (update.isEmpty()) {
+                results.add(new TelemetryResult(i, reading.ambulanceId(), TelemetryResult.Outcome.NOT_FOUND));
+            } else if (!update.get().applied()) {
+                results.add(new TelemetryResult(i, reading.ambulanceId(), TelemetryResult.Outcome.STALE));
+            } else {
+                if (update.get().statusChanged()) {
+                    statusChanges.add(update.get().current());
+                    statusEvents.add(unitStatusEvent(update.get()));
+                    refreshOnRollback(reading.ambulanceId());
+                }
+                accepted.add(update.get().current());
+                results.add(new TelemetryResult(i, reading.ambulanceId(), TelemetryResult.Outcome.APPLIED));
+            }
+        }
+
+        locationWriter.batchUpdateStatuses(statusChanges);
+        eventStore.appendAll(statusEvents);
+        event.end();
+        if (event.shouldCommit()) {
+            event.readings = updates.size();
+            event.applied = accepted.size();
+            event.statusChanges = statusChanges.size();
+            event.commit();
+        }
+        // One log append and one sync for the whole batch, once the status writes are committed
+        TransactionHooks.afterCommit(() -> telemetryLog.appendAll(accepted));
+        return results;
     }
 
     public Optional<Ambulance> findById(Long ambulanceId) {
-        return ambulanceRepository.findById(ambulanceId);
+        return fleetRegistry.findById(ambulanceId);
     }
 
     /**
      * Saves a new ambulance or updates an existing one. (Needed for management)
      */
+    @Transactional
     public Ambulance save(Ambulance ambulance) {
-        return ambulanceRepository.save(ambulance);
+        AmbulanceStatus previous = ambulance.getId() != null
+                ? fleetRegistry.findById(ambulance.getId()).map(Ambulance::getStatus).orElse(null)
+                : null;
+        Ambulance saved = ambulanceRepository.save(ambulance);
+        fleetRegistry.put(saved);
+        refreshOnRollback(saved.getId());
+        if (saved.getStatus() != null && saved.getStatus() != previous) {
+            eventStore.append(DispatchEvent.unitStatus(saved.getId(), previous, saved.getStatus(),
+                    saved.getLastUpdated() != null ? saved.getLastUpdated() : LocalDateTime.now()));
+        }
+        return saved;
+    }
+
+    private Optional<FleetUpdate> applyToRegistry(Long ambulanceId, AmbulanceStatus status,
+                                                  Double latitude, Double longitude, LocalDateTime timestamp) {
+        if (!fleetRegistry.contains(ambulanceId)) {
+            // Possibly added by another instance since the registry was loaded
+            fleetRegistry.refresh(ambulanceId);
+        }
+        return fleetRegistry.apply(ambulanceId, status, latitude, longitude, timestamp);
+    }
+
+    private static DispatchEvent unitStatusEvent(FleetUpdate update) {
+        return DispatchEvent.unitStatus(update.current().getId(), update.previous().getStatus(),
+                update.current().getStatus(), update.current().getLastUpdated());
+    }
+
+    /**
+     * Restores the registry entry from the database if the surrounding transaction rolls back,
+     * so memory never keeps a status the database did not commit.
+     */
+    private void refreshOnRollback(Long ambulanceId) {
+        TransactionHooks.afterRollback(() -> fleetRegistry.refresh(ambulanceId));
     }
-}
\ No newline at end of file
+}
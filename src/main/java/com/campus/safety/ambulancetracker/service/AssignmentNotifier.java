@@ -0,0 +1,113 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.dto.AssignmentNotice;
+import com.campus.safety.ambulancetracker.model.EmergencyRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long-poll channel that tells a driver's device the moment its ambulance is assigned.
+ *
+ * A waiting device is parked as a {@link DeferredResult}, so it holds a connection
+ * but no servlet thread. {@link EmergencyRequestService} publishes after each
+ * assignment commits; every device waiting on that unit is completed right away and
+ * the delay from assignment to delivery is recorded in {@link ResponseTimeTracker}.
+ */
+@Component
+public class AssignmentNotifier {
+
+    private final ResponseTimeTracker responseTimes;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Current assignment per ambulance, for devices that poll just after it was made
+    private final Map<Long, AssignmentNotice> latest = new ConcurrentHashMap<>();
+
+    private final Map<Long, Set<DeferredResult<ResponseEntity<AssignmentNotice>>>> waiters = new ConcurrentHashMap<>();
+
+    public AssignmentNotifier(ResponseTimeTracker responseTimes) {
+        this.responseTimes = responseTimes;
+    }
+
+    /**
+     * Announces that {@code request} was assigned to the given ambulance. Call after commit.
+     */
+    public void publish(Long ambulanceId, EmergencyRequest request) {
+        AssignmentNotice notice = AssignmentNotice.of(sequence.incrementAndGet(), ambulanceId, request);
+        latest.merge(ambulanceId, notice, (current, next) -> next.sequence() > current.sequence() ? next : current);
+
+        Set<DeferredResult<ResponseEntity<AssignmentNotice>>> waiting = waiters.get(ambulanceId);
+        if (waiting != null) {
+            for (DeferredResult<ResponseEntity<AssignmentNotice>> result : waiting) {
+                deliver(result, notice);
+            }
+        }
+    }
+
+    /**
+     * Forgets the current assignment once the request is completed, so a device that
+     * reconnects later is not handed finished work.
+     */
+    public void completed(Long ambulanceId, Long requestId) {
+        latest.computeIfPresent(ambulanceId, (id, notice) -> notice.requestId().equals(requestId) ? null : notice);
+    }
+
+    /**
+     * Returns a result that completes with the first assignment newer than {@code since},
+     * or with 204 No Content after {@code timeoutMs}.
+     */
+    public DeferredResult<ResponseEntity<AssignmentNotice>> await(Long ambulanceId, long since, long timeoutMs) {
+        DeferredResult<ResponseEntity<AssignmentNotice>> result =
+                new DeferredResult<>(timeoutMs, ResponseEntity.noContent().build());
+
+        AssignmentNotice current = latest.get(ambulanceId);
+        if (current != null && current.sequence() > since) {
+            deliver(result, current);
+            return result;
+        }
+
+        register(ambulanceId, result);
+
+        // An assignment published between the first check and registering would otherwise be missed
+        current = latest.get(ambulanceId);
+        if (current != null && current.sequence() > since) {
+            deliver(result, current);
+        }
+        return result;
+    }
+
+    /**
+     * Parks the result until it completes. A unit's set is created and dropped inside the
+     * map's compute, so a device registering never adds to a set that is being removed,
+     * and units no device waits on leave no entry behind.
+     */
+    void register(Long ambulanceId, DeferredResult<ResponseEntity<AssignmentNotice>> result) {
+        waiters.compute(ambulanceId, (id, waiting) -> {
+            Set<DeferredResult<ResponseEntity<AssignmentNotice>>> target =
+                    waiting != null ? waiting : ConcurrentHashMap.newKeySet();
+            target.add(result);
+            return target;
+        });
+        result.onCompletion(() -> waiters.computeIfPresent(ambulanceId, (id, waiting) -> {
+            waiting.remove(result);
+            return waiting.isEmpty() ? null : waiting;
+        }));
+    }
+
+    public int waitingDevices() {
+        return waiters.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void deliver(DeferredResult<ResponseEntity<AssignmentNotice>> result, AssignmentNotice notice) {
+        if (result.setResult(ResponseEntity.ok(notice))) {
+            responseTimes.recordNotification(notice.assignedAt(), LocalDateTime.now());
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.campus.safety.ambulancetracker.service;
 
 import com.campus.safety.ambulancetracker.model.User;
 import com.campus.safety.ambulancetracker.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -11,24 +13,21 @@ import org.springframework.stereotype.Service;
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
+    private static final Logger log = LoggerFactory.getLogger(CustomUserDetailsService.class);
+
     @Autowired
     private UserRepository userRepository;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        System.out.println("🔍 Looking for user: " + username);
-        
         User user = userRepository.findByUsername(username)
             .orElseThrow(() -> {
-                System.out.println("❌ User NOT found: " + username);
+                log.debug("Login for unknown user {}", username);
                 return new UsernameNotFoundException("User not found with username: " + username);
             });
-        
-        System.out.println("✅ User FOUND: " + user.getUsername());
-        System.out.println("   - Role: " + user.getRole());
-        System.out.println("   - Password hash: " + user.getPassword());
-        System.out.println("   - Enabled: " + user.isEnabled());
-        
+
+        log.debug("Loaded user {} (role {}, enabled {})", user.getUsername(), user.getRole(), user.isEnabled());
+
         // REMOVE manual password testing — Spring Security handles this automatically
         
         return user;
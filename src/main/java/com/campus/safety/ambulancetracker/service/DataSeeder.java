@@ -0,0 +1,114 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.model.Ambulance;
+import com.campus.safety.ambulancetracker.model.AmbulanceStatus;
+import com.campus.safety.ambulancetracker.model.SeedVersion;
+import com.campus.safety.ambulancetracker.model.User;
+import com.campus.safety.ambulancetracker.repository.AmbulanceRepository;
+import com.campus.safety.ambulancetracker.repository.SeedVersionRepository;
+import com.campus.safety.ambulancetracker.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Versioned startup data. Each seed runs once per database and is recorded in
+ * {@code seed_versions}, so a boot after the first costs one small query: no counts,
+ * no password hashing, no writes. New data goes in a new version, never by editing
+ * an applied one.
+ */
+@Service
+public class DataSeeder {
+
+    private static final Logger log = LoggerFactory.getLogger(DataSeeder.class);
+
+    private record Seed(int version, String description, Runnable apply) {
+    }
+
+    private final SeedVersionRepository seedVersionRepository;
+    private final AmbulanceRepository ambulanceRepository;
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+
+    // In version order
+    private final List<Seed> seeds = List.of(
+            new Seed(1, "Test ambulances and default users", this::seedDefaults));
+
+    public DataSeeder(SeedVersionRepository seedVersionRepository,
+                      AmbulanceRepository ambulanceRepository,
+                      UserRepository userRepository,
+                      PasswordEncoder passwordEncoder) {
+        this.seedVersionRepository = seedVersionRepository;
+        this.ambulanceRepository = ambulanceRepository;
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    /**
+     * Applies every seed not yet recorded and returns how many ran. If another instance
+     * applies the same version at the same time, the version insert fails and this
+     * transaction, with its data, rolls back.
+     */
+    @Transactional
+    public int seed() {
+        Set<Integer> applied = seedVersionRepository.findAllVersions();
+        int count = 0;
+        for (Seed seed : seeds) {
+            if (applied.contains(seed.version())) {
+                continue;
+            }
+            seed.apply().run();
+            seedVersionRepository.saveAndFlush(new SeedVersion(seed.version(), seed.description(), LocalDateTime.now()));
+            log.info("Applied seed version {}: {}", seed.version(), seed.description());
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Databases that predate versioning already have their data; they only get the version recorded.
+     */
+    private void seedDefaults() {
+        if (ambulanceRepository.count() == 0) {
+            ambulanceRepository.save(new Ambulance(
+                    null, "KA01MT9988", "Ravi Kumar", "9876512340",
+                    AmbulanceStatus.AVAILABLE, 12.9716, 77.5946,
+                    LocalDateTime.now(), null, null
+            ));
+            ambulanceRepository.save(new Ambulance(
+                    null, "KA01MT1122", "Suresh Reddy", "9876512341",
+                    AmbulanceStatus.OUT_OF_SERVICE, 12.9750, 77.5980,
+                    LocalDateTime.now(), null, null
+            ));
+            log.debug("Created 2 test ambulances");
+        }
+
+        if (userRepository.count() == 0) {
+            userRepository.save(user("System", "Administrator", "admin@campus.edu", "9876543210",
+                    "admin", "admin123", "ADMIN"));
+            userRepository.save(user("John", "Doe", "john.doe@campus.edu", "9876543211",
+                    "user", "user123", "USER"));
+            // Passwords are not logged; the defaults are the ones above
+            log.debug("Created default users admin (ADMIN) and user (USER)");
+        }
+    }
+
+    private User user(String firstName, String lastName, String email, String contactNumber,
+                      String username, String password, String role) {
+        User user = new User();
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setEmail(email);
+        user.setContactNumber(contactNumber);
+        user.setUsername(username);
+        user.setPassword(passwordEncoder.encode(password));
+        user.setRole(role);
+        return user;
+    }
+}
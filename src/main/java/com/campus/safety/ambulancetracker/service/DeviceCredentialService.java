@@ -0,0 +1,89 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.dto.DeviceKeyInfo;
+import com.campus.safety.ambulancetracker.dto.IssuedDeviceKey;
+import com.campus.safety.ambulancetracker.model.DeviceCredential;
+import com.campus.safety.ambulancetracker.repository.DeviceCredentialRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Issues and revokes the per-ambulance keys devices sign their requests with.
+ */
+@Service
+public class DeviceCredentialService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeviceCredentialService.class);
+
+    private static final int SECRET_BYTES = 32;
+    private static final int KEY_ID_BYTES = 12;
+
+    private final DeviceCredentialRepository credentialRepository;
+    private final AmbulanceService ambulanceService;
+    private final DeviceKeyCache keyCache;
+    private final SecureRandom random = new SecureRandom();
+
+    public DeviceCredentialService(DeviceCredentialRepository credentialRepository,
+                                   AmbulanceService ambulanceService,
+                                   DeviceKeyCache keyCache) {
+        this.credentialRepository = credentialRepository;
+        this.ambulanceService = ambulanceService;
+        this.keyCache = keyCache;
+    }
+
+    /**
+     * Creates a new key for the ambulance. Existing keys stay valid, so a device can be
+     * moved to the new key before the old one is revoked.
+     */
+    @Transactional
+    public IssuedDeviceKey issue(Long ambulanceId) {
+        if (ambulanceService.findById(ambulanceId).isEmpty()) {
+            throw new IllegalArgumentException("Ambulance not found with ID: " + ambulanceId);
+        }
+        byte[] secret = new byte[SECRET_BYTES];
+        random.nextBytes(secret);
+        byte[] keyId = new byte[KEY_ID_BYTES];
+        random.nextBytes(keyId);
+
+        DeviceCredential credential = new DeviceCredential();
+        credential.setKeyId("dk_" + HexFormat.of().formatHex(keyId));
+        credential.setAmbulanceId(ambulanceId);
+        credential.setSecret(Base64.getEncoder().encodeToString(secret));
+        credential.setCreatedAt(LocalDateTime.now());
+        DeviceCredential saved = credentialRepository.save(credential);
+
+        log.info("Device key {} issued for ambulance {}", saved.getKeyId(), ambulanceId);
+        return new IssuedDeviceKey(saved.getKeyId(), ambulanceId, saved.getSecret(), saved.getCreatedAt());
+    }
+
+    public List<DeviceKeyInfo> findByAmbulance(Long ambulanceId) {
+        return credentialRepository.findByAmbulanceIdOrderByCreatedAtDesc(ambulanceId).stream()
+                .map(DeviceKeyInfo::from)
+                .toList();
+    }
+
+    /**
+     * Revokes a key of the ambulance. It stops working here at once, and on other
+     * instances once their cached copy expires.
+     */
+    @Transactional
+    public DeviceKeyInfo revoke(Long ambulanceId, String keyId) {
+        DeviceCredential credential = credentialRepository.findByKeyId(keyId)
+                .filter(found -> found.getAmbulanceId().equals(ambulanceId))
+                .orElseThrow(() -> new IllegalArgumentException("Device key not found: " + keyId));
+        if (credential.getRevokedAt() == null) {
+            credential.setRevokedAt(LocalDateTime.now());
+            TransactionHooks.afterCommit(() -> keyCache.evict(keyId));
+            log.info("Device key {} revoked", keyId);
+        }
+        return DeviceKeyInfo.from(credential);
+    }
+}
@@ -0,0 +1,112 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.model.DeviceCredential;
+import com.campus.safety.ambulancetracker.repository.DeviceCredentialRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Device signing keys by key id, so verifying a ping needs no database read.
+ *
+ * Entries expire after {@code device.auth.key-cache-ttl-seconds}, which bounds how
+ * long a key revoked on another instance keeps working; revoking through this
+ * instance evicts at once. Unknown key ids are cached too, for a tenth of the TTL,
+ * so a device retrying with a bad key cannot turn every request into a query.
+ * They are kept apart from known keys and capped on their own
+ * ({@code device.auth.key-cache-max-misses}), so a flood of made-up key ids can only
+ * push out other misses, never a working key. When either part is full, its expired
+ * entries are dropped first, then arbitrary ones.
+ */
+@Component
+public class DeviceKeyCache {
+
+    /**
+     * A usable signing key and the ambulance it belongs to.
+     */
+    public record DeviceKey(String keyId, Long ambulanceId, byte[] secret) {
+    }
+
+    // key is null for an id that is unknown or revoked
+    private record Entry(DeviceKey key, long expiresAtNanos) {
+    }
+
+    private final DeviceCredentialRepository credentialRepository;
+    private final long ttlNanos;
+    private final int maxSize;
+    private final int maxMisses;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Entry> misses = new ConcurrentHashMap<>();
+
+    public DeviceKeyCache(DeviceCredentialRepository credentialRepository,
+                          @Value("${device.auth.key-cache-ttl-seconds:300}") long ttlSeconds,
+                          @Value("${device.auth.key-cache-max-size:10000}") int maxSize,
+                          @Value("${device.auth.key-cache-max-misses:1000}") int maxMisses) {
+        this.credentialRepository = credentialRepository;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxSize = maxSize;
+        this.maxMisses = maxMisses;
+    }
+
+    public Optional<DeviceKey> find(String keyId) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(keyId);
+        if (entry == null) {
+            entry = misses.get(keyId);
+        }
+        if (entry == null || now - entry.expiresAtNanos() > 0) {
+            entry = load(keyId, now);
+        }
+        return Optional.ofNullable(entry.key());
+    }
+
+    public void evict(String keyId) {
+        entries.remove(keyId);
+        misses.remove(keyId);
+    }
+
+    public int size() {
+        return entries.size() + misses.size();
+    }
+
+    private Entry load(String keyId, long now) {
+        DeviceKey key = credentialRepository.findByKeyIdAndRevokedAtIsNull(keyId)
+                .map(DeviceKeyCache::toKey)
+                .orElse(null);
+        if (key == null) {
+            entries.remove(keyId);
+            return put(misses, maxMisses, keyId, new Entry(null, now + ttlNanos / 10), now);
+        }
+        misses.remove(keyId);
+        return put(entries, maxSize, keyId, new Entry(key, now + ttlNanos), now);
+    }
+
+    private static Entry put(Map<String, Entry> part, int limit, String keyId, Entry entry, long now) {
+        if (part.size() >= limit) {
+            makeRoom(part, limit, now);
+        }
+        part.put(keyId, entry);
+        return entry;
+    }
+
+    private static void makeRoom(Map<String, Entry> part, int limit, long now) {
+        part.values().removeIf(entry -> now - entry.expiresAtNanos() > 0);
+        Iterator<String> ids = part.keySet().iterator();
+        while (part.size() >= limit && ids.hasNext()) {
+            ids.next();
+            ids.remove();
+        }
+    }
+
+    private static DeviceKey toKey(DeviceCredential credential) {
+        return new DeviceKey(credential.getKeyId(), credential.getAmbulanceId(),
+                Base64.getDecoder().decode(credential.getSecret()));
+    }
+}
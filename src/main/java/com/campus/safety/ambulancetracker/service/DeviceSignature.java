@@ -0,0 +1,61 @@
+package com.campus.safety.ambulancetracker.service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * The request signature devices send in {@code X-Device-Signature}: Base64 of
+ * HMAC-SHA256 over
+ * <pre>
+ * METHOD \n path[?query] \n timestamp \n hex(SHA-256(body))
+ * </pre>
+ * where {@code timestamp} is the value of {@code X-Device-Timestamp} in epoch seconds.
+ * Signing the method, path and body stops a captured signature being reused for a
+ * different call; the timestamp bounds how long it can be replayed as is.
+ */
+public final class DeviceSignature {
+
+    public static final String KEY_HEADER = "X-Device-Key";
+    public static final String TIMESTAMP_HEADER = "X-Device-Timestamp";
+    public static final String SIGNATURE_HEADER = "X-Device-Signature";
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private DeviceSignature() {
+    }
+
+    public static String sign(byte[] secret, String method, String pathAndQuery, long timestamp, byte[] body) {
+        return Base64.getEncoder().encodeToString(mac(secret, method, pathAndQuery, timestamp, body));
+    }
+
+    /**
+     * Compares in constant time, so the check leaks nothing about how close a forgery was.
+     */
+    public static boolean verify(byte[] secret, String method, String pathAndQuery, long timestamp, byte[] body,
+                                 String signature) {
+        byte[] presented;
+        try {
+            presented = Base64.getDecoder().decode(signature);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return MessageDigest.isEqual(mac(secret, method, pathAndQuery, timestamp, body), presented);
+    }
+
+    private static byte[] mac(byte[] secret, String method, String pathAndQuery, long timestamp, byte[] body) {
+        try {
+            String bodyHash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+            String canonical = method + "\n" + pathAndQuery + "\n" + timestamp + "\n" + bodyHash;
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret, ALGORITHM));
+            return mac.doFinal(canonical.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.model.DispatchEvent;
+import com.campus.safety.ambulancetracker.model.ProjectionSnapshot;
+import com.campus.safety.ambulancetracker.repository.DispatchEventRepository;
+import com.campus.safety.ambulancetracker.repository.ProjectionSnapshotRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Append-only log of request and ambulance transitions, and the snapshots of the
+ * projections built from it.
+ *
+ * Services append an event in the same transaction as the row change it describes, so
+ * the log and the current-state tables never disagree. Once that transaction commits,
+ * the event is published as an application event; projections such as
+ * {@link ReportAggregator} and {@link ResponseTimeTracker} subscribe with
+ * {@code @EventListener} instead of being called by each service or re-reading tables.
+ *
+ * Event ids are handed out at insert but become visible at commit, so a lower id can
+ * appear after a higher one. A position is only treated as settled once everything up
+ * to it was appended longer ago than any transaction runs ({@code events.settle-seconds}).
+ */
+@Component
+public class DispatchEventStore {
+
+    private static final int REPLAY_PAGE_SIZE = 1000;
+
+    private final DispatchEventRepository eventRepository;
+    private final ProjectionSnapshotRepository snapshotRepository;
+    private final ApplicationEventPublisher publisher;
+    private final long settleSeconds;
+
+    public DispatchEventStore(DispatchEventRepository eventRepository,
+                              ProjectionSnapshotRepository snapshotRepository,
+                              ApplicationEventPublisher publisher,
+                              @Value("${events.settle-seconds:60}") long settleSeconds) {
+        this.eventRepository = eventRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.publisher = publisher;
+        this.settleSeconds = settleSeconds;
+    }
+
+    /**
+     * Appends the event to the current transaction and publishes it once committed.
+     */
+    public DispatchEvent append(DispatchEvent event) {
+        event.setRecordedAt(LocalDateTime.now());
+        DispatchEvent saved = eventRepository.save(event);
+        TransactionHooks.afterCommit(() -> publisher.publishEvent(saved));
+        return saved;
+    }
+
+    public void appendAll(List<DispatchEvent> events) {
+        events.forEach(this::append);
+    }
+
+    /**
+     * Every transition of one request, oldest first.
+     */
+    public List<DispatchEvent> historyOf(Long requestId) {
+        return eventRepository.findByRequestIdOrderById(requestId);
+    }
+
+    public long latestPosition() {
+        return eventRepository.findLatestId();
+    }
+
+    /**
+     * The last position after {@code after} below which no transaction can still be
+     * appending; {@code after} itself when nothing new has settled.
+     */
+    public long settledPosition(long after) {
+        return eventRepository.findLatestIdRecordedBefore(after, LocalDateTime.now().minusSeconds(settleSeconds));
+    }
+
+    /**
+     * Feeds the events in (after, through] to the consumer in append order, a page at a time.
+     * Returns the number of events replayed.
+     */
+    public long replay(long after, long through, Consumer<DispatchEvent> consumer) {
+        long count = 0;
+        List<DispatchEvent> page;
+        while (after < through
+                && !(page = eventRepository.findRange(after, through, Limit.of(REPLAY_PAGE_SIZE))).isEmpty()) {
+            page.forEach(consumer);
+            count += page.size();
+            after = page.get(page.size() - 1).getId();
+        }
+        return count;
+    }
+
+    public Optional<ProjectionSnapshot> loadSnapshot(String name) {
+        return snapshotRepository.findById(name);
+    }
+
+    public void saveSnapshot(String name, long position, String state) {
+        snapshotRepository.save(new ProjectionSnapshot(name, position, state, LocalDateTime.now()));
+    }
+}
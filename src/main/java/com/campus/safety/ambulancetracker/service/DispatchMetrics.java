@@ -0,0 +1,120 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.model.AmbulanceStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer meters for dispatch and telemetry, exported at {@code /actuator/prometheus}.
+ *
+ * Timers cover a whole service call including its commit and after-commit work (the
+ * telemetry log sync, queue and notifier updates), tagged {@code outcome=success|error}.
+ * Gauges are read from the in-memory queue and registry at scrape time, so they cost
+ * nothing between scrapes. Meters are created once; recording is a few lock-free adds.
+ * Repository timings come from Spring Boot's {@code spring.data.repository.invocations}.
+ */
+@Component
+public class DispatchMetrics {
+
+    /**
+     * A timed service call.
+     */
+    public enum Operation {
+        CREATE_REQUEST("dispatch.requests.create", "Creating and dispatching an emergency request"),
+        COMPLETE_REQUEST("dispatch.requests.complete", "Completing a request and reassigning its unit"),
+        STATUS_UPDATE("fleet.status.updates", "Applying one ambulance status/position update");
+
+        private final String metricName;
+        private final String description;
+
+        Operation(String metricName, String description) {
+            this.metricName = metricName;
+            this.description = description;
+        }
+    }
+
+    private static final Duration[] BUCKETS = {
+            Duration.ofMillis(5), Duration.ofMillis(10), Duration.ofMillis(25), Duration.ofMillis(50),
+            Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofMillis(500), Duration.ofSeconds(1),
+            Duration.ofMillis(2500), Duration.ofSeconds(5), Duration.ofSeconds(10)};
+
+    private final Timer[] succeeded = new Timer[Operation.values().length];
+    private final Timer[] failed = new Timer[Operation.values().length];
+    private final Counter pendingAssignments;
+
+    public DispatchMetrics(MeterRegistry registry, PendingRequestQueue pendingQueue, FleetRegistry fleetRegistry) {
+        for (Operation operation : Operation.values()) {
+            succeeded[operation.ordinal()] = timer(registry, operation, "success");
+            failed[operation.ordinal()] = timer(registry, operation, "error");
+        }
+        pendingAssignments = Counter.builder("dispatch.pending.assignments")
+                .description("PENDING requests assigned automatically when a unit was freed")
+                .register(registry);
+
+        Gauge.builder("dispatch.pending.requests", pendingQueue, PendingRequestQueue::size)
+                .description("Requests waiting for a free unit")
+                .register(registry);
+        for (AmbulanceStatus status : AmbulanceStatus.values()) {
+            Gauge.builder("fleet.units", fleetRegistry, fleet -> fleet.countByStatus(status))
+                    .description("Ambulances per status")
+                    .tag("status", status.name())
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Runs and times a call made from a {@code @Transactional} service method. When the
+     * method started its own transaction the time is recorded once that transaction has
+     * completed; when it joined a caller's transaction, as soon as it returns.
+     */
+    public <T> T time(Operation operation, Supplier<T> call) {
+        long start = System.nanoTime();
+        if (startedTransaction()) {
+            TransactionHooks.afterCompletion(committed -> record(operation, committed, start));
+            return call.get();
+        }
+        boolean success = false;
+        try {
+            T result = call.get();
+            success = true;
+            return result;
+        } finally {
+            record(operation, success, start);
+        }
+    }
+
+    public void pendingRequestAssigned() {
+        pendingAssignments.increment();
+    }
+
+    private void record(Operation operation, boolean success, long startNanos) {
+        Timer timer = success ? succeeded[operation.ordinal()] : failed[operation.ordinal()];
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static boolean startedTransaction() {
+        try {
+            return TransactionAspectSupport.currentTransactionStatus().isNewTransaction();
+        } catch (NoTransactionException e) {
+            return false;
+        }
+    }
+
+    private static Timer timer(MeterRegistry registry, Operation operation, String outcome) {
+        // A handful of fixed buckets rather than the full percentile histogram keeps scrapes small
+        return Timer.builder(operation.metricName)
+                .description(operation.description)
+                .tag("outcome", outcome)
+                .serviceLevelObjectives(BUCKETS)
+                .register(registry);
+    }
+}
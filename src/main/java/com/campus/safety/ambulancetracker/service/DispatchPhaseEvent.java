@@ -0,0 +1,52 @@
+package com.campus.safety.ambulancetracker.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one step of dispatching or completing a request. The event's own
+ * duration is the time spent in the step. Costs a field check when no recording is running.
+ */
+@Name("com.campus.safety.ambulancetracker.DispatchPhase")
+@Label("Dispatch Phase")
+@Category({"Ambulance Tracker", "Dispatch"})
+@Description("One step of creating, completing or reassigning an emergency request")
+@StackTrace(false)
+final class DispatchPhaseEvent extends Event {
+
+    static final String FIND_UNIT = "FIND_UNIT";
+    static final String SAVE_REQUEST = "SAVE_REQUEST";
+    static final String RELEASE_UNIT = "RELEASE_UNIT";
+    static final String REASSIGN_PENDING = "REASSIGN_PENDING";
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Request Id")
+    @Description("0 when the request was not saved yet or none was involved")
+    long requestId;
+
+    @Label("Ambulance Id")
+    @Description("0 when no unit was involved")
+    long ambulanceId;
+
+    static DispatchPhaseEvent start(String phase) {
+        DispatchPhaseEvent event = new DispatchPhaseEvent();
+        event.phase = phase;
+        event.begin();
+        return event;
+    }
+
+    void finish(Long requestId, Long ambulanceId) {
+        end();
+        if (shouldCommit()) {
+            this.requestId = requestId != null ? requestId : 0;
+            this.ambulanceId = ambulanceId != null ? ambulanceId : 0;
+            commit();
+        }
+    }
+}
@@ -1,25 +1,51 @@
 package com.campus.safety.ambulancetracker.service;
 
+import com.campus.safety.ambulancetracker.dto.IntakeStatus;
+import com.campus.safety.ambulancetracker.dto.KeysetPage;
+import com.campus.safety.ambulancetracker.dto.RequestSummary;
+import com.campus.safety.ambulancetracker.dto.ResponseTimeReport;
 import com.campus.safety.ambulancetracker.model.Ambulance;
 import com.campus.safety.ambulancetracker.model.AmbulanceStatus;
+import com.campus.safety.ambulancetracker.model.DispatchEvent;
 import com.campus.safety.ambulancetracker.model.EmergencyRequest;
+import com.campus.safety.ambulancetracker.model.RequestPriority;
 import com.campus.safety.ambulancetracker.model.User;
 import com.campus.safety.ambulancetracker.repository.AmbulanceRepository;
+import com.campus.safety.ambulancetracker.repository.ArchivedRequestRepository;
 import com.campus.safety.ambulancetracker.repository.EmergencyRequestRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
 public class EmergencyRequestService {
 
+    private static final Logger log = LoggerFactory.getLogger(EmergencyRequestService.class);
+
     private final EmergencyRequestRepository requestRepository;
+    private final ArchivedRequestRepository archiveRepository;
     private final AmbulanceRepository ambulanceRepository;
     private final UserService userService;
     private final AmbulanceService ambulanceService;
+    private final PendingRequestQueue pendingQueue;
+    private final ReportAggregator reportAggregator;
+    private final ResponseTimeTracker responseTimes;
+    private final AssignmentNotifier assignmentNotifier;
+    private final DispatchEventStore eventStore;
+    private final DispatchMetrics metrics;
+    // Assignments started after another transaction has committed run in their own
+    private final TransactionTemplate newTransaction;
 
     // Define coordinates for the home base (placeholder for now)
     private static final Double BASE_LATITUDE = 12.9716;
@@ -30,50 +56,131 @@ public class EmergencyRequestService {
 
     // Inject dependencies
     public EmergencyRequestService(EmergencyRequestRepository requestRepository,
+                                   ArchivedRequestRepository archiveRepository,
                                    UserService userService,
                                    AmbulanceService ambulanceService,
-                                   AmbulanceRepository ambulanceRepository) {
+                                   AmbulanceRepository ambulanceRepository,
+                                   PendingRequestQueue pendingQueue,
+                                   ReportAggregator reportAggregator,
+                                   ResponseTimeTracker responseTimes,
+                                   AssignmentNotifier assignmentNotifier,
+                                   DispatchEventStore eventStore,
+                                   DispatchMetrics metrics,
+                                   PlatformTransactionManager transactionManager) {
         this.requestRepository = requestRepository;
+        this.archiveRepository = archiveRepository;
         this.userService = userService;
         this.ambulanceService = ambulanceService;
         this.ambulanceRepository = ambulanceRepository;
+        this.pendingQueue = pendingQueue;
+        this.reportAggregator = reportAggregator;
+        this.responseTimes = responseTimes;
+        this.assignmentNotifier = assignmentNotifier;
+        this.eventStore = eventStore;
+        this.metrics = metrics;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Creates a new emergency request and auto-assigns the closest available ambulance.
+     * Requests without a pickup location are dispatched relative to the home base.
+     * If no unit is free the request is queued by priority (MEDIUM when not given).
+     */
+    @Transactional
+    public EmergencyRequest createAndAssignRequest(Long userId, String patientDetails, String destination,
+                                                   Double pickupLatitude, Double pickupLongitude,
+                                                   RequestPriority priority) {
+        return metrics.time(DispatchMetrics.Operation.CREATE_REQUEST, () -> dispatchNewRequest(
+                userId, patientDetails, destination, pickupLatitude, pickupLongitude, priority,
+                null, LocalDateTime.now()));
     }
 
     /**
-     * Creates a new emergency request and auto-assigns an ambulance if available.
+     * Creates and dispatches requests accepted by {@link IntakePipeline}, in the given
+     * order, in one transaction. A record that fails validation is rejected without
+     * affecting the rest; any other failure rolls back the whole batch.
      */
     @Transactional
-    public EmergencyRequest createAndAssignRequest(Long userId, String patientDetails, String destination) {
+    public List<IntakeStatus> dispatchIntakes(List<IntakeRecord> intakes) {
+        List<IntakeStatus> results = new ArrayList<>(intakes.size());
+        for (IntakeRecord intake : intakes) {
+            try {
+                EmergencyRequest request = metrics.time(DispatchMetrics.Operation.CREATE_REQUEST, () -> dispatchNewRequest(
+                        intake.userId(), intake.patientDetails(), intake.destination(),
+                        intake.pickupLatitude(), intake.pickupLongitude(), intake.priority(),
+                        intake.intakeId(), intake.receivedAt()));
+                results.add(IntakeStatus.dispatched(intake.intakeId(), intake.receivedAt(), summarize(request)));
+            } catch (IllegalArgumentException e) {
+                results.add(IntakeStatus.rejected(intake.intakeId(), intake.receivedAt(), e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    private EmergencyRequest dispatchNewRequest(Long userId, String patientDetails, String destination,
+                                                Double pickupLatitude, Double pickupLongitude,
+                                                RequestPriority priority, String intakeId, LocalDateTime requestTime) {
         User user = userService.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found with ID: " + userId));
-
-        List<Ambulance> availableAmbulances = ambulanceService.findAvailableAmbulances();
-        if (availableAmbulances.isEmpty()) {
-            return saveNewRequest(user, null, "PENDING", patientDetails, destination);
+        if ((pickupLatitude == null) != (pickupLongitude == null)) {
+            throw new IllegalArgumentException("Pickup location needs both latitude and longitude");
         }
 
-        Ambulance assignedAmbulance = availableAmbulances.get(0);
+        RequestPriority triage = priority != null ? priority : RequestPriority.MEDIUM;
+
+        double searchLatitude = pickupLatitude != null ? pickupLatitude : BASE_LATITUDE;
+        double searchLongitude = pickupLongitude != null ? pickupLongitude : BASE_LONGITUDE;
+
+        DispatchPhaseEvent lookup = DispatchPhaseEvent.start(DispatchPhaseEvent.FIND_UNIT);
+        Optional<Ambulance> claimed = ambulanceService.claimNearestAvailable(searchLatitude, searchLongitude);
+        lookup.finish(null, claimed.map(Ambulance::getId).orElse(null));
+
+        DispatchPhaseEvent save = DispatchPhaseEvent.start(DispatchPhaseEvent.SAVE_REQUEST);
+        if (claimed.isEmpty()) {
+            EmergencyRequest pending = saveNewRequest(user, null, "PENDING", patientDetails, destination,
+                    pickupLatitude, pickupLongitude, triage, intakeId, requestTime);
+            save.finish(pending.getId(), null);
+            eventStore.append(DispatchEvent.requested(pending.getId(), pending.getPriority(), requestTime));
+            // Only queue once committed, so a unit freed meanwhile cannot pick an uncommitted row.
+            // A unit freed since the failed claim found the queue without this request, so look again.
+            TransactionHooks.afterCommit(() -> {
+                pendingQueue.add(pending);
+                ambulanceService.findNearestAvailable(searchLatitude, searchLongitude, 1)
+                        .forEach(nearby -> assignWaitingRequest(nearby.ambulance().getId()));
+            });
+            return pending;
+        }
 
-        assignedAmbulance = ambulanceService.updateStatusAndLocation(
-                assignedAmbulance.getId(),
-                AmbulanceStatus.EN_ROUTE,
-                assignedAmbulance.getLatitude(),
-                assignedAmbulance.getLongitude()
-        );
+        Ambulance assignedAmbulance = claimed.get();
 
-        EmergencyRequest newRequest = saveNewRequest(user, assignedAmbulance, "ASSIGNED", patientDetails, destination);
+        EmergencyRequest newRequest = saveNewRequest(user, assignedAmbulance, "ASSIGNED", patientDetails, destination,
+                pickupLatitude, pickupLongitude, triage, intakeId, requestTime);
         newRequest.setStartTime(LocalDateTime.now());
-        return requestRepository.save(newRequest);
+        eventStore.append(DispatchEvent.requested(newRequest.getId(), newRequest.getPriority(), requestTime));
+        eventStore.append(DispatchEvent.assigned(newRequest.getId(), assignedAmbulance.getId(), requestTime,
+                newRequest.getStartTime()));
+        TransactionHooks.afterCommit(() -> assignmentNotifier.publish(assignedAmbulance.getId(), newRequest));
+        EmergencyRequest saved = requestRepository.save(newRequest);
+        save.finish(saved.getId(), assignedAmbulance.getId());
+        return saved;
     }
 
-    private EmergencyRequest saveNewRequest(User user, Ambulance ambulance, String status, String patientDetails, String destination) {
+    private EmergencyRequest saveNewRequest(User user, Ambulance ambulance, String status, String patientDetails,
+                                            String destination, Double pickupLatitude, Double pickupLongitude,
+                                            RequestPriority priority, String intakeId, LocalDateTime requestTime) {
         EmergencyRequest request = new EmergencyRequest();
         request.setUser(user);
-        request.setAmbulance(ambulance);
-        request.setRequestTime(LocalDateTime.now());
+        // Registry snapshots are detached, so link the managed reference instead
+        request.setAmbulance(ambulance != null ? ambulanceRepository.getReferenceById(ambulance.getId()) : null);
+        request.setRequestTime(requestTime);
+        request.setIntakeId(intakeId);
         request.setStatus(status);
         request.setPatientDetails(patientDetails);
         request.setDestination(destination);
+        request.setPickupLatitude(pickupLatitude);
+        request.setPickupLongitude(pickupLongitude);
+        request.setPriority(priority.name());
         return requestRepository.save(request);
     }
 
@@ -82,28 +189,81 @@ public class EmergencyRequestService {
      */
     @Transactional
     public EmergencyRequest completeRequest(Long requestId) {
-        EmergencyRequest request = requestRepository.findById(requestId)
+        return metrics.time(DispatchMetrics.Operation.COMPLETE_REQUEST, () -> completeAndReassign(requestId));
+    }
+
+    private EmergencyRequest completeAndReassign(Long requestId) {
+        EmergencyRequest request = requestRepository.findWithUserById(requestId)
                 .orElseThrow(() -> new IllegalArgumentException("Request not found with ID: " + requestId));
 
         Ambulance completedAmbulance = request.getAmbulance();
 
         if (!"COMPLETED".equals(request.getStatus()) && completedAmbulance != null) {
+            String previousStatus = request.getStatus();
             request.setStatus("COMPLETED");
             request.setEndTime(LocalDateTime.now());
+            eventStore.append(DispatchEvent.completed(request.getId(), completedAmbulance.getId(), previousStatus,
+                    request.getStartTime(), request.getEndTime()));
+            TransactionHooks.afterCommit(() -> assignmentNotifier.completed(completedAmbulance.getId(), request.getId()));
 
-            ambulanceService.updateStatusAndLocation(
+            DispatchPhaseEvent release = DispatchPhaseEvent.start(DispatchPhaseEvent.RELEASE_UNIT);
+            Ambulance freedAmbulance = ambulanceService.updateStatusAndLocation(
                     completedAmbulance.getId(),
                     AmbulanceStatus.AVAILABLE,
                     BASE_LATITUDE,
                     BASE_LONGITUDE
             );
+            release.finish(requestId, completedAmbulance.getId());
 
-            assignPendingRequest(completedAmbulance);
+            DispatchPhaseEvent reassign = DispatchPhaseEvent.start(DispatchPhaseEvent.REASSIGN_PENDING);
+            Long reassignedId = assignPendingRequest(freedAmbulance);
+            reassign.finish(reassignedId, freedAmbulance.getId());
         }
 
         return requestRepository.save(request);
     }
 
+    /**
+     * Gives a unit that has just become AVAILABLE to the most urgent waiting request,
+     * however it was freed: a completion, device telemetry, a status update or a
+     * management save.
+     */
+    @EventListener
+    public void onDispatchEvent(DispatchEvent event) {
+        if (DispatchEvent.UNIT_STATUS.equals(event.getType())
+                && AmbulanceStatus.AVAILABLE.name().equals(event.getStatus())) {
+            assignWaitingRequest(event.getAmbulanceId());
+        }
+    }
+
+    /**
+     * Assigns the most urgent queued request to the unit if it is still AVAILABLE.
+     * Runs after another transaction has committed, so a failure here is logged and
+     * leaves the request queued for the next freed unit.
+     */
+    private void assignWaitingRequest(Long ambulanceId) {
+        if (pendingQueue.size() == 0) {
+            return;
+        }
+        Optional<Ambulance> unit = ambulanceService.findById(ambulanceId)
+                .filter(ambulance -> ambulance.getStatus() == AmbulanceStatus.AVAILABLE);
+        if (unit.isEmpty()) {
+            return;
+        }
+        try {
+            newTransaction.executeWithoutResult(status -> assignPendingRequest(unit.get()));
+        } catch (RuntimeException e) {
+            log.warn("Could not assign a waiting request to ambulance {}", ambulanceId, e);
+        }
+    }
+
+    /**
+     * Every recorded transition of a request, oldest first.
+     */
+    public List<DispatchEvent> findHistory(Long requestId) {
+        return eventStore.historyOf(requestId);
+    }
+
     /**
      * Finds emergency requests by status.
      */
@@ -112,73 +272,145 @@ public class EmergencyRequestService {
     }
 
     /**
-     * Finds the oldest PENDING request and assigns it to a newly available ambulance.
+     * Requests in any of the given statuses (any status when empty) with an id above
+     * {@code afterId}, by id. One query, with requester and unit joined in; listings that
+     * include COMPLETED also read the same page of the archive and merge the two by id.
+     */
+    public KeysetPage<RequestSummary> findPage(Collection<String> statuses, long afterId, int limit) {
+        Limit rows = Limit.of(limit + 1);
+        List<RequestSummary> page = statuses.isEmpty()
+                ? requestRepository.findPageAfter(afterId, rows)
+                : requestRepository.findPageByStatusAfter(statuses, afterId, rows);
+        if (statuses.isEmpty() || statuses.contains("COMPLETED")) {
+            page = mergeById(page, archiveRepository.findPageAfter(afterId, rows), limit + 1);
+        }
+        return KeysetPage.of(page, limit, RequestSummary::id, Function.identity());
+    }
+
+    /**
+     * The first {@code max} summaries of two id-ordered lists, by id. An archived request
+     * keeps its id, so the two never overlap.
      */
-    private void assignPendingRequest(Ambulance availableAmbulance) {
-        Optional<EmergencyRequest> pendingRequestOpt =
-                requestRepository.findTopByStatusOrderByRequestTimeAsc("PENDING");
+    private static List<RequestSummary> mergeById(List<RequestSummary> live, List<RequestSummary> archived, int max) {
+        if (archived.isEmpty()) {
+            return live;
+        }
+        List<RequestSummary> merged = new ArrayList<>(Math.min(max, live.size() + archived.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < max && (i < live.size() || j < archived.size())) {
+            if (j == archived.size() || (i < live.size() && live.get(i).id() < archived.get(j).id())) {
+                merged.add(live.get(i++));
+            } else {
+                merged.add(archived.get(j++));
+            }
+        }
+        return merged;
+    }
 
-        if (pendingRequestOpt.isPresent()) {
-            EmergencyRequest pendingRequest = pendingRequestOpt.get();
+    /**
+     * Summarizes a request returned by this service. Its user is already loaded; the unit
+     * is read from the in-memory fleet, so this never queries the database.
+     */
+    public RequestSummary summarize(EmergencyRequest request) {
+        Ambulance unit = request.getAmbulance() != null
+                ? ambulanceService.findById(request.getAmbulance().getId()).orElse(null)
+                : null;
+        return RequestSummary.of(request, unit);
+    }
 
-            pendingRequest.setAmbulance(availableAmbulance);
-            pendingRequest.setStatus("ASSIGNED");
-            pendingRequest.setStartTime(LocalDateTime.now());
-            requestRepository.save(pendingRequest);
+    /**
+     * All requests in the given statuses, read lazily in pages of {@code batchSize}.
+     */
+    public Stream<RequestSummary> streamAll(Collection<String> statuses, int batchSize) {
+        return KeysetPage.streamAll(afterId -> findPage(statuses, afterId, batchSize));
+    }
 
-            ambulanceService.updateStatusAndLocation(
-                    availableAmbulance.getId(),
-                    AmbulanceStatus.EN_ROUTE,
-                    availableAmbulance.getLatitude(),
-                    availableAmbulance.getLongitude()
-            );
+    /**
+     * Takes the most urgent PENDING request from the in-memory queue and assigns it
+     * to a newly available ambulance. No database read is needed to pick the request.
+     * Returns the id of the request that was assigned, or null if none was.
+     */
+    private Long assignPendingRequest(Ambulance availableAmbulance) {
+        Optional<PendingRequestQueue.Entry> next = pendingQueue.poll();
+        if (next.isEmpty()) {
+            return null;
+        }
 
-            System.out.println(">>> PENDING request ID " + pendingRequest.getId() +
-                    " auto-assigned to ambulance " + availableAmbulance.getVehicleNo() + " <<<");
+        // A concurrent dispatch may have taken the unit since it was freed
+        if (ambulanceService.claim(availableAmbulance.getId()).isEmpty()) {
+            pendingQueue.add(next.get());
+            return null;
         }
+
+        do {
+            PendingRequestQueue.Entry entry = next.get();
+            LocalDateTime startTime = LocalDateTime.now();
+            int assigned = requestRepository.assignIfPending(
+                    entry.requestId(),
+                    ambulanceRepository.getReferenceById(availableAmbulance.getId()),
+                    startTime
+            );
+            if (assigned == 1) {
+                EmergencyRequest assignedRequest = requestRepository.findById(entry.requestId()).orElseThrow();
+                eventStore.append(DispatchEvent.assigned(entry.requestId(), availableAmbulance.getId(),
+                        entry.requestTime(), startTime));
+                TransactionHooks.afterRollback(() -> pendingQueue.add(entry));
+                TransactionHooks.afterCommit(() -> {
+                    metrics.pendingRequestAssigned();
+                    assignmentNotifier.publish(availableAmbulance.getId(), assignedRequest);
+                });
+                return entry.requestId();
+            }
+            // Stale entry: the request was assigned or completed elsewhere
+        } while ((next = pendingQueue.poll()).isPresent());
+
+        // Nothing left to assign: hand the claimed unit back
+        ambulanceService.updateStatusAndLocation(
+                availableAmbulance.getId(),
+                AmbulanceStatus.AVAILABLE,
+                availableAmbulance.getLatitude(),
+                availableAmbulance.getLongitude()
+        );
+        return null;
     }
 
     /**
      * Generates a map of key performance indicators (KPIs) for the dispatch system.
+     * Served from the running counters in {@link ReportAggregator}; no table is read.
      */
-    @Transactional(readOnly = true)
     public Map<String, String> generateReports() {
         Map<String, String> reportData = new HashMap<>();
+        ReportAggregator.Snapshot kpis = reportAggregator.snapshot();
 
-        long totalRequests = requestRepository.count();
-        long completedRequests = requestRepository.countByStatus("COMPLETED");
-        long pendingRequests = requestRepository.countByStatus("PENDING");
-        long assignedRequests = requestRepository.countByStatus("ASSIGNED");
+        reportData.put("totalRequests", String.valueOf(kpis.totalRequests()));
+        reportData.put("completedRequests", String.valueOf(kpis.completedRequests()));
+        reportData.put("pendingRequests", String.valueOf(kpis.pendingRequests()));
+        reportData.put("assignedRequests", String.valueOf(kpis.assignedRequests()));
 
-        reportData.put("totalRequests", String.valueOf(totalRequests));
-        reportData.put("completedRequests", String.valueOf(completedRequests));
-        reportData.put("pendingRequests", String.valueOf(pendingRequests));
-        reportData.put("assignedRequests", String.valueOf(assignedRequests));
-
-        reportData.put("averageDuration", calculateAverageDuration(completedRequests));
-        reportData.put("busiestAmbulance", findBusiestAmbulance());
+        reportData.put("averageDuration", formatAverageDuration(kpis));
+        reportData.put("busiestAmbulance", formatBusiestAmbulance(kpis));
 
         return reportData;
     }
 
     /**
-     * Helper method to calculate average completion time for all completed requests.
+     * Rolling-window p50/p95/p99 of assignment delay and service time.
+     * Served from the in-memory histograms in {@link ResponseTimeTracker}; no table is read.
      */
-    private String calculateAverageDuration(long completedRequests) {
-        if (completedRequests == 0) {
-            return DEFAULT_DURATION;
-        }
-
-        List<EmergencyRequest> completed = requestRepository
-                .findByStatusAndStartTimeIsNotNullAndEndTimeIsNotNull("COMPLETED");
+    public ResponseTimeReport generateResponseTimeReport() {
+        return responseTimes.report();
+    }
 
-        long totalSeconds = 0;
-        for (EmergencyRequest request : completed) {
-            Duration duration = Duration.between(request.getStartTime(), request.getEndTime());
-            totalSeconds += duration.getSeconds();
+    /**
+     * Helper method to format the average completion time of all completed requests.
+     */
+    private String formatAverageDuration(ReportAggregator.Snapshot kpis) {
+        if (kpis.durationCount() == 0) {
+            return DEFAULT_DURATION;
         }
 
-        long averageSeconds = totalSeconds / completedRequests;
+        long averageSeconds = kpis.durationSecondsSum() / kpis.durationCount();
         long minutes = averageSeconds / 60;
         long seconds = averageSeconds % 60;
 
@@ -186,27 +418,20 @@ public class EmergencyRequestService {
     }
 
     /**
-     * ✅ Updated Helper method using JPQL to find the busiest ambulance (by completed request count).
+     * Helper method to describe the ambulance with the most completed requests.
+     * The vehicle number comes from the in-memory fleet registry.
      */
-    private String findBusiestAmbulance() {
-        // The JPQL query now returns a list of [ambulance_id, request_count]
-        List<Object[]> result = requestRepository.findBusiestAmbulanceIdJPQL();
-
-        if (result.isEmpty()) {
+    private String formatBusiestAmbulance(ReportAggregator.Snapshot kpis) {
+        Long ambulanceId = kpis.busiestAmbulanceId();
+        if (ambulanceId == null) {
             return "N/A";
         }
 
-        // First element is the busiest
-        Object[] busiestData = result.get(0);
-
-        Long ambulanceId = (Long) busiestData[0];
-        Long requestCount = ((Number) busiestData[1]).longValue();
-
-        Optional<Ambulance> ambulanceOpt = ambulanceRepository.findById(ambulanceId);
+        long requestCount = kpis.busiestAmbulanceCompletions();
+        Optional<Ambulance> ambulanceOpt = ambulanceService.findById(ambulanceId);
 
         if (ambulanceOpt.isPresent()) {
-            Ambulance ambulance = ambulanceOpt.get();
-            return String.format("%s (%d requests)", ambulance.getVehicleNo(), requestCount);
+            return String.format("%s (%d requests)", ambulanceOpt.get().getVehicleNo(), requestCount);
         } else {
             return String.format("Ambulance ID %d (%d requests)", ambulanceId, requestCount);
         }
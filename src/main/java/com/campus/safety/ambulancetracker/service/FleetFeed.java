@@ -0,0 +1,167 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.dto.FleetDelta;
+import com.campus.safety.ambulancetracker.model.Ambulance;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes fleet status and position changes to open dashboards as Server-Sent Events.
+ *
+ * Each subscriber has a pending map keyed by ambulance id, so a unit that moves
+ * several times before the browser catches up is sent once with its latest state.
+ * Producers only write into those maps; a small shared pool does the network writes,
+ * at most one drain per subscriber at a time. A slow browser therefore only delays
+ * itself, and its backlog is bounded by the fleet size. In virtual-thread mode the
+ * senders are virtual too; the pool size still caps how many writes run at once.
+ */
+@Component
+public class FleetFeed implements FleetStateListener {
+
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    private final FleetRegistry fleetRegistry;
+    private final ExecutorService senders;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    public FleetFeed(FleetRegistry fleetRegistry,
+                     @Value("${fleet.feed-threads:4}") int senderThreads,
+                     @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.fleetRegistry = fleetRegistry;
+        this.senders = Executors.newFixedThreadPool(senderThreads, virtualThreads
+                ? Thread.ofVirtual().name("fleet-feed-", 0).factory()
+                : Thread.ofPlatform().name("fleet-feed-", 0).daemon().factory());
+        fleetRegistry.subscribe(this);
+    }
+
+    /**
+     * Opens a stream for one browser. The current state of every unit is sent first,
+     * followed by each change as it happens.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = newEmitter();
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        // Read after registering, and never overwrite a change that arrived in between
+        for (Ambulance ambulance : fleetRegistry.findAll()) {
+            subscriber.pending.putIfAbsent(ambulance.getId(), FleetDelta.of(ambulance));
+        }
+        schedule(subscriber);
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void onFleetChange(Ambulance previous, Ambulance current) {
+        if (subscribers.isEmpty() || !isVisibleChange(previous, current)) {
+            return;
+        }
+        FleetDelta delta = current != null ? FleetDelta.of(current) : FleetDelta.removed(previous.getId());
+        for (Subscriber subscriber : subscribers) {
+            subscriber.pending.put(delta.id(), delta);
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Keeps idle connections open through proxies and detects browsers that went away.
+     */
+    @Scheduled(fixedDelayString = "${fleet.feed-heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            schedule(subscriber);
+        }
+    }
+
+    SseEmitter newEmitter() {
+        return new SseEmitter(EMITTER_TIMEOUT_MS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            do {
+                Iterator<Map.Entry<Long, FleetDelta>> it = subscriber.pending.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<Long, FleetDelta> entry = it.next();
+                    FleetDelta delta = entry.getValue();
+                    // Keep a newer value that replaced this one while we were sending
+                    subscriber.pending.remove(entry.getKey(), delta);
+                    subscriber.emitter.send(SseEmitter.event().name("fleet").data(delta));
+                }
+                if (subscriber.heartbeatDue) {
+                    subscriber.heartbeatDue = false;
+                    subscriber.emitter.send(SseEmitter.event().comment("keep-alive"));
+                }
+                subscriber.draining.set(false);
+                // Re-check: a producer may have added work after the loop but before the flag was cleared
+            } while (!subscriber.pending.isEmpty() && subscriber.draining.compareAndSet(false, true));
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(subscriber);
+            subscriber.draining.set(false);
+            subscriber.emitter.completeWithError(e);
+        }
+    }
+
+    private static boolean isVisibleChange(Ambulance previous, Ambulance current) {
+        if (previous == null || current == null) {
+            return true;
+        }
+        return previous.getStatus() != current.getStatus()
+                || !Objects.equals(previous.getLatitude(), current.getLatitude())
+                || !Objects.equals(previous.getLongitude(), current.getLongitude());
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Map<Long, FleetDelta> pending = new ConcurrentHashMap<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.model.Ambulance;
+import com.campus.safety.ambulancetracker.model.AmbulanceStatus;
+import com.campus.safety.ambulancetracker.repository.AmbulanceLocationWriter;
+import com.campus.safety.ambulancetracker.repository.AmbulanceRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Authoritative in-memory view of the fleet, keyed by ambulance id.
+ *
+ * Every entry is a private snapshot that is replaced atomically on update and
+ * copied on the way out, so callers can never mutate shared state.
+ * Position changes are coalesced per ambulance and written to the
+ * {@code ambulances} table in periodic batches; status transitions are
+ * persisted synchronously by {@link AmbulanceService}.
+ */
+@Component
+public class FleetRegistry {
+
+    private static final Comparator<Ambulance> BY_ID = Comparator.comparing(Ambulance::getId);
+
+    private final AmbulanceRepository ambulanceRepository;
+    private final AmbulanceLocationWriter locationWriter;
+
+    private final Map<Long, Ambulance> fleet = new ConcurrentHashMap<>();
+
+    // Ids whose position changed since the last flush; repeated pings collapse into one entry
+    private final Set<Long> dirtyLocations = ConcurrentHashMap.newKeySet();
+    // One flush at a time, so a flush that returns knows every earlier position is written
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final List<FleetStateListener> listeners = new CopyOnWriteArrayList<>();
+
+    public FleetRegistry(AmbulanceRepository ambulanceRepository, AmbulanceLocationWriter locationWriter) {
+        this.ambulanceRepository = ambulanceRepository;
+        this.locationWriter = locationWriter;
+    }
+
+    /**
+     * Loads the whole fleet from the database once the application (and its seed data) is ready.
+     * Runs before any other startup listener so they all see the loaded fleet.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void reload() {
+        for (Ambulance ambulance : ambulanceRepository.findAll()) {
+            replace(ambulance.getId(), snapshotOf(ambulance));
+        }
+    }
+
+    /**
+     * Registers a listener for all subsequent changes. Listeners that need the current
+     * state should read {@link #findAll()} after subscribing.
+     */
+    public void subscribe(FleetStateListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Re-reads a single ambulance from the database, e.g. after a rolled back transition.
+     */
+    public void refresh(Long ambulanceId) {
+        Optional<Ambulance> persisted = ambulanceRepository.findById(ambulanceId);
+        replace(ambulanceId, persisted.map(FleetRegistry::snapshotOf).orElse(null));
+    }
+
+    public Optional<Ambulance> findById(Long ambulanceId) {
+        Ambulance snapshot = fleet.get(ambulanceId);
+        return snapshot == null ? Optional.empty() : Optional.of(snapshotOf(snapshot));
+    }
+
+    public boolean contains(Long ambulanceId) {
+        return fleet.containsKey(ambulanceId);
+    }
+
+    public List<Ambulance> findAll() {
+        List<Ambulance> result = new ArrayList<>(fleet.size());
+        for (Ambulance snapshot : fleet.values()) {
+            result.add(snapshotOf(snapshot));
+        }
+        result.sort(BY_ID);
+        return result;
+    }
+
+    public List<Ambulance> findByStatus(AmbulanceStatus status) {
+        List<Ambulance> result = new ArrayList<>();
+        for (Ambulance snapshot : fleet.values()) {
+            if (snapshot.getStatus() == status) {
+                result.add(snapshotOf(snapshot));
+            }
+        }
+        result.sort(BY_ID);
+        return result;
+    }
+
+    /**
+     * Number of units currently in {@code status}, without copying any snapshot.
+     */
+    public int countByStatus(AmbulanceStatus status) {
+        int count = 0;
+        for (Ambulance snapshot : fleet.values()) {
+            if (snapshot.getStatus() == status) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Inserts or replaces the snapshot of a freshly persisted ambulance.
+     */
+    public Ambulance put(Ambulance ambulance) {
+        Ambulance snapshot = snapshotOf(ambulance);
+        replace(snapshot.getId(), snapshot);
+        return snapshotOf(snapshot);
+    }
+
+    /**
+     * Atomically applies a status/position update to the snapshot of the given ambulance.
+     * Updates older than the last accepted reading are dropped so out-of-order pings
+     * cannot move a unit backwards. A null timestamp marks a server-side transition,
+     * which is stamped with the current time and never dropped.
+     * Returns empty if the ambulance is not known.
+     */
+    public Optional<FleetUpdate> apply(Long ambulanceId, AmbulanceStatus status,
+                                       Double latitude, Double longitude, LocalDateTime timestamp) {
+        boolean authoritative = timestamp == null;
+        LocalDateTime stamp = authoritative ? LocalDateTime.now() : timestamp;
+        FleetUpdate[] outcome = new FleetUpdate[1];
+        fleet.computeIfPresent(ambulanceId, (id, current) -> {
+            if (!authoritative && current.getLastUpdated() != null && stamp.isBefore(current.getLastUpdated())) {
+                outcome[0] = new FleetUpdate(current, current, false);
+                return current;
+            }
+            Ambulance next = snapshotOf(current);
+            if (current.getStatus() != status) {
+                // Mirrors the version bump of the synchronous status write
+                next.setVersion(nextVersion(current));
+            }
+            next.setStatus(status);
+            next.setLatitude(latitude);
+            next.setLongitude(longitude);
+            next.setLastUpdated(stamp);
+            outcome[0] = new FleetUpdate(current, next, true);
+            notifyListeners(current, next);
+            return next;
+        });
+        if (outcome[0] == null) {
+            return Optional.empty();
+        }
+        if (outcome[0].applied()) {
+            dirtyLocations.add(ambulanceId);
+        }
+        FleetUpdate result = outcome[0];
+        return Optional.of(new FleetUpdate(snapshotOf(result.previous()), snapshotOf(result.current()), result.applied()));
+    }
+
+    /**
+     * Atomically moves an ambulance from {@code expected} to {@code status}, keeping its position.
+     * Only one of several concurrent callers can succeed for the same ambulance;
+     * the others get empty. The per-entry lock of the map is the only lock taken.
+     */
+    public Optional<FleetUpdate> compareAndSetStatus(Long ambulanceId, AmbulanceStatus expected, AmbulanceStatus status) {
+        FleetUpdate[] outcome = new FleetUpdate[1];
+        fleet.computeIfPresent(ambulanceId, (id, current) -> {
+            if (current.getStatus() != expected) {
+                return current;
+            }
+            Ambulance next = snapshotOf(current);
+            next.setStatus(status);
+            next.setLastUpdated(LocalDateTime.now());
+            next.setVersion(nextVersion(current));
+            outcome[0] = new FleetUpdate(current, next, true);
+            notifyListeners(current, next);
+            return next;
+        });
+        if (outcome[0] == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new FleetUpdate(snapshotOf(outcome[0].previous()), snapshotOf(outcome[0].current()), true));
+    }
+
+    /**
+     * Returns the current status without copying the snapshot.
+     */
+    public Optional<AmbulanceStatus> statusOf(Long ambulanceId) {
+        Ambulance snapshot = fleet.get(ambulanceId);
+        return snapshot == null ? Optional.empty() : Optional.of(snapshot.getStatus());
+    }
+
+    public int pendingLocationWrites() {
+        return dirtyLocations.size();
+    }
+
+    /**
+     * Writes all coalesced position changes to the database in one JDBC batch.
+     * Waits for a flush already in progress, whose ids are no longer marked dirty but
+     * may not be written yet, so on return every position accepted before the call is
+     * in the database ({@link TelemetryLog#checkpoint()} relies on this).
+     */
+    @Scheduled(fixedDelayString = "${fleet.location-flush-interval-ms:2000}")
+    public void flushLocations() {
+        flushLock.lock();
+        try {
+            if (dirtyLocations.isEmpty()) {
+                return;
+            }
+            List<Ambulance> batch = new ArrayList<>();
+            Iterator<Long> it = dirtyLocations.iterator();
+            while (it.hasNext()) {
+                Long id = it.next();
+                // Remove before reading: a ping arriving after this point marks the id dirty again
+                it.remove();
+                Ambulance snapshot = fleet.get(id);
+                if (snapshot != null) {
+                    batch.add(snapshot);
+                }
+            }
+            try {
+                locationWriter.batchUpdateLocations(batch);
+            } catch (RuntimeException e) {
+                // Keep the positions queued so the next flush retries them
+                batch.forEach(a -> dirtyLocations.add(a.getId()));
+                throw e;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushLocations();
+    }
+
+    private void replace(Long ambulanceId, Ambulance next) {
+        fleet.compute(ambulanceId, (id, current) -> {
+            if (current != null || next != null) {
+                notifyListeners(current, next);
+            }
+            return next;
+        });
+    }
+
+    private void notifyListeners(Ambulance previous, Ambulance current) {
+        for (FleetStateListener listener : listeners) {
+            listener.onFleetChange(previous, current);
+        }
+    }
+
+    /**
+     * Detached copy of an ambulance without its lazy request collection.
+     */
+    static Ambulance snapshotOf(Ambulance source) {
+        Ambulance copy = new Ambulance();
+        copy.setId(source.getId());
+        copy.setVehicleNo(source.getVehicleNo());
+        copy.setDriverName(source.getDriverName());
+        copy.setContactNo(source.getContactNo());
+        copy.setStatus(source.getStatus());
+        copy.setLatitude(source.getLatitude());
+        copy.setLongitude(source.getLongitude());
+        copy.setLastUpdated(source.getLastUpdated());
+        copy.setVersion(source.getVersion());
+        return copy;
+    }
+
+    private static Long nextVersion(Ambulance current) {
+        return current.getVersion() != null ? current.getVersion() + 1 : 1L;
+    }
+}
@@ -0,0 +1,19 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.model.Ambulance;
+
+/**
+ * Receives every change to the {@link FleetRegistry}.
+ *
+ * Called while the registry holds the entry for that ambulance, so changes to one
+ * unit arrive in order. Implementations must be quick, must not block and must not
+ * call back into the registry. The snapshots are shared and must not be modified.
+ */
+public interface FleetStateListener {
+
+    /**
+     * @param previous state before the change, or null if the ambulance was just added
+     * @param current  state after the change, or null if the ambulance was removed
+     */
+    void onFleetChange(Ambulance previous, Ambulance current);
+}
@@ -0,0 +1,15 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.model.Ambulance;
+
+/**
+ * Outcome of applying one update to the {@link FleetRegistry}.
+ * When {@code applied} is false the update was older than the current state
+ * and {@code current} is the unchanged snapshot.
+ */
+public record FleetUpdate(Ambulance previous, Ambulance current, boolean applied) {
+
+    public boolean statusChanged() {
+        return applied && previous.getStatus() != current.getStatus();
+    }
+}
@@ -0,0 +1,136 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.dto.RecordingStatus;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Starts and stops an in-process Java Flight Recorder recording, so the dispatch
+ * pipeline can be profiled in production without attaching an external tool.
+ *
+ * At most one recording exists at a time; starting a new one discards the last.
+ * Each recording stops by itself after its duration and never buffers more than
+ * the configured size on disk, so a forgotten recording cannot fill the disk.
+ * Besides the chosen JDK settings it always includes {@link DispatchPhaseEvent},
+ * {@link LocationUpdateEvent} and {@link TelemetrySyncEvent}.
+ */
+@Component
+public class FlightRecorderService {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightRecorderService.class);
+
+    private final Duration maxDuration;
+    private final long maxSizeBytes;
+
+    // Guarded by this
+    private Recording recording;
+    private String settings;
+
+    public FlightRecorderService(@Value("${diagnostics.jfr.max-duration-seconds:1800}") long maxDurationSeconds,
+                                 @Value("${diagnostics.jfr.max-size-bytes:268435456}") long maxSizeBytes) {
+        this.maxDuration = Duration.ofSeconds(maxDurationSeconds);
+        this.maxSizeBytes = maxSizeBytes;
+    }
+
+    /**
+     * Starts a recording with one of the JDK's settings files ("default" or "profile").
+     * The duration is capped at {@code diagnostics.jfr.max-duration-seconds}.
+     */
+    public synchronized RecordingStatus start(String settingsName, long durationSeconds) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("A recording is already running");
+        }
+        if (durationSeconds < 1) {
+            throw new IllegalArgumentException("Duration must be at least one second");
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settingsName);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown JFR settings: " + settingsName);
+        }
+
+        Recording next = new Recording(configuration);
+        next.setName("ambulance-tracker");
+        next.enable(DispatchPhaseEvent.class);
+        next.enable(LocationUpdateEvent.class);
+        next.enable(TelemetrySyncEvent.class);
+        next.setToDisk(true);
+        next.setMaxSize(maxSizeBytes);
+        Duration requested = Duration.ofSeconds(durationSeconds);
+        next.setDuration(requested.compareTo(maxDuration) < 0 ? requested : maxDuration);
+        next.start();
+
+        if (recording != null) {
+            recording.close();
+        }
+        recording = next;
+        settings = settingsName;
+        log.info("JFR recording {} started ({}, {}s max)", next.getId(), settingsName,
+                next.getDuration().toSeconds());
+        return describe();
+    }
+
+    /**
+     * Stops the running recording. Stopping one that already ended is a no-op.
+     */
+    public synchronized RecordingStatus stop() {
+        if (recording == null) {
+            throw new IllegalArgumentException("No recording has been started");
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+            log.info("JFR recording {} stopped", recording.getId());
+        }
+        return describe();
+    }
+
+    public synchronized Optional<RecordingStatus> status() {
+        return recording != null ? Optional.of(describe()) : Optional.empty();
+    }
+
+    /**
+     * Writes the recording so far to a new temporary file, which the caller must delete.
+     * A running recording keeps running.
+     */
+    public synchronized Path dump() throws IOException {
+        if (recording == null) {
+            throw new IllegalArgumentException("No recording has been started");
+        }
+        Path file = Files.createTempFile("ambulance-tracker-" + recording.getId() + "-", ".jfr");
+        try {
+            recording.dump(file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private RecordingStatus describe() {
+        return new RecordingStatus(recording.getId(), recording.getState().name(), settings,
+                recording.getStartTime(), recording.getStopTime(),
+                recording.getDuration() != null ? recording.getDuration().toSeconds() : 0, recording.getSize());
+    }
+}
@@ -0,0 +1,373 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.model.RequestPriority;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Durable log of accepted emergency requests that have not been dispatched yet.
+ *
+ * An intake is acknowledged once its record is on disk here, so it survives a crash or
+ * a database outage that happens before dispatch. Records are appended to segment files
+ * and synced with group commit, like {@link TelemetryLog}: one syncer thread forces the
+ * file while writers wait, and every writer that arrived during a sync shares the next.
+ * Each record is {@code [length][crc32][payload]}; a short or corrupt record marks a
+ * torn write and ends the segment on replay.
+ *
+ * The dispatch stage releases each record once its request is in the database or it
+ * was rejected. A segment is deleted when all of its records are released and it is no
+ * longer being written.
+ */
+@Component
+public class IntakeJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(IntakeJournal.class);
+
+    private static final String SEGMENT_PREFIX = "intake-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final RequestPriority[] PRIORITIES = RequestPriority.values();
+
+    /**
+     * A record read back on startup, with the segment it has to be released against.
+     */
+    public record Journaled(long segment, IntakeRecord record) {
+    }
+
+    private final Path directory;
+    private final long segmentBytes;
+    // Segments from here on are written by this process; only those below are recovered
+    private final long firstOwnSegment;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition synced = lock.newCondition();
+
+    // Guarded by lock
+    private long segmentIndex;
+    private FileChannel channel;
+    private long appendedSequence;
+    private long durableSequence;
+    private IOException syncFailure;
+    private boolean closed;
+    private final Map<Long, Integer> unreleased = new HashMap<>();
+
+    private final Thread syncer;
+
+    public IntakeJournal(@Value("${intake.journal.dir:data/intake}") String directory,
+                         @Value("${intake.journal.segment-bytes:16777216}") long segmentBytes) throws IOException {
+        this.directory = Path.of(directory);
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(this.directory);
+
+        // Never append to a segment that may end in a torn record; start a fresh one
+        List<Long> existing = segmentIndexes();
+        segmentIndex = existing.isEmpty() ? 0 : existing.get(existing.size() - 1) + 1;
+        firstOwnSegment = segmentIndex;
+        openSegment();
+
+        syncer = Thread.ofPlatform().name("intake-journal-sync").daemon().unstarted(this::syncLoop);
+        syncer.start();
+    }
+
+    /**
+     * Appends the record and returns the segment it went to once it is on disk.
+     */
+    public long append(IntakeRecord record) {
+        byte[] frame = frame(encode(record));
+        long segment;
+        long sequence;
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Intake journal is closed");
+            }
+            if (channel.position() + frame.length > segmentBytes) {
+                rollSegment();
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(frame);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            segment = segmentIndex;
+            unreleased.merge(segment, 1, Integer::sum);
+            sequence = ++appendedSequence;
+            appended.signal();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to the intake journal", e);
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(sequence);
+        return segment;
+    }
+
+    /**
+     * Marks one record of the segment as handled, deleting the segment when it was the last.
+     */
+    public void release(long segment) {
+        lock.lock();
+        try {
+            Integer left = unreleased.computeIfPresent(segment, (index, count) -> count > 1 ? count - 1 : null);
+            if (left == null && segment != segmentIndex) {
+                Files.deleteIfExists(segmentPath(segment));
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete intake journal segment {}: {}", segment, e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads every record left by an earlier run, oldest first. Each one counts as
+     * unreleased until {@link #release} is called for it; segments with none are deleted.
+     * Segments this run has written, including any rolled before recovery, are skipped:
+     * their records are already being dispatched.
+     */
+    public List<Journaled> recover() throws IOException {
+        List<Journaled> records = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Long index : segmentIndexes()) {
+                if (index >= firstOwnSegment) {
+                    break;
+                }
+                int count = 0;
+                for (IntakeRecord record : readSegment(segmentPath(index))) {
+                    records.add(new Journaled(index, record));
+                    count++;
+                }
+                if (count == 0) {
+                    Files.deleteIfExists(segmentPath(index));
+                } else {
+                    unreleased.merge(index, count, Integer::sum);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return records;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            appended.signal();
+            synced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        syncer.interrupt();
+        lock.lock();
+        try {
+            channel.force(false);
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitDurable(long sequence) {
+        lock.lock();
+        try {
+            while (durableSequence < sequence) {
+                if (syncFailure != null) {
+                    throw new UncheckedIOException("Intake journal sync failed", syncFailure);
+                }
+                if (closed) {
+                    throw new IllegalStateException("Intake journal closed before the record was synced");
+                }
+                try {
+                    synced.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the intake journal", e);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void syncLoop() {
+        while (true) {
+            FileChannel toForce;
+            long target;
+            lock.lock();
+            try {
+                while (appendedSequence == durableSequence && !closed) {
+                    try {
+                        appended.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closed) {
+                    return;
+                }
+                toForce = channel;
+                target = appendedSequence;
+            } finally {
+                lock.unlock();
+            }
+            // Writers that append while this runs are covered by the next round
+            try {
+                toForce.force(false);
+            } catch (IOException e) {
+                lock.lock();
+                try {
+                    // A segment rolled meanwhile was forced before it was closed
+                    if (toForce == channel || !(e instanceof java.nio.channels.ClosedChannelException)) {
+                        syncFailure = e;
+                        synced.signalAll();
+                        return;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            lock.lock();
+            try {
+                durableSequence = Math.max(durableSequence, target);
+                synced.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Called with the lock held when the current segment is full.
+     */
+    private void rollSegment() throws IOException {
+        // Records already in this segment must be durable before writers move on
+        channel.force(false);
+        channel.close();
+        long full = segmentIndex;
+        segmentIndex++;
+        openSegment();
+        if (!unreleased.containsKey(full)) {
+            Files.deleteIfExists(segmentPath(full));
+        }
+    }
+
+    private void openSegment() throws IOException {
+        channel = FileChannel.open(segmentPath(segmentIndex),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    private static byte[] frame(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return ByteBuffer.allocate(Integer.BYTES * 2 + payload.length)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .array();
+    }
+
+    static byte[] encode(IntakeRecord record) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(record.intakeId());
+            out.writeLong(record.userId());
+            out.writeUTF(record.patientDetails());
+            out.writeUTF(record.destination());
+            out.writeBoolean(record.pickupLatitude() != null);
+            if (record.pickupLatitude() != null) {
+                out.writeDouble(record.pickupLatitude());
+                out.writeDouble(record.pickupLongitude());
+            }
+            out.writeByte(record.priority().ordinal());
+            out.writeLong(record.receivedAt().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(record.receivedAt().getNano());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static IntakeRecord decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        String intakeId = in.readUTF();
+        long userId = in.readLong();
+        String patientDetails = in.readUTF();
+        String destination = in.readUTF();
+        Double latitude = null;
+        Double longitude = null;
+        if (in.readBoolean()) {
+            latitude = in.readDouble();
+            longitude = in.readDouble();
+        }
+        RequestPriority priority = PRIORITIES[in.readByte()];
+        LocalDateTime receivedAt = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        return new IntakeRecord(intakeId, userId, patientDetails, destination, latitude, longitude, priority,
+                receivedAt);
+    }
+
+    private static List<IntakeRecord> readSegment(Path path) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path));
+        List<IntakeRecord> records = new ArrayList<>();
+        CRC32 crc = new CRC32();
+        while (data.remaining() >= Integer.BYTES * 2) {
+            int length = data.getInt();
+            int checksum = data.getInt();
+            if (length <= 0 || length > data.remaining()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            data.get(payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                // Torn write at the tail of the segment
+                break;
+            }
+            records.add(decode(payload));
+        }
+        return records;
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private List<Long> segmentIndexes() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return new ArrayList<>(files
+                    .map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList());
+        }
+    }
+}
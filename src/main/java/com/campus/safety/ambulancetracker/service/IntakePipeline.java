@@ -0,0 +1,356 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.dto.IntakeStatus;
+import com.campus.safety.ambulancetracker.dto.RequestSummary;
+import com.campus.safety.ambulancetracker.model.RequestPriority;
+import com.campus.safety.ambulancetracker.repository.ArchivedRequestRepository;
+import com.campus.safety.ambulancetracker.repository.EmergencyRequestRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accepts emergency requests immediately and dispatches them in the background.
+ *
+ * Intake only validates the call, writes it to the {@link IntakeJournal} and hands it to
+ * a bounded buffer, so the caller gets an intake id as soon as the record is on disk,
+ * however far behind dispatch or the database is. A single dispatcher thread drains the
+ * buffer in batches, most urgent first, and creates each batch in one transaction; being
+ * the only writer it never races itself for the nearest unit. When the buffer is full,
+ * intake is refused rather than queued without bound.
+ *
+ * Records that were journaled but not yet dispatched when the application stopped are
+ * replayed on startup; a request already saved under its intake id is not created twice.
+ */
+@Component
+public class IntakePipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(IntakePipeline.class);
+
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final long MAX_BACKOFF_MILLIS = 5000;
+
+    private static final Comparator<Pending> DISPATCH_ORDER = Comparator
+            .comparing((Pending pending) -> pending.record().priority())
+            .thenComparing(pending -> pending.record().receivedAt());
+
+    private record Pending(long segment, IntakeRecord record) {
+    }
+
+    private final IntakeJournal journal;
+    private final EmergencyRequestService requestService;
+    private final EmergencyRequestRepository requestRepository;
+    private final ArchivedRequestRepository archiveRepository;
+    private final UserDirectory userDirectory;
+    private final UserService userService;
+    private final int batchSize;
+    private final long retentionMinutes;
+
+    private final BlockingQueue<Pending> buffer;
+    // Counts buffer slots including intakes still being journaled, so offer() never fails
+    private final Semaphore slots;
+    private final Map<String, IntakeStatus> statuses = new ConcurrentHashMap<>();
+
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+
+    public IntakePipeline(IntakeJournal journal,
+                          EmergencyRequestService requestService,
+                          EmergencyRequestRepository requestRepository,
+                          ArchivedRequestRepository archiveRepository,
+                          UserDirectory userDirectory,
+                          UserService userService,
+                          @Value("${intake.buffer-capacity:4096}") int capacity,
+                          @Value("${intake.batch-size:64}") int batchSize,
+                          @Value("${intake.status-retention-minutes:60}") long retentionMinutes) {
+        this.journal = journal;
+        this.requestService = requestService;
+        this.requestRepository = requestRepository;
+        this.archiveRepository = archiveRepository;
+        this.userDirectory = userDirectory;
+        this.userService = userService;
+        this.batchSize = batchSize;
+        this.retentionMinutes = retentionMinutes;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.slots = new Semaphore(capacity);
+        this.dispatcher = Thread.ofPlatform().name("intake-dispatcher").daemon().unstarted(this::dispatchLoop);
+    }
+
+    /**
+     * Validates and durably records a new request, returning its QUEUED status.
+     * Throws IllegalArgumentException for an invalid request and IllegalStateException
+     * when the pipeline is full.
+     */
+    public IntakeStatus submit(Long userId, String patientDetails, String destination,
+                               Double pickupLatitude, Double pickupLongitude, RequestPriority priority) {
+        validate(userId, patientDetails, destination, pickupLatitude, pickupLongitude);
+        if (!slots.tryAcquire()) {
+            throw new IllegalStateException("Intake is full, retry shortly");
+        }
+        IntakeRecord record = new IntakeRecord(UUID.randomUUID().toString(), userId, patientDetails, destination,
+                pickupLatitude, pickupLongitude, priority != null ? priority : RequestPriority.MEDIUM,
+                LocalDateTime.now());
+        long segment;
+        try {
+            segment = journal.append(record);
+        } catch (RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+        IntakeStatus status = IntakeStatus.queued(record.intakeId(), record.receivedAt());
+        statuses.put(record.intakeId(), status);
+        buffer.add(new Pending(segment, record));
+        return status;
+    }
+
+    /**
+     * Where the intake is now; falls back to the database, live table then archive,
+     * once the status has expired.
+     */
+    public Optional<IntakeStatus> status(String intakeId) {
+        IntakeStatus status = statuses.get(intakeId);
+        if (status != null) {
+            return Optional.of(status);
+        }
+        return requestRepository.findSummaryByIntakeId(intakeId)
+                .or(() -> archiveRepository.findSummaryByIntakeId(intakeId))
+                .map(summary -> IntakeStatus.dispatched(intakeId, summary.requestTime(), summary));
+    }
+
+    public int backlog() {
+        return buffer.size();
+    }
+
+    /**
+     * Starts dispatching once the fleet and queues are loaded, after replaying whatever
+     * the journal still holds.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE - 1)
+    public void start() throws IOException {
+        List<IntakeJournal.Journaled> leftover = journal.recover();
+        if (!leftover.isEmpty()) {
+            Set<String> saved = findSavedIntakeIds(
+                    leftover.stream().map(journaled -> journaled.record().intakeId()).toList());
+            int replayed = 0;
+            for (IntakeJournal.Journaled journaled : leftover) {
+                IntakeRecord record = journaled.record();
+                if (saved.contains(record.intakeId())) {
+                    journal.release(journaled.segment());
+                    continue;
+                }
+                // Recovered records may exceed the buffer; they were acknowledged and must not be dropped
+                slots.acquireUninterruptibly();
+                statuses.put(record.intakeId(), IntakeStatus.queued(record.intakeId(), record.receivedAt()));
+                if (!buffer.offer(new Pending(journaled.segment(), record))) {
+                    throw new IllegalStateException("Intake buffer full during replay");
+                }
+                replayed++;
+                if (buffer.remainingCapacity() == 0) {
+                    // Let the dispatcher make room before replaying the rest
+                    startDispatcher();
+                }
+            }
+            log.info("Intake journal replayed {} undispatched requests", replayed);
+        }
+        startDispatcher();
+    }
+
+    /**
+     * Intakes that already became requests, live or archived. The live table is read
+     * first: the archiver copies and deletes in one transaction, so a row gone from it
+     * by the second query is already visible in the archive.
+     */
+    private Set<String> findSavedIntakeIds(List<String> intakeIds) {
+        Set<String> saved = new HashSet<>(requestRepository.findExistingIntakeIds(intakeIds));
+        if (saved.size() < intakeIds.size()) {
+            saved.addAll(archiveRepository.findExistingIntakeIds(
+                    intakeIds.stream().filter(id -> !saved.contains(id)).toList()));
+        }
+        return saved;
+    }
+
+    @Scheduled(fixedDelayString = "${intake.status-cleanup-interval-ms:60000}")
+    public void expireStatuses() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        statuses.values().removeIf(status -> status.done() && status.receivedAt().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        dispatcher.interrupt();
+        dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private synchronized void startDispatcher() {
+        if (!dispatcher.isAlive() && dispatcher.getState() == Thread.State.NEW) {
+            dispatcher.start();
+        }
+    }
+
+    private void validate(Long userId, String patientDetails, String destination,
+                          Double pickupLatitude, Double pickupLongitude) {
+        if (userId == null) {
+            throw new IllegalArgumentException("User is required");
+        }
+        requireText("Patient details", patientDetails);
+        requireText("Destination", destination);
+        if ((pickupLatitude == null) != (pickupLongitude == null)) {
+            throw new IllegalArgumentException("Pickup location needs both latitude and longitude");
+        }
+        // The directory covers every registered user; only a brand-new one needs the database
+        if (!userDirectory.contains(userId) && userService.findById(userId).isEmpty()) {
+            throw new IllegalArgumentException("User not found with ID: " + userId);
+        }
+    }
+
+    private static void requireText(String field, String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        if (value.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException(field + " must be at most " + MAX_TEXT_LENGTH + " characters");
+        }
+    }
+
+    private void dispatchLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        long backoff = 100;
+        while (running) {
+            try {
+                if (batch.isEmpty()) {
+                    batch.add(buffer.take());
+                    buffer.drainTo(batch, batchSize - 1);
+                    batch.sort(DISPATCH_ORDER);
+                }
+                if (dispatch(batch)) {
+                    batch.clear();
+                    backoff = 100;
+                } else {
+                    // Database unavailable: keep the batch and try again
+                    Thread.sleep(backoff);
+                    backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.error("Intake dispatcher error", e);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Dispatches the batch, one record at a time if the whole batch fails. Returns false,
+     * leaving unfinished records in the batch, when the database could not be reached.
+     *
+     * A failure can also come from an after-commit step, once the requests are saved.
+     * Records whose request exists are therefore reported DISPATCHED, not retried.
+     */
+    private boolean dispatch(List<Pending> batch) {
+        try {
+            complete(batch, requestService.dispatchIntakes(batch.stream().map(Pending::record).toList()));
+            return true;
+        } catch (RuntimeException e) {
+            if (isUnavailable(e)) {
+                log.warn("Intake dispatch waiting for the database: {}", e.getMessage());
+                return false;
+            }
+        }
+        try {
+            finishAlreadySaved(batch);
+        } catch (RuntimeException e) {
+            if (isUnavailable(e)) {
+                return false;
+            }
+            throw e;
+        }
+        while (!batch.isEmpty()) {
+            Pending pending = batch.get(0);
+            try {
+                complete(List.of(pending), requestService.dispatchIntakes(List.of(pending.record())));
+            } catch (RuntimeException e) {
+                if (isUnavailable(e)) {
+                    return false;
+                }
+                if (!finishIfSaved(pending)) {
+                    log.warn("Intake {} rejected", pending.record().intakeId(), e);
+                    finish(pending, IntakeStatus.rejected(pending.record().intakeId(), pending.record().receivedAt(),
+                            "Could not dispatch the request"));
+                }
+            }
+            batch.remove(0);
+        }
+        return true;
+    }
+
+    /**
+     * Finishes, as DISPATCHED, the records of a failed batch whose request was saved anyway,
+     * and removes them from the batch.
+     */
+    private void finishAlreadySaved(List<Pending> batch) {
+        Set<String> saved = requestRepository.findExistingIntakeIds(
+                batch.stream().map(pending -> pending.record().intakeId()).toList());
+        if (saved.isEmpty()) {
+            return;
+        }
+        batch.removeIf(pending -> saved.contains(pending.record().intakeId()) && finishIfSaved(pending));
+    }
+
+    private boolean finishIfSaved(Pending pending) {
+        Optional<RequestSummary> saved = requestRepository.findSummaryByIntakeId(pending.record().intakeId());
+        saved.ifPresent(summary -> finish(pending,
+                IntakeStatus.dispatched(pending.record().intakeId(), pending.record().receivedAt(), summary)));
+        return saved.isPresent();
+    }
+
+    private void complete(List<Pending> batch, List<IntakeStatus> results) {
+        for (int i = 0; i < batch.size(); i++) {
+            finish(batch.get(i), results.get(i));
+        }
+    }
+
+    private void finish(Pending pending, IntakeStatus status) {
+        statuses.put(status.intakeId(), status);
+        journal.release(pending.segment());
+        slots.release();
+    }
+
+    private static boolean isUnavailable(RuntimeException e) {
+        return e instanceof CannotCreateTransactionException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof TransientDataAccessException;
+    }
+}
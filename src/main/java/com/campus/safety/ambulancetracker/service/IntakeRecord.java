@@ -0,0 +1,15 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.model.RequestPriority;
+
+import java.time.LocalDateTime;
+
+/**
+ * An emergency request as accepted at intake, before it has been dispatched.
+ * {@code receivedAt} becomes the request time, so response times include any wait
+ * in the pipeline.
+ */
+public record IntakeRecord(String intakeId, Long userId, String patientDetails, String destination,
+                           Double pickupLatitude, Double pickupLongitude, RequestPriority priority,
+                           LocalDateTime receivedAt) {
+}
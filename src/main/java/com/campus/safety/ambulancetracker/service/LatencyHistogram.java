@@ -0,0 +1,122 @@
+package com.campus.safety.ambulancetracker.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size log-linear histogram of durations in milliseconds (HDR-style).
+ *
+ * Values below 64 ms get exact buckets; above that every power of two is split into
+ * 32 linear sub-buckets, so any recorded value is reported within ~3% of its true
+ * value. Durations up to roughly a year fit in 992 counters (~8 KB), whatever the
+ * number of samples. Recording is lock-free.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+
+    /** Larger values are clamped into the last bucket. */
+    static final long MAX_TRACKABLE_MILLIS = (1L << 35) - 1;
+
+    static final int BUCKET_COUNT = indexOf(MAX_TRACKABLE_MILLIS) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    public void record(long millis) {
+        counts.incrementAndGet(indexOf(millis));
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    /**
+     * Adds this histogram's counts into {@code target}, which must hold {@link #BUCKET_COUNT} entries.
+     */
+    public void addTo(long[] target) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            target[i] += counts.get(i);
+        }
+    }
+
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the value at the given percentile (0-100] of everything recorded, or null when empty.
+     */
+    public Long valueAtPercentile(double percentile) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        addTo(snapshot);
+        long total = 0;
+        for (long c : snapshot) {
+            total += c;
+        }
+        return valueAtPercentile(snapshot, total, percentile);
+    }
+
+    /**
+     * Returns the largest value recorded (to bucket precision), or null when empty.
+     */
+    public Long maxValue() {
+        long[] snapshot = new long[BUCKET_COUNT];
+        addTo(snapshot);
+        return maxValue(snapshot);
+    }
+
+    /**
+     * Returns the value at the given percentile (0-100] of merged counts, or null when empty.
+     */
+    static Long valueAtPercentile(long[] merged, long total, double percentile) {
+        if (total == 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < merged.length; i++) {
+            seen += merged[i];
+            if (seen >= rank) {
+                return highestEquivalentValue(i);
+            }
+        }
+        return highestEquivalentValue(merged.length - 1);
+    }
+
+    /**
+     * Returns the largest value recorded in merged counts (to bucket precision), or null when empty.
+     */
+    static Long maxValue(long[] merged) {
+        for (int i = merged.length - 1; i >= 0; i--) {
+            if (merged[i] > 0) {
+                return highestEquivalentValue(i);
+            }
+        }
+        return null;
+    }
+
+    static int indexOf(long millis) {
+        long value = Math.min(Math.max(millis, 0), MAX_TRACKABLE_MILLIS);
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+        return shift * HALF_SUB_BUCKET_COUNT + (int) (value >>> shift);
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / HALF_SUB_BUCKET_COUNT - 1;
+        long subBucket = index - (long) shift * HALF_SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,213 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.dto.TrackPoint;
+import com.campus.safety.ambulancetracker.model.Ambulance;
+import com.campus.safety.ambulancetracker.model.LocationSegment;
+import com.campus.safety.ambulancetracker.repository.LocationSegmentRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Append-only history of every position an ambulance reported.
+ *
+ * Pings arrive through {@link FleetStateListener} and are appended to an open
+ * {@link TrackSegment} per ambulance and clock hour. When a unit crosses into the next
+ * hour (or sits idle past it) the segment is sealed and written as one row of
+ * {@code location_segments}. A trajectory query reads only the few segments that
+ * overlap the requested range, plus whatever is still in memory.
+ *
+ * Retention: segments older than {@code history.downsample-after-days} are thinned to
+ * one point per {@code history.downsample-resolution-seconds}, and segments older than
+ * {@code history.retention-days} are deleted.
+ */
+@Component
+public class LocationHistory implements FleetStateListener {
+
+    private static final Logger log = LoggerFactory.getLogger(LocationHistory.class);
+
+    private static final int MAINTENANCE_PAGE_SIZE = 200;
+
+    private static final Comparator<TrackPoint> BY_TIME = Comparator.comparing(TrackPoint::time);
+
+    private final LocationSegmentRepository segmentRepository;
+    private final int downsampleAfterDays;
+    private final int downsampleResolutionSeconds;
+    private final int retentionDays;
+
+    private final Map<Long, TrackSegment> open = new ConcurrentHashMap<>();
+
+    // Sealed but not yet persisted; still served to queries until written
+    private final Queue<TrackSegment> sealed = new ConcurrentLinkedQueue<>();
+
+    public LocationHistory(FleetRegistry fleetRegistry,
+                           LocationSegmentRepository segmentRepository,
+                           @Value("${history.downsample-after-days:7}") int downsampleAfterDays,
+                           @Value("${history.downsample-resolution-seconds:30}") int downsampleResolutionSeconds,
+                           @Value("${history.retention-days:90}") int retentionDays) {
+        if (downsampleResolutionSeconds <= 0) {
+            throw new IllegalArgumentException("history.downsample-resolution-seconds must be positive");
+        }
+        this.segmentRepository = segmentRepository;
+        this.downsampleAfterDays = downsampleAfterDays;
+        this.downsampleResolutionSeconds = downsampleResolutionSeconds;
+        this.retentionDays = retentionDays;
+        fleetRegistry.subscribe(this);
+    }
+
+    @Override
+    public void onFleetChange(Ambulance previous, Ambulance current) {
+        // Loading the fleet is not a ping, and removal ends the track
+        if (previous == null || current == null) {
+            return;
+        }
+        LocalDateTime time = current.getLastUpdated();
+        if (time == null || current.getLatitude() == null || current.getLongitude() == null
+                || Objects.equals(time, previous.getLastUpdated())) {
+            return;
+        }
+        long hour = TrackSegment.hourOf(time);
+        open.compute(current.getId(), (id, segment) -> {
+            // A refresh from the database can carry an older timestamp; never rewind the track
+            if (segment != null && segment.lastTime() != null && time.isBefore(segment.lastTime())) {
+                return segment;
+            }
+            if (segment != null && segment.hour() != hour) {
+                sealed.add(segment);
+                segment = null;
+            }
+            if (segment == null) {
+                segment = new TrackSegment(id, hour);
+            }
+            segment.append(time, current.getLatitude(), current.getLongitude());
+            return segment;
+        });
+    }
+
+    /**
+     * Every recorded position of the ambulance within [from, to], oldest first.
+     */
+    public List<TrackPoint> trajectory(Long ambulanceId, LocalDateTime from, LocalDateTime to) {
+        List<TrackPoint> points = new ArrayList<>();
+        Set<LocalDateTime> persistedStarts = new HashSet<>();
+        for (LocationSegment segment : segmentRepository.findOverlapping(ambulanceId, from, to)) {
+            points.addAll(TrackSegment.decode(segment.getData(), from, to));
+            persistedStarts.add(segment.getStartTime());
+        }
+        for (TrackSegment segment : sealed) {
+            // Skip a segment that was written between the query above and now
+            if (segment.ambulanceId().equals(ambulanceId) && !persistedStarts.contains(segment.startTime())
+                    && overlaps(segment, from, to)) {
+                points.addAll(TrackSegment.decode(segment.toBytes(), from, to));
+            }
+        }
+        byte[][] current = new byte[1][];
+        open.computeIfPresent(ambulanceId, (id, segment) -> {
+            if (overlaps(segment, from, to)) {
+                current[0] = segment.toBytes();
+            }
+            return segment;
+        });
+        if (current[0] != null) {
+            points.addAll(TrackSegment.decode(current[0], from, to));
+        }
+        points.sort(BY_TIME);
+        return points;
+    }
+
+    /**
+     * Seals segments of units that have been quiet since an earlier hour and writes
+     * every sealed segment to the database.
+     */
+    @Scheduled(fixedDelayString = "${history.flush-interval-ms:60000}")
+    public void flushSegments() {
+        long currentHour = TrackSegment.hourOf(LocalDateTime.now());
+        for (Long ambulanceId : open.keySet()) {
+            open.computeIfPresent(ambulanceId, (id, segment) -> {
+                if (segment.hour() < currentHour) {
+                    sealed.add(segment);
+                    return null;
+                }
+                return segment;
+            });
+        }
+        persistSealed();
+    }
+
+    /**
+     * Applies the downsampling and retention policy.
+     */
+    @Scheduled(fixedDelayString = "${history.maintenance-interval-ms:3600000}")
+    public void applyRetention() {
+        LocalDateTime now = LocalDateTime.now();
+        int deleted = segmentRepository.deleteEndedBefore(now.minusDays(retentionDays));
+
+        int downsampled = 0;
+        LocalDateTime downsampleCutoff = now.minusDays(downsampleAfterDays);
+        List<LocationSegment> page;
+        while (!(page = segmentRepository.findRawEndedBefore(downsampleCutoff,
+                PageRequest.of(0, MAINTENANCE_PAGE_SIZE))).isEmpty()) {
+            for (LocationSegment segment : page) {
+                List<TrackPoint> points = TrackSegment.decode(segment.getData(),
+                        segment.getStartTime(), segment.getEndTime());
+                TrackSegment thinned = TrackSegment.downsample(segment.getAmbulanceId(), points,
+                        downsampleResolutionSeconds);
+                segment.setData(thinned.toBytes());
+                segment.setPointCount(thinned.count());
+                segment.setResolutionSeconds(downsampleResolutionSeconds);
+            }
+            segmentRepository.saveAll(page);
+            downsampled += page.size();
+        }
+
+        if (deleted > 0 || downsampled > 0) {
+            log.info("Location history: deleted {} and downsampled {} segments", deleted, downsampled);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        for (Long ambulanceId : open.keySet()) {
+            TrackSegment segment = open.remove(ambulanceId);
+            if (segment != null) {
+                sealed.add(segment);
+            }
+        }
+        persistSealed();
+    }
+
+    private void persistSealed() {
+        List<TrackSegment> batch = new ArrayList<>(sealed);
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<LocationSegment> rows = new ArrayList<>(batch.size());
+        for (TrackSegment segment : batch) {
+            rows.add(new LocationSegment(null, segment.ambulanceId(), segment.startTime(), segment.endTime(),
+                    segment.count(), 0, segment.toBytes()));
+        }
+        // On failure the segments stay queued and the next flush retries them
+        segmentRepository.saveAll(rows);
+        sealed.removeAll(batch);
+    }
+
+    private static boolean overlaps(TrackSegment segment, LocalDateTime from, LocalDateTime to) {
+        return !segment.isEmpty() && !segment.startTime().isAfter(to) && !segment.endTime().isBefore(from);
+    }
+}
@@ -0,0 +1,43 @@
+package com.campus.safety.ambulancetracker.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for applying a status/position update, or a batch of device readings,
+ * to the registry and the database. The telemetry log sync that follows the commit
+ * is a separate {@link TelemetrySyncEvent}.
+ */
+@Name("com.campus.safety.ambulancetracker.LocationUpdate")
+@Label("Location Update")
+@Category({"Ambulance Tracker", "Telemetry"})
+@Description("A status/position update or a telemetry batch applied to the fleet")
+@StackTrace(false)
+final class LocationUpdateEvent extends Event {
+
+    @Label("Ambulance Id")
+    @Description("0 for a telemetry batch")
+    long ambulanceId;
+
+    @Label("Status")
+    String status;
+
+    @Label("Readings")
+    int readings;
+
+    @Label("Applied")
+    int applied;
+
+    @Label("Status Changes")
+    int statusChanges;
+
+    static LocationUpdateEvent start() {
+        LocationUpdateEvent event = new LocationUpdateEvent();
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,91 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.model.EmergencyRequest;
+import com.campus.safety.ambulancetracker.model.RequestPriority;
+import com.campus.safety.ambulancetracker.repository.EmergencyRequestRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory queue of PENDING emergency requests, most urgent first.
+ *
+ * Ordered by priority (HIGH, MEDIUM, LOW), then by request time, then by id.
+ * Backed by a skip list so add and poll are O(log n) and safe for concurrent
+ * use; adding an id that is already queued replaces its entry. Rebuilt from the
+ * database on startup and kept in step by {@link EmergencyRequestService} on
+ * every transition.
+ */
+@Component
+public class PendingRequestQueue {
+
+    /**
+     * The part of a pending request needed to order and assign it.
+     */
+    public record Entry(Long requestId, RequestPriority priority, LocalDateTime requestTime) {
+    }
+
+    private static final Comparator<Entry> TRIAGE_ORDER = Comparator
+            .comparing(Entry::priority)
+            .thenComparing(Entry::requestTime)
+            .thenComparing(Entry::requestId);
+
+    private final EmergencyRequestRepository requestRepository;
+
+    private final NavigableSet<Entry> queue = new ConcurrentSkipListSet<>(TRIAGE_ORDER);
+    private final Map<Long, Entry> entriesById = new ConcurrentHashMap<>();
+
+    public PendingRequestQueue(EmergencyRequestRepository requestRepository) {
+        this.requestRepository = requestRepository;
+    }
+
+    /**
+     * Loads every PENDING request from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        queue.clear();
+        entriesById.clear();
+        for (EmergencyRequestRepository.QueuedRequest request : requestRepository.findQueuedByStatus("PENDING")) {
+            add(new Entry(request.getId(), RequestPriority.fromString(request.getPriority()), request.getRequestTime()));
+        }
+    }
+
+    public void add(EmergencyRequest request) {
+        add(new Entry(request.getId(), RequestPriority.fromString(request.getPriority()), request.getRequestTime()));
+    }
+
+    public void add(Entry entry) {
+        Entry previous = entriesById.put(entry.requestId(), entry);
+        if (previous != null) {
+            queue.remove(previous);
+        }
+        queue.add(entry);
+    }
+
+    /**
+     * Removes and returns the most urgent pending request, if any.
+     */
+    public Optional<Entry> poll() {
+        Entry entry;
+        while ((entry = queue.pollFirst()) != null) {
+            // Only the thread that also removes the id owns the entry
+            if (entriesById.remove(entry.requestId(), entry)) {
+                return Optional.of(entry);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public int size() {
+        return entriesById.size();
+    }
+}
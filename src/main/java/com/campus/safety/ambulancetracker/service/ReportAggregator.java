@@ -0,0 +1,427 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.model.DispatchEvent;
+import com.campus.safety.ambulancetracker.model.ProjectionSnapshot;
+import com.campus.safety.ambulancetracker.repository.ArchivedRequestRepository;
+import com.campus.safety.ambulancetracker.repository.EmergencyRequestRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Running KPI counters for the reports page, projected from the {@link DispatchEventStore}.
+ *
+ * Reading a report is O(1) and touches no tables. The counters subscribe to committed
+ * {@link DispatchEvent}s. A snapshot of them is saved periodically, so a restart restores
+ * the last snapshot and replays only the events after it instead of scanning every
+ * completed request. Only the very first start, with no snapshot yet, counts the
+ * request tables, live and archive, and saves the result as the first snapshot.
+ */
+@Component
+public class ReportAggregator {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportAggregator.class);
+
+    static final String SNAPSHOT_NAME = "report-counters";
+
+    /**
+     * Point-in-time copy of all counters.
+     */
+    public record Snapshot(long totalRequests,
+                           long pendingRequests,
+                           long assignedRequests,
+                           long completedRequests,
+                           long durationSecondsSum,
+                           long durationCount,
+                           Long busiestAmbulanceId,
+                           long busiestAmbulanceCompletions) {
+    }
+
+    /**
+     * Everything needed to continue counting; what is stored in the snapshot.
+     * {@code countedAbove} holds the events past the snapshot's position that are
+     * already included, because they committed ahead of lower-numbered ones.
+     */
+    record State(long total,
+                 Map<String, Long> byStatus,
+                 long durationSecondsSum,
+                 long durationCount,
+                 Map<Long, Long> completionsByAmbulance,
+                 Set<Long> countedAbove) {
+
+        State {
+            countedAbove = countedAbove == null ? Set.of() : countedAbove;
+        }
+    }
+
+    private final EmergencyRequestRepository requestRepository;
+    private final ArchivedRequestRepository archiveRepository;
+    private final DispatchEventStore eventStore;
+    private final ObjectMapper objectMapper;
+
+    private volatile Counters counters = new Counters();
+    // Every event up to here is in the counters; past it, exactly the ids in countedAbove
+    private volatile long countedThrough;
+    private volatile Set<Long> countedAbove = ConcurrentHashMap.newKeySet();
+
+    // Held shared while counting a live event, exclusively while counters are swapped
+    private final ReadWriteLock installLock = new ReentrantReadWriteLock();
+    // Live events published while a rebuild is reading; counted once it has installed
+    private final Queue<DispatchEvent> buffered = new ConcurrentLinkedQueue<>();
+    private boolean rebuilding;
+
+    public ReportAggregator(EmergencyRequestRepository requestRepository,
+                            ArchivedRequestRepository archiveRepository,
+                            DispatchEventStore eventStore,
+                            ObjectMapper objectMapper) {
+        this.requestRepository = requestRepository;
+        this.archiveRepository = archiveRepository;
+        this.eventStore = eventStore;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Restores the counters from the last snapshot plus the events appended since.
+     * Runs while requests are already being taken: events published meanwhile are held
+     * back and counted after the restored counters are installed, unless the replay
+     * already saw them. Reads in one repeatable-read transaction, so the replay and the
+     * log's end are from the same point in time.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public void rebuild() {
+        Optional<ProjectionSnapshot> saved = eventStore.loadSnapshot(SNAPSHOT_NAME);
+        if (saved.isEmpty()) {
+            recountTables();
+            return;
+        }
+        beginRebuild();
+        try {
+            long start = System.nanoTime();
+            State state = read(saved.get().getState());
+            long position = saved.get().getPosition();
+            Counters restored = Counters.from(state);
+
+            // Lower ids may still commit above the settled position; remember what was seen there
+            long settled = Math.max(position, eventStore.settledPosition(position));
+            Set<Long> above = ConcurrentHashMap.newKeySet();
+            state.countedAbove().stream().filter(id -> id > settled).forEach(above::add);
+            long replayed = eventStore.replay(position, eventStore.latestPosition(), event -> {
+                if (state.countedAbove().contains(event.getId())) {
+                    return;
+                }
+                restored.apply(event);
+                if (event.getId() > settled) {
+                    above.add(event.getId());
+                }
+            });
+            install(restored, settled, above);
+            log.info("Report counters restored from snapshot at event {} plus {} events in {} ms",
+                    position, replayed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } finally {
+            endRebuild();
+        }
+    }
+
+    /**
+     * Recomputes every counter from the request tables and saves it as the snapshot.
+     * For rows written without events (bulk imports); must be called through the proxy
+     * so the repeatable-read transaction applies.
+     */
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public void rebuildFromTables() {
+        recountTables();
+    }
+
+    /**
+     * Archived requests are all COMPLETED and count as such. Runs inside the caller's
+     * repeatable-read transaction, which reads the tables and the unsettled end of the
+     * log at one point in time, so the events those rows reflect are known and not
+     * counted twice.
+     */
+    private void recountTables() {
+        beginRebuild();
+        try {
+            long settled = eventStore.settledPosition(0);
+            Set<Long> above = ConcurrentHashMap.newKeySet();
+            eventStore.replay(settled, eventStore.latestPosition(), event -> above.add(event.getId()));
+            Counters counted = countTables();
+            install(counted, settled, above);
+            eventStore.saveSnapshot(SNAPSHOT_NAME, settled, write(counted.state(above)));
+        } finally {
+            endRebuild();
+        }
+    }
+
+    private Counters countTables() {
+        Counters counted = new Counters();
+
+        long archived = archiveRepository.count();
+        counted.total.add(requestRepository.count() + archived);
+        for (String status : List.of("PENDING", "ASSIGNED", "COMPLETED")) {
+            counted.counter(status).add(requestRepository.countByStatus(status));
+        }
+        counted.counter("COMPLETED").add(archived);
+
+        try (Stream<Object[]> durations = requestRepository.streamCompletedDurations()) {
+            durations.forEach(row -> counted.addDuration((LocalDateTime) row[0], (LocalDateTime) row[1]));
+        }
+        try (Stream<Object[]> durations = archiveRepository.streamCompletedDurations()) {
+            durations.forEach(row -> counted.addDuration((LocalDateTime) row[0], (LocalDateTime) row[1]));
+        }
+
+        for (Object[] row : requestRepository.findBusiestAmbulanceIdJPQL()) {
+            counted.addCompletions((Long) row[0], ((Number) row[1]).longValue());
+        }
+        for (Object[] row : archiveRepository.countCompletionsByAmbulance()) {
+            counted.addCompletions((Long) row[0], ((Number) row[1]).longValue());
+        }
+        return counted;
+    }
+
+    /**
+     * Folds the events that have settled since the last snapshot into it. The snapshot
+     * is built from the log, not from the live counters, so it is exact at its position
+     * whatever order transactions committed in.
+     */
+    @Scheduled(initialDelayString = "${events.snapshot-interval-ms:300000}",
+               fixedDelayString = "${events.snapshot-interval-ms:300000}")
+    public void takeSnapshot() {
+        ProjectionSnapshot previous = eventStore.loadSnapshot(SNAPSHOT_NAME).orElse(null);
+        if (previous == null) {
+            return;
+        }
+        long through = eventStore.settledPosition(previous.getPosition());
+        if (through <= previous.getPosition()) {
+            return;
+        }
+        State state = read(previous.getState());
+        Counters next = Counters.from(state);
+        eventStore.replay(previous.getPosition(), through, event -> {
+            if (!state.countedAbove().contains(event.getId())) {
+                next.apply(event);
+            }
+        });
+        Set<Long> stillAbove = new HashSet<>();
+        state.countedAbove().stream().filter(id -> id > through).forEach(stillAbove::add);
+        eventStore.saveSnapshot(SNAPSHOT_NAME, through, write(next.state(stillAbove)));
+        settle(through);
+    }
+
+    @EventListener
+    public void onDispatchEvent(DispatchEvent event) {
+        installLock.readLock().lock();
+        try {
+            if (rebuilding) {
+                buffered.add(event);
+            } else {
+                countOnce(event);
+            }
+        } finally {
+            installLock.readLock().unlock();
+        }
+    }
+
+    public Snapshot snapshot() {
+        return counters.snapshot();
+    }
+
+    private void countOnce(DispatchEvent event) {
+        if (event.getId() > countedThrough && countedAbove.add(event.getId())) {
+            counters.apply(event);
+        }
+    }
+
+    private void beginRebuild() {
+        installLock.writeLock().lock();
+        try {
+            rebuilding = true;
+        } finally {
+            installLock.writeLock().unlock();
+        }
+    }
+
+    private void install(Counters rebuilt, long settled, Set<Long> above) {
+        installLock.writeLock().lock();
+        try {
+            counters = rebuilt;
+            countedThrough = settled;
+            countedAbove = above;
+        } finally {
+            installLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Counts what was published during the rebuild and goes back to counting live.
+     * Also runs when the rebuild failed, against the counters it left in place.
+     */
+    private void endRebuild() {
+        installLock.writeLock().lock();
+        try {
+            DispatchEvent event;
+            while ((event = buffered.poll()) != null) {
+                countOnce(event);
+            }
+            rebuilding = false;
+        } finally {
+            installLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Everything up to a snapshot's position has settled and been published by now, so
+     * the ids remembered below it can be dropped.
+     */
+    private void settle(long through) {
+        installLock.writeLock().lock();
+        try {
+            if (through > countedThrough) {
+                countedThrough = through;
+                countedAbove.removeIf(id -> id <= through);
+            }
+        } finally {
+            installLock.writeLock().unlock();
+        }
+    }
+
+    private State read(String json) {
+        try {
+            return objectMapper.readValue(json, State.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable report snapshot", e);
+        }
+    }
+
+    private String write(State state) {
+        try {
+            return objectMapper.writeValueAsString(state);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The counters themselves; safe for concurrent updates and reads.
+     */
+    private static final class Counters {
+
+        private record Leader(Long ambulanceId, long completions) {
+        }
+
+        private static final Leader NO_LEADER = new Leader(null, 0);
+
+        private final LongAdder total = new LongAdder();
+        private final Map<String, LongAdder> byStatus = new ConcurrentHashMap<>();
+        private final LongAdder durationSecondsSum = new LongAdder();
+        private final LongAdder durationCount = new LongAdder();
+        private final Map<Long, LongAdder> completionsByAmbulance = new ConcurrentHashMap<>();
+        private final AtomicReference<Leader> busiest = new AtomicReference<>(NO_LEADER);
+
+        static Counters from(State state) {
+            Counters counters = new Counters();
+            counters.total.add(state.total());
+            state.byStatus().forEach((status, count) -> counters.counter(status).add(count));
+            counters.durationSecondsSum.add(state.durationSecondsSum());
+            counters.durationCount.add(state.durationCount());
+            state.completionsByAmbulance().forEach(counters::addCompletions);
+            return counters;
+        }
+
+        void apply(DispatchEvent event) {
+            switch (event.getType()) {
+                case DispatchEvent.REQUESTED -> {
+                    total.increment();
+                    counter(event.getStatus()).increment();
+                }
+                case DispatchEvent.ASSIGNED -> {
+                    counter(event.getPreviousStatus()).decrement();
+                    counter(event.getStatus()).increment();
+                }
+                case DispatchEvent.COMPLETED -> {
+                    counter(event.getPreviousStatus()).decrement();
+                    counter(event.getStatus()).increment();
+                    addDuration(event.getSince(), event.getOccurredAt());
+                    if (event.getAmbulanceId() != null) {
+                        addCompletions(event.getAmbulanceId(), 1);
+                    }
+                }
+                default -> {
+                    // Unit status changes are not counted here
+                }
+            }
+        }
+
+        State state(Set<Long> countedAbove) {
+            Map<String, Long> statuses = new HashMap<>();
+            byStatus.forEach((status, count) -> statuses.put(status, count.sum()));
+            Map<Long, Long> completions = new HashMap<>();
+            completionsByAmbulance.forEach((id, count) -> completions.put(id, count.sum()));
+            return new State(total.sum(), statuses, durationSecondsSum.sum(), durationCount.sum(), completions,
+                    countedAbove);
+        }
+
+        Snapshot snapshot() {
+            Leader leader = busiest.get();
+            return new Snapshot(
+                    total.sum(),
+                    counter("PENDING").sum(),
+                    counter("ASSIGNED").sum(),
+                    counter("COMPLETED").sum(),
+                    durationSecondsSum.sum(),
+                    durationCount.sum(),
+                    leader.ambulanceId(),
+                    leader.completions());
+        }
+
+        LongAdder counter(String status) {
+            return byStatus.computeIfAbsent(status, s -> new LongAdder());
+        }
+
+        void addDuration(LocalDateTime startTime, LocalDateTime endTime) {
+            if (startTime != null && endTime != null) {
+                durationSecondsSum.add(Duration.between(startTime, endTime).getSeconds());
+                durationCount.increment();
+            }
+        }
+
+        void addCompletions(Long ambulanceId, long count) {
+            LongAdder completions = completionsByAmbulance.computeIfAbsent(ambulanceId, id -> new LongAdder());
+            completions.add(count);
+            promote(ambulanceId, completions.sum());
+        }
+
+        /**
+         * Completion counts only grow, so the leader only changes when someone overtakes it.
+         */
+        private void promote(Long ambulanceId, long completions) {
+            busiest.accumulateAndGet(new Leader(ambulanceId, completions),
+                    (current, candidate) -> candidate.completions() > current.completions() ? candidate : current);
+        }
+    }
+}
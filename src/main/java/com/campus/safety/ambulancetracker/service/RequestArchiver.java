@@ -0,0 +1,140 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.repository.ArchivedRequestRepository;
+import com.campus.safety.ambulancetracker.repository.EmergencyRequestRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves COMPLETED requests older than {@code archive.completed-after-days} from
+ * emergency_requests to emergency_requests_archive, so the live table only holds
+ * recent and open requests and the by-status lookups of dispatch stay small.
+ *
+ * Work is done in small batches, each one copy and one delete in its own short
+ * transaction, with a pause in between so dispatch traffic is never starved of
+ * connections or row locks. A run stops after {@code archive.max-batches-per-run}
+ * batches and picks up where it left off next time. Completed rows never change
+ * again, so a batch cannot race with dispatch; report counters are projected from
+ * events and are not affected by rows moving.
+ *
+ * Runs on a thread of its own. All scheduled jobs share one scheduler thread, and a
+ * run that sleeps between batches would hold up the location flush, WAL checkpoint
+ * and feed heartbeats behind it.
+ */
+@Component
+public class RequestArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestArchiver.class);
+
+    private final EmergencyRequestRepository requestRepository;
+    private final ArchivedRequestRepository archiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int completedAfterDays;
+    private final int batchSize;
+    private final long batchPauseMs;
+    private final int maxBatchesPerRun;
+
+    private final ExecutorService runner =
+            Executors.newSingleThreadExecutor(Thread.ofPlatform().name("request-archiver").daemon().factory());
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public RequestArchiver(EmergencyRequestRepository requestRepository,
+                           ArchivedRequestRepository archiveRepository,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${archive.completed-after-days:30}") int completedAfterDays,
+                           @Value("${archive.batch-size:500}") int batchSize,
+                           @Value("${archive.batch-pause-ms:200}") long batchPauseMs,
+                           @Value("${archive.max-batches-per-run:100}") int maxBatchesPerRun) {
+        this.requestRepository = requestRepository;
+        this.archiveRepository = archiveRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.completedAfterDays = completedAfterDays;
+        this.batchSize = batchSize;
+        this.batchPauseMs = batchPauseMs;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    @Scheduled(initialDelayString = "${archive.interval-ms:3600000}",
+               fixedDelayString = "${archive.interval-ms:3600000}")
+    public void archiveCompleted() {
+        if (completedAfterDays <= 0 || !running.compareAndSet(false, true)) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(completedAfterDays);
+        runner.execute(() -> {
+            try {
+                int archived = archiveEndedBefore(cutoff);
+                if (archived > 0) {
+                    log.info("Archived {} completed requests", archived);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Archive run failed; retrying next interval", e);
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Interrupts the pause between batches; the rest waits for the next start
+        runner.shutdownNow();
+    }
+
+    /**
+     * Archives completed requests that ended before the cutoff, oldest first, batch by
+     * batch until none are left or the run's batch budget is spent. Returns how many
+     * rows were moved.
+     */
+    public int archiveEndedBefore(LocalDateTime cutoff) {
+        int archived = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Integer moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            if (moved == null || moved == 0) {
+                break;
+            }
+            archived += moved;
+            if (moved < batchSize || !pause()) {
+                break;
+            }
+        }
+        return archived;
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Long> ids = requestRepository.findCompletedIdsEndedBefore(cutoff, Limit.of(batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int copied = archiveRepository.copyFromLive(ids, LocalDateTime.now());
+        int deleted = requestRepository.deleteCompletedByIdIn(ids);
+        if (copied != deleted) {
+            // Never leave a row in both tables, or in neither
+            throw new IllegalStateException("Archived " + copied + " requests but removed " + deleted);
+        }
+        return deleted;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            // Shutting down: the rest waits for the next run
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.dto.LatencyPercentiles;
+import com.campus.safety.ambulancetracker.dto.ResponseTimeReport;
+import com.campus.safety.ambulancetracker.model.DispatchEvent;
+import com.campus.safety.ambulancetracker.repository.ArchivedRequestRepository;
+import com.campus.safety.ambulancetracker.repository.EmergencyRequestRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Rolling-window percentiles of assignment delay (requestTime to startTime),
+ * service time (startTime to endTime) and notification delay (startTime to the
+ * driver's device receiving the assignment).
+ *
+ * Each metric keeps a ring of 60 one-minute histograms for the last hour and a ring
+ * of 168 one-hour histograms for the last 24 hours and 7 days. Slots are recycled as
+ * time moves on, so memory stays fixed. A sample is filed under the minute and hour
+ * in which the transition happened; the day and week windows therefore have hour
+ * granularity. Seeded once on startup from the last 7 days, then fed by the committed
+ * ASSIGNED and COMPLETED events of the {@link DispatchEventStore}. Notification delay
+ * is not persisted and starts empty.
+ */
+@Component
+public class ResponseTimeTracker {
+
+    private static final int MINUTE_SLOTS = 60;
+    private static final int HOUR_SLOTS = 7 * 24;
+
+    private final EmergencyRequestRepository requestRepository;
+    private final ArchivedRequestRepository archiveRepository;
+
+    private final RollingHistogram assignmentDelay = new RollingHistogram();
+    private final RollingHistogram serviceTime = new RollingHistogram();
+    private final RollingHistogram notificationDelay = new RollingHistogram();
+
+    public ResponseTimeTracker(EmergencyRequestRepository requestRepository,
+                               ArchivedRequestRepository archiveRepository) {
+        this.requestRepository = requestRepository;
+        this.archiveRepository = archiveRepository;
+    }
+
+    /**
+     * Loads the transitions of the last 7 days from the database, including requests
+     * already archived when the archive age is shorter than that.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        assignmentDelay.clear();
+        serviceTime.clear();
+
+        LocalDateTime since = LocalDateTime.now().minusDays(7);
+        try (Stream<Object[]> timings = Stream.concat(requestRepository.streamTimingsSince(since),
+                archiveRepository.streamTimingsSince(since))) {
+            timings.forEach(row -> {
+                recordAssignment((LocalDateTime) row[0], (LocalDateTime) row[1]);
+                recordService((LocalDateTime) row[1], (LocalDateTime) row[2]);
+            });
+        }
+    }
+
+    @EventListener
+    public void onDispatchEvent(DispatchEvent event) {
+        switch (event.getType()) {
+            case DispatchEvent.ASSIGNED -> recordAssignment(event.getSince(), event.getOccurredAt());
+            case DispatchEvent.COMPLETED -> recordService(event.getSince(), event.getOccurredAt());
+            default -> {
+                // Only assignments and completions have a duration to record
+            }
+        }
+    }
+
+    /**
+     * A request received at {@code requestTime} was given an ambulance at {@code startTime}.
+     */
+    public void recordAssignment(LocalDateTime requestTime, LocalDateTime startTime) {
+        assignmentDelay.record(requestTime, startTime);
+    }
+
+    /**
+     * A request assigned at {@code startTime} was completed at {@code endTime}.
+     */
+    public void recordService(LocalDateTime startTime, LocalDateTime endTime) {
+        serviceTime.record(startTime, endTime);
+    }
+
+    /**
+     * A driver's device received the assignment made at {@code startTime}.
+     */
+    public void recordNotification(LocalDateTime startTime, LocalDateTime deliveredAt) {
+        notificationDelay.record(startTime, deliveredAt);
+    }
+
+    public ResponseTimeReport report() {
+        return report(LocalDateTime.now());
+    }
+
+    ResponseTimeReport report(LocalDateTime now) {
+        return new ResponseTimeReport(assignmentDelay.percentiles(now), serviceTime.percentiles(now),
+                notificationDelay.percentiles(now));
+    }
+
+    /**
+     * One metric across both rings.
+     */
+    private static final class RollingHistogram {
+
+        private final Slot[] minutes = newSlots(MINUTE_SLOTS);
+        private final Slot[] hours = newSlots(HOUR_SLOTS);
+
+        void record(LocalDateTime from, LocalDateTime to) {
+            if (from == null || to == null) {
+                return;
+            }
+            long millis = Duration.between(from, to).toMillis();
+            long minute = epochMinute(to);
+            minutes[(int) Math.floorMod(minute, (long) MINUTE_SLOTS)].record(minute, millis);
+            long hour = Math.floorDiv(minute, 60);
+            hours[(int) Math.floorMod(hour, (long) HOUR_SLOTS)].record(hour, millis);
+        }
+
+        void clear() {
+            for (Slot slot : minutes) {
+                slot.clear();
+            }
+            for (Slot slot : hours) {
+                slot.clear();
+            }
+        }
+
+        List<LatencyPercentiles> percentiles(LocalDateTime now) {
+            long minute = epochMinute(now);
+            long hour = Math.floorDiv(minute, 60);
+            return List.of(
+                    summarize("LAST_HOUR", minutes, minute, MINUTE_SLOTS),
+                    summarize("LAST_24_HOURS", hours, hour, 24),
+                    summarize("LAST_7_DAYS", hours, hour, HOUR_SLOTS));
+        }
+
+        private static LatencyPercentiles summarize(String window, Slot[] ring, long current, int span) {
+            long[] merged = new long[LatencyHistogram.BUCKET_COUNT];
+            for (Slot slot : ring) {
+                long key = slot.key;
+                if (key > current - span && key <= current) {
+                    slot.histogram.addTo(merged);
+                }
+            }
+            long count = 0;
+            for (long c : merged) {
+                count += c;
+            }
+            return new LatencyPercentiles(window, count,
+                    LatencyHistogram.valueAtPercentile(merged, count, 50),
+                    LatencyHistogram.valueAtPercentile(merged, count, 95),
+                    LatencyHistogram.valueAtPercentile(merged, count, 99),
+                    LatencyHistogram.maxValue(merged));
+        }
+
+        private static Slot[] newSlots(int size) {
+            Slot[] slots = new Slot[size];
+            for (int i = 0; i < size; i++) {
+                slots[i] = new Slot();
+            }
+            return slots;
+        }
+
+        private static long epochMinute(LocalDateTime time) {
+            return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+        }
+    }
+
+    /**
+     * A histogram owned by one minute or hour at a time, identified by {@code key}.
+     */
+    private static final class Slot {
+
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private volatile long key = Long.MIN_VALUE;
+
+        void record(long eventKey, long millis) {
+            if (key != eventKey) {
+                synchronized (this) {
+                    if (key > eventKey) {
+                        // The slot already moved on to a later period; the sample is outside every window
+                        return;
+                    }
+                    if (key < eventKey) {
+                        histogram.reset();
+                        key = eventKey;
+                    }
+                }
+            }
+            histogram.record(millis);
+        }
+
+        synchronized void clear() {
+            histogram.reset();
+            key = Long.MIN_VALUE;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.campus.safety.ambulancetracker.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Device signatures already accepted, so a captured request cannot be sent again.
+ *
+ * A signature covers method, path, timestamp and body, so a replayed request carries
+ * exactly the signature of the original. Each one is remembered until its timestamp
+ * falls out of the allowed clock skew, after which the filter refuses it anyway. Only
+ * requests whose signature has been verified are recorded, so a caller without a key
+ * cannot fill the cache. Two byte-identical requests from one device within the same
+ * second are treated as a replay.
+ */
+@Component
+public class SignatureReplayCache {
+
+    private final long maxClockSkewSeconds;
+    private final int maxSize;
+
+    // keyId + signature -> epoch second after which the timestamp is refused anyway
+    private final Map<String, Long> seen = new ConcurrentHashMap<>();
+
+    public SignatureReplayCache(@Value("${device.auth.max-clock-skew-seconds:300}") long maxClockSkewSeconds,
+                                @Value("${device.auth.replay-cache-max-size:200000}") int maxSize) {
+        this.maxClockSkewSeconds = maxClockSkewSeconds;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Records the signature and returns true if it has not been seen before. Returns
+     * false for a replay, and also when the cache is full of live entries, since a
+     * signature that cannot be remembered cannot be protected.
+     */
+    public boolean firstUse(String keyId, String signature, long timestamp) {
+        long now = System.currentTimeMillis() / 1000;
+        if (seen.size() >= maxSize) {
+            purge(now);
+            if (seen.size() >= maxSize) {
+                return false;
+            }
+        }
+        return seen.putIfAbsent(keyId + ":" + signature, timestamp + maxClockSkewSeconds) == null;
+    }
+
+    public int size() {
+        return seen.size();
+    }
+
+    @Scheduled(fixedDelayString = "${device.auth.replay-cache-sweep-ms:60000}")
+    public void sweep() {
+        purge(System.currentTimeMillis() / 1000);
+    }
+
+    private void purge(long now) {
+        seen.values().removeIf(expiresAt -> expiresAt < now);
+    }
+}
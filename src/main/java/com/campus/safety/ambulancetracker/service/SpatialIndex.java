@@ -0,0 +1,218 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.dto.NearbyAmbulance;
+import com.campus.safety.ambulancetracker.model.Ambulance;
+import com.campus.safety.ambulancetracker.model.AmbulanceStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Uniform lat/lng grid over the live position of every ambulance.
+ *
+ * Kept current incrementally through {@link FleetStateListener}: a ping only touches
+ * the one or two cells the unit moved between. Nearest-k searches expand ring by ring
+ * around the query cell and stop as soon as no unvisited cell can hold a closer unit.
+ */
+@Component
+public class SpatialIndex implements FleetStateListener {
+
+    private static final double EARTH_RADIUS_METERS = 6_371_000.0;
+    private static final double METERS_PER_DEGREE = 111_320.0;
+
+    // ~550 m at the equator; a campus spans a handful of cells
+    private static final double CELL_DEGREES = 0.005;
+
+    private static final Comparator<NearbyAmbulance> BY_DISTANCE =
+            Comparator.comparingDouble(NearbyAmbulance::distanceMeters);
+
+    private final Map<Long, Map<Long, Ambulance>> cells = new ConcurrentHashMap<>();
+    private final Map<Long, Long> cellOfAmbulance = new ConcurrentHashMap<>();
+
+    public SpatialIndex(FleetRegistry fleetRegistry) {
+        fleetRegistry.subscribe(this);
+        for (Ambulance ambulance : fleetRegistry.findAll()) {
+            onFleetChange(null, ambulance);
+        }
+    }
+
+    @Override
+    public void onFleetChange(Ambulance previous, Ambulance current) {
+        Long id = current != null ? current.getId() : previous.getId();
+        Long oldCell = cellOfAmbulance.get(id);
+        Long newCell = current != null && current.getLatitude() != null && current.getLongitude() != null
+                ? cellKey(cellX(current.getLongitude()), cellY(current.getLatitude()))
+                : null;
+
+        if (oldCell != null && !oldCell.equals(newCell)) {
+            cells.computeIfPresent(oldCell, (key, members) -> {
+                members.remove(id);
+                return members.isEmpty() ? null : members;
+            });
+        }
+        if (newCell != null) {
+            // Insert inside compute so it cannot race with the removal of an emptied cell
+            cells.compute(newCell, (key, members) -> {
+                Map<Long, Ambulance> target = members != null ? members : new ConcurrentHashMap<>();
+                target.put(id, current);
+                return target;
+            });
+            cellOfAmbulance.put(id, newCell);
+        } else {
+            cellOfAmbulance.remove(id);
+        }
+    }
+
+    public int size() {
+        return cellOfAmbulance.size();
+    }
+
+    /**
+     * Returns up to {@code k} units with the given status, closest first.
+     * A null status matches every unit.
+     */
+    public List<NearbyAmbulance> nearest(double latitude, double longitude, int k, AmbulanceStatus status) {
+        if (k <= 0) {
+            return List.of();
+        }
+        // Max-heap on distance holding the best k found so far
+        PriorityQueue<NearbyAmbulance> best = new PriorityQueue<>(k, BY_DISTANCE.reversed());
+
+        int qx = cellX(longitude);
+        int qy = cellY(latitude);
+        double ringWidthMeters = CELL_DEGREES * METERS_PER_DEGREE * Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+        int occupied = cells.size();
+
+        for (int r = 0; ; r++) {
+            // Once the ring is wider than the number of occupied cells, scanning those directly is cheaper
+            if ((long) (2 * r + 1) * (2 * r + 1) > 4L * occupied) {
+                best.clear();
+                for (Map<Long, Ambulance> members : cells.values()) {
+                    collect(members, latitude, longitude, status, k, best);
+                }
+                break;
+            }
+            forEachCellInRing(qx, qy, r, members -> collect(members, latitude, longitude, status, k, best));
+            // Every unit outside ring r is at least r cell widths away
+            if (best.size() == k && best.peek().distanceMeters() <= r * ringWidthMeters) {
+                break;
+            }
+        }
+
+        List<NearbyAmbulance> result = new ArrayList<>(best);
+        result.sort(BY_DISTANCE);
+        return result;
+    }
+
+    /**
+     * Returns every unit within {@code radiusMeters} of the point, closest first.
+     */
+    public List<NearbyAmbulance> within(double latitude, double longitude, double radiusMeters) {
+        double latSpan = radiusMeters / METERS_PER_DEGREE;
+        double lngSpan = radiusMeters / (METERS_PER_DEGREE * Math.max(Math.cos(Math.toRadians(latitude)), 0.01));
+        int minX = cellX(longitude - lngSpan);
+        int maxX = cellX(longitude + lngSpan);
+        int minY = cellY(latitude - latSpan);
+        int maxY = cellY(latitude + latSpan);
+
+        List<NearbyAmbulance> result = new ArrayList<>();
+        long boxCells = (long) (maxX - minX + 1) * (maxY - minY + 1);
+        if (boxCells > cells.size()) {
+            for (Map<Long, Ambulance> members : cells.values()) {
+                collectWithin(members, latitude, longitude, radiusMeters, result);
+            }
+        } else {
+            for (int x = minX; x <= maxX; x++) {
+                for (int y = minY; y <= maxY; y++) {
+                    Map<Long, Ambulance> members = cells.get(cellKey(x, y));
+                    if (members != null) {
+                        collectWithin(members, latitude, longitude, radiusMeters, result);
+                    }
+                }
+            }
+        }
+        result.sort(BY_DISTANCE);
+        return result;
+    }
+
+    /**
+     * Great-circle distance between two points in meters (haversine).
+     */
+    public static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private void forEachCellInRing(int qx, int qy, int r, Consumer<Map<Long, Ambulance>> action) {
+        if (r == 0) {
+            Map<Long, Ambulance> members = cells.get(cellKey(qx, qy));
+            if (members != null) {
+                action.accept(members);
+            }
+            return;
+        }
+        for (int dx = -r; dx <= r; dx++) {
+            visit(qx + dx, qy - r, action);
+            visit(qx + dx, qy + r, action);
+        }
+        for (int dy = -r + 1; dy <= r - 1; dy++) {
+            visit(qx - r, qy + dy, action);
+            visit(qx + r, qy + dy, action);
+        }
+    }
+
+    private void visit(int x, int y, Consumer<Map<Long, Ambulance>> action) {
+        Map<Long, Ambulance> members = cells.get(cellKey(x, y));
+        if (members != null) {
+            action.accept(members);
+        }
+    }
+
+    private static void collect(Map<Long, Ambulance> members, double latitude, double longitude,
+                                AmbulanceStatus status, int k, PriorityQueue<NearbyAmbulance> best) {
+        for (Ambulance ambulance : members.values()) {
+            if (status != null && ambulance.getStatus() != status) {
+                continue;
+            }
+            double distance = distanceMeters(latitude, longitude, ambulance.getLatitude(), ambulance.getLongitude());
+            if (best.size() < k) {
+                best.add(new NearbyAmbulance(FleetRegistry.snapshotOf(ambulance), distance));
+            } else if (distance < best.peek().distanceMeters()) {
+                best.poll();
+                best.add(new NearbyAmbulance(FleetRegistry.snapshotOf(ambulance), distance));
+            }
+        }
+    }
+
+    private static void collectWithin(Map<Long, Ambulance> members, double latitude, double longitude,
+                                      double radiusMeters, List<NearbyAmbulance> result) {
+        for (Ambulance ambulance : members.values()) {
+            double distance = distanceMeters(latitude, longitude, ambulance.getLatitude(), ambulance.getLongitude());
+            if (distance <= radiusMeters) {
+                result.add(new NearbyAmbulance(FleetRegistry.snapshotOf(ambulance), distance));
+            }
+        }
+    }
+
+    private static int cellX(double longitude) {
+        return (int) Math.floor(longitude / CELL_DEGREES);
+    }
+
+    private static int cellY(double latitude) {
+        return (int) Math.floor(latitude / CELL_DEGREES);
+    }
+
+    private static long cellKey(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+}
@@ -0,0 +1,120 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exercises the hot read paths before the instance reports ready.
+ *
+ * Spring Boot only marks the application as accepting traffic (see
+ * {@code /actuator/health/readiness}) after every ready listener has returned. This one
+ * runs last, after the fleet, queue, report and user caches have loaded, and repeats
+ * side-effect-free work until the JIT has compiled it: fleet and nearest-unit lookups,
+ * typeahead, report snapshots, a page of active requests, JSON serialization, request
+ * signing, and a few HTTP round trips through Tomcat, the security filters and Thymeleaf.
+ * Nothing is written; failures are logged and never hold the instance back.
+ */
+@Component
+public class StartupWarmup {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmup.class);
+
+    private static final List<String> ACTIVE_STATUSES = List.of("PENDING", "ASSIGNED");
+    private static final byte[] WARMUP_KEY = "warmup-key-not-used-for-auth".getBytes(StandardCharsets.UTF_8);
+
+    private final AmbulanceService ambulanceService;
+    private final EmergencyRequestService requestService;
+    private final UserDirectory userDirectory;
+    private final ObjectMapper objectMapper;
+    private final int iterations;
+    private final int httpRequests;
+
+    public StartupWarmup(AmbulanceService ambulanceService,
+                         EmergencyRequestService requestService,
+                         UserDirectory userDirectory,
+                         ObjectMapper objectMapper,
+                         @Value("${startup.warmup.iterations:200}") int iterations,
+                         @Value("${startup.warmup.http-requests:20}") int httpRequests) {
+        this.ambulanceService = ambulanceService;
+        this.requestService = requestService;
+        this.userDirectory = userDirectory;
+        this.objectMapper = objectMapper;
+        this.iterations = iterations;
+        this.httpRequests = httpRequests;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void warmUp(ApplicationReadyEvent event) {
+        if (iterations <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < iterations; i++) {
+                exerciseServices(i);
+            }
+            if (event.getApplicationContext() instanceof WebServerApplicationContext web) {
+                exerciseHttp(web.getWebServer().getPort());
+            }
+        } catch (RuntimeException | IOException e) {
+            log.warn("Warmup stopped early: {}", e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Warmup finished in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void exerciseServices(int i) {
+        double latitude = 12.97 + (i % 10) * 0.001;
+        double longitude = 77.59 + (i % 10) * 0.001;
+        Object[] results = {
+                ambulanceService.findAll(),
+                ambulanceService.findNearestAvailable(latitude, longitude, 3),
+                userDirectory.search(String.valueOf((char) ('a' + i % 26)), 10),
+                requestService.generateReports(),
+                requestService.generateResponseTimeReport(),
+                // A few passes through the query path are enough; no need to load the database
+                i < 10 ? requestService.findPage(ACTIVE_STATUSES, 0, 50) : List.of()
+        };
+        try {
+            objectMapper.writeValueAsBytes(results);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        String signature = DeviceSignature.sign(WARMUP_KEY, "PUT", "/api/ambulances/1/status", i, new byte[0]);
+        DeviceSignature.verify(WARMUP_KEY, "PUT", "/api/ambulances/1/status", i, new byte[0], signature);
+    }
+
+    private void exerciseHttp(int port) throws IOException, InterruptedException {
+        if (port <= 0) {
+            return;
+        }
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        for (int i = 0; i < httpRequests; i++) {
+            for (String path : List.of("/login", "/actuator/health")) {
+                client.send(HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + path))
+                        .timeout(Duration.ofSeconds(5)).GET().build(), HttpResponse.BodyHandlers.discarding());
+            }
+        }
+    }
+}
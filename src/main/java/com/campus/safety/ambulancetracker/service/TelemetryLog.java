@@ -0,0 +1,400 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.model.Ambulance;
+import com.campus.safety.ambulancetracker.model.AmbulanceStatus;
+import com.campus.safety.ambulancetracker.repository.AmbulanceLocationWriter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Durable log of fleet status and position updates, replayed after a crash.
+ *
+ * Updates are appended to a preallocated, memory-mapped segment file and made durable
+ * before the caller is acknowledged. This is a log-after-apply, not write-ahead: an
+ * update is applied to the {@link FleetRegistry} and its transaction committed first,
+ * and only then appended. What is guaranteed is that an acknowledged update survives a
+ * crash. A crash between the commit and the sync loses the position of an update whose
+ * caller got no answer and will resend it; a status change in it is already in the
+ * database. Appending after the commit also keeps rolled-back updates out of the log.
+ *
+ * Durability uses group commit: one syncer thread forces the mapped pages while
+ * writers wait, so every writer that arrived during a sync shares the next one. Ingest
+ * is therefore bounded by sequential disk writes; the database only sees the batched
+ * flushes of {@link FleetRegistry}.
+ *
+ * Each record is {@code [length][crc32][payload]}. A zero length marks the end of a
+ * segment's data, and a bad checksum marks a torn write from a crash. On startup the
+ * log is replayed into the registry after it has been loaded from the database.
+ * Segments are deleted by a periodic checkpoint once the registry has flushed them.
+ *
+ * Writers wait on a {@link ReentrantLock} condition rather than a monitor: a virtual
+ * thread blocked in {@code Object.wait()} pins its carrier for the whole sync.
+ */
+@Component
+public class TelemetryLog {
+
+    private static final Logger log = LoggerFactory.getLogger(TelemetryLog.class);
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    // ambulance id, status ordinal, latitude, longitude, epoch second, nano of second
+    private static final int PAYLOAD_BYTES = Long.BYTES + 1 + Double.BYTES * 2 + Long.BYTES + Integer.BYTES;
+    private static final int RECORD_BYTES = Integer.BYTES * 2 + PAYLOAD_BYTES;
+
+    private static final AmbulanceStatus[] STATUSES = AmbulanceStatus.values();
+
+    private final FleetRegistry fleetRegistry;
+    private final AmbulanceLocationWriter locationWriter;
+    private final Path directory;
+    private final int segmentBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Signalled to the syncer when there is something to sync, and to writers after each sync
+    private final Condition appended = lock.newCondition();
+    private final Condition synced = lock.newCondition();
+
+    // Guarded by lock
+    private long segmentIndex;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int syncedPosition;
+    private long appendedSequence;
+    private long durableSequence;
+    private IOException syncFailure;
+    private boolean closed;
+
+    // Checkpoints must not delete segments before they were replayed
+    private volatile boolean replayed;
+
+    private final Thread syncer;
+
+    public TelemetryLog(FleetRegistry fleetRegistry,
+                        AmbulanceLocationWriter locationWriter,
+                        @Value("${telemetry.wal.dir:data/wal}") String directory,
+                        @Value("${telemetry.wal.segment-bytes:67108864}") int segmentBytes) throws IOException {
+        if (segmentBytes < RECORD_BYTES + Integer.BYTES) {
+            throw new IllegalArgumentException("telemetry.wal.segment-bytes is too small");
+        }
+        this.fleetRegistry = fleetRegistry;
+        this.locationWriter = locationWriter;
+        this.directory = Path.of(directory);
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(this.directory);
+
+        // Never append to a segment that may end in a torn record; start a fresh one
+        List<Long> existing = segmentIndexes();
+        segmentIndex = existing.isEmpty() ? 0 : existing.get(existing.size() - 1) + 1;
+        openSegment();
+
+        syncer = Thread.ofPlatform().name("telemetry-wal-sync").daemon().unstarted(this::syncLoop);
+        syncer.start();
+    }
+
+    /**
+     * Appends the current state of each ambulance and returns once all of it is on disk.
+     */
+    public void appendAll(List<Ambulance> snapshots) {
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        TelemetrySyncEvent event = new TelemetrySyncEvent();
+        event.begin();
+        long sequence;
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Telemetry log is closed");
+            }
+            for (Ambulance snapshot : snapshots) {
+                if (buffer.remaining() < RECORD_BYTES + Integer.BYTES) {
+                    rollSegment();
+                }
+                writeRecord(snapshot);
+            }
+            sequence = ++appendedSequence;
+            appended.signal();
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(sequence);
+        event.end();
+        if (event.shouldCommit()) {
+            event.records = snapshots.size();
+            event.bytes = (long) snapshots.size() * RECORD_BYTES;
+            event.commit();
+        }
+    }
+
+    /**
+     * Restores updates that reached the log but not the database before the last shutdown.
+     * Runs right after {@link FleetRegistry#reload()}; readings older than what the
+     * database holds are dropped by the registry as stale.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void replay() throws IOException {
+        List<Long> segments = segmentIndexes();
+        segments.remove(Long.valueOf(currentSegmentIndex()));
+        if (segments.isEmpty()) {
+            replayed = true;
+            return;
+        }
+
+        int records = 0;
+        int applied = 0;
+        List<Ambulance> statusChanges = new ArrayList<>();
+        for (Long index : segments) {
+            try (FileChannel file = FileChannel.open(segmentPath(index), StandardOpenOption.READ)) {
+                MappedByteBuffer data = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+                CRC32 crc = new CRC32();
+                while (data.remaining() >= RECORD_BYTES) {
+                    int length = data.getInt();
+                    int checksum = data.getInt();
+                    if (length != PAYLOAD_BYTES) {
+                        break;
+                    }
+                    byte[] payload = new byte[PAYLOAD_BYTES];
+                    data.get(payload);
+                    crc.reset();
+                    crc.update(payload);
+                    if ((int) crc.getValue() != checksum) {
+                        // Torn write at the tail of the segment
+                        break;
+                    }
+                    records++;
+                    Optional<FleetUpdate> update = applyRecord(ByteBuffer.wrap(payload));
+                    if (update.isPresent() && update.get().applied()) {
+                        applied++;
+                        if (update.get().statusChanged()) {
+                            statusChanges.add(update.get().current());
+                        }
+                    }
+                }
+            }
+        }
+
+        // Persist what was recovered, after which the old segments are no longer needed
+        locationWriter.batchUpdateStatuses(statusChanges);
+        fleetRegistry.flushLocations();
+        for (Long index : segments) {
+            Files.deleteIfExists(segmentPath(index));
+        }
+        replayed = true;
+        log.info("Telemetry log replayed {} records from {} segments ({} newer than the database)",
+                records, segments.size(), applied);
+    }
+
+    /**
+     * Flushes the registry and deletes every segment that was complete before the flush started.
+     * The flush waits for any concurrent one to finish writing, so no segment is deleted
+     * while positions it holds are still on their way to the database.
+     */
+    @Scheduled(fixedDelayString = "${telemetry.wal.checkpoint-interval-ms:30000}")
+    public void checkpoint() throws IOException {
+        if (!replayed) {
+            return;
+        }
+        long mark = currentSegmentIndex();
+        fleetRegistry.flushLocations();
+        for (Long index : segmentIndexes()) {
+            if (index < mark) {
+                Files.deleteIfExists(segmentPath(index));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            appended.signal();
+            synced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        syncer.interrupt();
+        lock.lock();
+        try {
+            buffer.force();
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long currentSegmentIndex() {
+        lock.lock();
+        try {
+            return segmentIndex;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitDurable(long sequence) {
+        lock.lock();
+        try {
+            while (durableSequence < sequence) {
+                if (syncFailure != null) {
+                    throw new UncheckedIOException("Telemetry log sync failed", syncFailure);
+                }
+                if (closed) {
+                    throw new IllegalStateException("Telemetry log closed before the update was synced");
+                }
+                try {
+                    synced.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the telemetry log", e);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void syncLoop() {
+        while (true) {
+            MappedByteBuffer toForce;
+            int from;
+            int to;
+            long target;
+            lock.lock();
+            try {
+                while (appendedSequence == durableSequence && !closed) {
+                    try {
+                        appended.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closed) {
+                    return;
+                }
+                toForce = buffer;
+                from = syncedPosition;
+                to = buffer.position();
+                target = appendedSequence;
+            } finally {
+                lock.unlock();
+            }
+            // Writers that append while this runs are covered by the next round. Only the
+            // range written since the last sync is forced; msync of the whole mapping is far slower.
+            try {
+                toForce.force(from, to - from);
+            } catch (UncheckedIOException e) {
+                lock.lock();
+                try {
+                    syncFailure = e.getCause();
+                    synced.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+            lock.lock();
+            try {
+                durableSequence = Math.max(durableSequence, target);
+                if (buffer == toForce) {
+                    syncedPosition = Math.max(syncedPosition, to);
+                }
+                synced.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void writeRecord(Ambulance snapshot) {
+        ByteBuffer payload = ByteBuffer.allocate(PAYLOAD_BYTES);
+        LocalDateTime time = snapshot.getLastUpdated() != null ? snapshot.getLastUpdated() : LocalDateTime.now();
+        payload.putLong(snapshot.getId());
+        payload.put((byte) snapshot.getStatus().ordinal());
+        payload.putDouble(snapshot.getLatitude());
+        payload.putDouble(snapshot.getLongitude());
+        payload.putLong(time.toEpochSecond(ZoneOffset.UTC));
+        payload.putInt(time.getNano());
+
+        CRC32 crc = new CRC32();
+        crc.update(payload.array());
+        buffer.putInt(PAYLOAD_BYTES);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(payload.array());
+    }
+
+    private Optional<FleetUpdate> applyRecord(ByteBuffer payload) {
+        Long ambulanceId = payload.getLong();
+        AmbulanceStatus status = STATUSES[payload.get()];
+        double latitude = payload.getDouble();
+        double longitude = payload.getDouble();
+        LocalDateTime time = LocalDateTime.ofEpochSecond(payload.getLong(), payload.getInt(), ZoneOffset.UTC);
+        return fleetRegistry.apply(ambulanceId, status, latitude, longitude, time);
+    }
+
+    /**
+     * Called with the lock held when the current segment is full.
+     */
+    private void rollSegment() {
+        try {
+            // Records already in this segment must be durable before writers move on
+            buffer.force();
+            channel.close();
+            segmentIndex++;
+            openSegment();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not roll telemetry log segment", e);
+        }
+    }
+
+    private void openSegment() throws IOException {
+        channel = FileChannel.open(segmentPath(segmentIndex),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Mapping past the end grows the file; unwritten bytes read back as zero
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        syncedPosition = 0;
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private List<Long> segmentIndexes() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return new ArrayList<>(files
+                    .map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList());
+        }
+    }
+}
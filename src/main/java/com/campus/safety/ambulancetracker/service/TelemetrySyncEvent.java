@@ -0,0 +1,28 @@
+package com.campus.safety.ambulancetracker.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one append to the {@link TelemetryLog}, from the write until the
+ * records are durable. Includes the wait for the group commit.
+ */
+@Name("com.campus.safety.ambulancetracker.TelemetrySync")
+@Label("Telemetry Log Sync")
+@Category({"Ambulance Tracker", "Telemetry"})
+@Description("Appending updates to the telemetry log and waiting until they are on disk")
+@StackTrace(false)
+final class TelemetrySyncEvent extends Event {
+
+    @Label("Records")
+    int records;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+}
@@ -0,0 +1,171 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.dto.TrackPoint;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Append-only, delta-encoded run of positions for one ambulance.
+ *
+ * Each point is stored as three zigzag varints: milliseconds since the previous point
+ * and the change in latitude and longitude in units of 1e-7 degrees (~1 cm). A unit
+ * pinging every few seconds while driving typically costs 5 to 7 bytes per point,
+ * against 24+ for a row per ping. The first point is encoded against zero.
+ * Not thread-safe; {@link LocationHistory} serializes access per ambulance.
+ */
+final class TrackSegment {
+
+    private static final double SCALE = 1e7;
+
+    private final Long ambulanceId;
+    private final long hour;
+
+    private byte[] buffer = new byte[64];
+    private int size;
+    private int count;
+    private long firstMillis;
+    private long lastMillis;
+    private int lastLatitude;
+    private int lastLongitude;
+
+    TrackSegment(Long ambulanceId, long hour) {
+        this.ambulanceId = ambulanceId;
+        this.hour = hour;
+    }
+
+    void append(LocalDateTime time, double latitude, double longitude) {
+        long millis = toMillis(time);
+        int lat = (int) Math.round(latitude * SCALE);
+        int lng = (int) Math.round(longitude * SCALE);
+        writeVarLong(millis - lastMillis);
+        writeVarLong(lat - lastLatitude);
+        writeVarLong(lng - lastLongitude);
+        if (count == 0) {
+            firstMillis = millis;
+        }
+        lastMillis = millis;
+        lastLatitude = lat;
+        lastLongitude = lng;
+        count++;
+    }
+
+    Long ambulanceId() {
+        return ambulanceId;
+    }
+
+    long hour() {
+        return hour;
+    }
+
+    int count() {
+        return count;
+    }
+
+    boolean isEmpty() {
+        return count == 0;
+    }
+
+    LocalDateTime startTime() {
+        return toTime(firstMillis);
+    }
+
+    LocalDateTime endTime() {
+        return toTime(lastMillis);
+    }
+
+    /**
+     * Time of the last point, or null when empty.
+     */
+    LocalDateTime lastTime() {
+        return count == 0 ? null : toTime(lastMillis);
+    }
+
+    byte[] toBytes() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    /**
+     * Decodes every point of an encoded segment that falls within [from, to].
+     */
+    static List<TrackPoint> decode(byte[] data, LocalDateTime from, LocalDateTime to) {
+        long fromMillis = toMillis(from);
+        long toMillis = toMillis(to);
+        List<TrackPoint> points = new ArrayList<>();
+        int[] pos = {0};
+        long millis = 0;
+        long lat = 0;
+        long lng = 0;
+        while (pos[0] < data.length) {
+            millis += readVarLong(data, pos);
+            lat += readVarLong(data, pos);
+            lng += readVarLong(data, pos);
+            if (millis > toMillis) {
+                break;
+            }
+            if (millis >= fromMillis) {
+                points.add(new TrackPoint(toTime(millis), lat / SCALE, lng / SCALE));
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Re-encodes points so that at most one is kept per {@code resolutionSeconds},
+     * always keeping the first and the last.
+     */
+    static TrackSegment downsample(Long ambulanceId, List<TrackPoint> points, int resolutionSeconds) {
+        TrackSegment thinned = new TrackSegment(ambulanceId, -1);
+        long bucketMillis = resolutionSeconds * 1000L;
+        long lastBucket = Long.MIN_VALUE;
+        for (int i = 0; i < points.size(); i++) {
+            TrackPoint point = points.get(i);
+            long bucket = Math.floorDiv(toMillis(point.time()), bucketMillis);
+            if (bucket != lastBucket || i == points.size() - 1) {
+                thinned.append(point.time(), point.latitude(), point.longitude());
+                lastBucket = bucket;
+            }
+        }
+        return thinned;
+    }
+
+    static long hourOf(LocalDateTime time) {
+        return Math.floorDiv(toMillis(time), 3_600_000L);
+    }
+
+    private void writeVarLong(long value) {
+        long zigzag = (value << 1) ^ (value >> 63);
+        if (buffer.length - size < 10) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        while ((zigzag & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        buffer[size++] = (byte) zigzag;
+    }
+
+    private static long readVarLong(byte[] data, int[] pos) {
+        long zigzag = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[pos[0]++];
+            zigzag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime toTime(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L),
+                (int) Math.floorMod(millis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+}
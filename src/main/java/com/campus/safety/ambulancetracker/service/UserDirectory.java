@@ -0,0 +1,154 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.dto.UserMatch;
+import com.campus.safety.ambulancetracker.dto.UserSummary;
+import com.campus.safety.ambulancetracker.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory prefix index over the user directory for requester typeahead.
+ *
+ * Every user is indexed under their username, first name, last name, full name,
+ * email and the digits of their contact number (with and without country code),
+ * lower-cased. Keys are kept sorted in a skip list as {@code term + '\0' + id}, so
+ * all keys starting with a prefix are one contiguous range: a lookup is an O(log n)
+ * seek plus a scan of at most a few entries per match. Loaded at startup and kept current by {@link UserService#save}.
+ */
+@Component
+public class UserDirectory {
+
+    private static final Logger log = LoggerFactory.getLogger(UserDirectory.class);
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+    private static final char TERM_END = '\0';
+    private static final int LOCAL_NUMBER_DIGITS = 10;
+
+    private final UserRepository userRepository;
+
+    private final ConcurrentSkipListMap<String, UserMatch> index = new ConcurrentSkipListMap<>();
+    private final Map<Long, List<String>> keysByUser = new ConcurrentHashMap<>();
+
+    public UserDirectory(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Indexes every user, reading them a page at a time.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        index.clear();
+        keysByUser.clear();
+        long afterId = 0;
+        List<UserSummary> page;
+        while (!(page = userRepository.findPageAfter(afterId, Limit.of(LOAD_BATCH_SIZE))).isEmpty()) {
+            page.forEach(this::put);
+            afterId = page.get(page.size() - 1).id();
+        }
+        log.info("User directory indexed {} users", keysByUser.size());
+    }
+
+    /**
+     * Adds a user, or replaces the entries of one whose details changed.
+     */
+    public void put(UserSummary user) {
+        UserMatch match = UserMatch.from(user);
+        List<String> keys = new ArrayList<>();
+        for (String term : termsOf(user)) {
+            keys.add(term + TERM_END + user.id());
+        }
+        keysByUser.compute(user.id(), (id, previous) -> {
+            if (previous != null) {
+                previous.forEach(index::remove);
+            }
+            keys.forEach(key -> index.put(key, match));
+            return keys;
+        });
+    }
+
+    /**
+     * Up to {@code limit} distinct users with any indexed term starting with the query,
+     * ordered by the matching term. Case and, for phone numbers, punctuation are ignored.
+     */
+    public List<UserMatch> search(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        NavigableMap<String, UserMatch> range = index.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        Map<Long, UserMatch> matches = new LinkedHashMap<>();
+        for (UserMatch match : range.values()) {
+            matches.putIfAbsent(match.id(), match);
+            if (matches.size() == limit) {
+                break;
+            }
+        }
+        return List.copyOf(matches.values());
+    }
+
+    public boolean contains(Long userId) {
+        return keysByUser.containsKey(userId);
+    }
+
+    public int size() {
+        return keysByUser.size();
+    }
+
+    private static Set<String> termsOf(UserSummary user) {
+        Set<String> terms = new HashSet<>();
+        addTerm(terms, user.username());
+        addTerm(terms, user.firstName());
+        addTerm(terms, user.lastName());
+        if (user.firstName() != null && user.lastName() != null) {
+            addTerm(terms, user.firstName() + " " + user.lastName());
+        }
+        addTerm(terms, user.email());
+        if (user.contactNumber() != null) {
+            String digits = digitsOf(user.contactNumber());
+            addTerm(terms, digits);
+            // Also findable by the local number when stored with a country code
+            if (digits.length() > LOCAL_NUMBER_DIGITS) {
+                addTerm(terms, digits.substring(digits.length() - LOCAL_NUMBER_DIGITS));
+            }
+        }
+        return terms;
+    }
+
+    private static void addTerm(Set<String> terms, String value) {
+        if (value != null) {
+            String term = value.trim().toLowerCase(Locale.ROOT);
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+    }
+
+    private static String normalize(String query) {
+        if (query == null) {
+            return "";
+        }
+        String trimmed = query.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+        // "+91 98765-43210" should find the number however it was typed
+        return trimmed.matches("[0-9+()\\-. ]+") ? digitsOf(trimmed) : trimmed;
+    }
+
+    private static String digitsOf(String value) {
+        return value.replaceAll("[^0-9]", "");
+    }
+}
@@ -1,13 +1,19 @@
 package com.campus.safety.ambulancetracker.service;
 
+import com.campus.safety.ambulancetracker.dto.KeysetPage;
+import com.campus.safety.ambulancetracker.dto.UserMatch;
+import com.campus.safety.ambulancetracker.dto.UserSummary;
 import com.campus.safety.ambulancetracker.model.User;
 import com.campus.safety.ambulancetracker.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
 public class UserService {
@@ -18,6 +24,9 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UserDirectory userDirectory;
+
     /**
      * Finds a user by ID. Used by EmergencyRequestService.
      */
@@ -31,7 +40,9 @@ public class UserService {
     public User save(User user) {
         // Encode password before saving
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userDirectory.put(UserSummary.from(saved));
+        return saved;
     }
     
     /**
@@ -41,6 +52,28 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    /**
+     * Users with an id above {@code afterId}, by id.
+     */
+    public KeysetPage<UserSummary> findPage(long afterId, int limit) {
+        return KeysetPage.of(userRepository.findPageAfter(afterId, Limit.of(limit + 1)), limit,
+                UserSummary::id, Function.identity());
+    }
+
+    /**
+     * All users, read lazily in pages of {@code batchSize}.
+     */
+    public Stream<UserSummary> streamAll(int batchSize) {
+        return KeysetPage.streamAll(afterId -> findPage(afterId, batchSize));
+    }
+
+    /**
+     * Typeahead lookup by username, name, email or contact number prefix.
+     */
+    public List<UserMatch> search(String query, int limit) {
+        return userDirectory.search(query, limit);
+    }
+
     /**
      * Find user by username (for login)
      */
@@ -0,0 +1,63 @@
+package com.campus.safety.ambulancetracker;
+
+import com.campus.safety.ambulancetracker.repository.SeedVersionRepository;
+import com.campus.safety.ambulancetracker.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Boots the application twice on one new embedded database: a first boot that seeds
+ * an empty schema, then a restart. Runs in the {@code startup} Maven profile, never
+ * against the MySQL database configured for development.
+ */
+class StartupTest {
+
+	// Generous, so a slow CI machine does not fail the build; the times are printed for comparison
+	private static final long RESTART_BUDGET_MILLIS = 60_000;
+
+	@Test
+	void restartSkipsSeedingAndIsReadyOnlyAfterWarmup(@TempDir Path data) {
+		String[] args = {"--server.port=0", "--server.address=127.0.0.1",
+				"--spring.datasource.url=jdbc:h2:file:" + data.resolve("db") + ";MODE=MySQL;DB_CLOSE_ON_EXIT=FALSE",
+				"--spring.datasource.driver-class-name=org.h2.Driver",
+				"--spring.datasource.username=sa",
+				"--spring.datasource.password=",
+				"--spring.jpa.show-sql=false",
+				"--telemetry.wal.dir=" + data.resolve("wal"),
+				"--intake.journal.dir=" + data.resolve("intake")};
+
+		long start = System.nanoTime();
+		String adminPassword;
+		try (ConfigurableApplicationContext first = boot(args)) {
+			assertEquals(1, first.getBean(SeedVersionRepository.class).count(), "first boot seeds the empty schema");
+			adminPassword = first.getBean(UserRepository.class).findByUsername("admin").orElseThrow().getPassword();
+		}
+		long firstMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		start = System.nanoTime();
+		try (ConfigurableApplicationContext second = boot(args)) {
+			long secondMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			System.out.println(">>> Startup: first boot " + firstMillis + " ms, restart " + secondMillis + " ms <<<");
+
+			assertEquals(ReadinessState.ACCEPTING_TRAFFIC, second.getBean(ApplicationAvailability.class).getReadinessState());
+			assertEquals(adminPassword,
+					second.getBean(UserRepository.class).findByUsername("admin").orElseThrow().getPassword());
+			assertEquals(1, second.getBean(SeedVersionRepository.class).count());
+			assertTrue(secondMillis < RESTART_BUDGET_MILLIS, "restart took " + secondMillis + " ms");
+		}
+	}
+
+	private static ConfigurableApplicationContext boot(String[] args) {
+		return new SpringApplicationBuilder(AmbulanceTrackerApplication.class).run(args);
+	}
+}
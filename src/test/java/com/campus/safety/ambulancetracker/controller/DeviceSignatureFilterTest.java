@@ -0,0 +1,134 @@
+package com.campus.safety.ambulancetracker.controller;
+
+import com.campus.safety.ambulancetracker.service.DeviceKeyCache;
+import com.campus.safety.ambulancetracker.service.DeviceSignature;
+import com.campus.safety.ambulancetracker.service.SignatureReplayCache;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DeviceSignatureFilterTest {
+
+	private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+	private static final String BODY = "[{\"ambulanceId\":7,\"status\":\"EN_ROUTE\",\"lat\":12.9,\"lng\":77.6}]";
+
+	private final DeviceKeyCache keyCache = mock(DeviceKeyCache.class);
+	private final DeviceSignatureFilter filter = new DeviceSignatureFilter(keyCache, new SignatureReplayCache(300, 100),
+			300, 1024);
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void signedRequestAuthenticatesAsTheKeysAmbulanceAndKeepsItsBody() throws Exception {
+		when(keyCache.find("dk_1")).thenReturn(Optional.of(new DeviceKeyCache.DeviceKey("dk_1", 7L, SECRET)));
+		MockHttpServletRequest request = signed("dk_1", BODY, System.currentTimeMillis() / 1000);
+		MockFilterChain chain = new MockFilterChain();
+
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		assertEquals(7L, assertInstanceOf(DeviceAuthentication.class, authentication).getAmbulanceId());
+		assertEquals(BODY, new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void theBufferedBodyCanBeReadWithoutBlocking() throws Exception {
+		when(keyCache.find("dk_1")).thenReturn(Optional.of(new DeviceKeyCache.DeviceKey("dk_1", 7L, SECRET)));
+		MockFilterChain chain = new MockFilterChain();
+		filter.doFilter(signed("dk_1", BODY, System.currentTimeMillis() / 1000), new MockHttpServletResponse(), chain);
+
+		ServletInputStream in = chain.getRequest().getInputStream();
+		ByteArrayOutputStream read = new ByteArrayOutputStream();
+		AtomicBoolean complete = new AtomicBoolean();
+		in.setReadListener(new ReadListener() {
+			@Override
+			public void onDataAvailable() throws IOException {
+				byte[] buffer = new byte[16];
+				int n;
+				while (in.isReady() && (n = in.read(buffer)) != -1) {
+					read.write(buffer, 0, n);
+				}
+			}
+
+			@Override
+			public void onAllDataRead() {
+				complete.set(true);
+			}
+
+			@Override
+			public void onError(Throwable error) {
+				throw new AssertionError(error);
+			}
+		});
+
+		assertTrue(complete.get());
+		assertEquals(BODY, read.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void tamperedStaleOrUnknownRequestsAreRejected() throws Exception {
+		when(keyCache.find("dk_1")).thenReturn(Optional.of(new DeviceKeyCache.DeviceKey("dk_1", 7L, SECRET)));
+		when(keyCache.find("dk_gone")).thenReturn(Optional.empty());
+		long now = System.currentTimeMillis() / 1000;
+
+		MockHttpServletRequest tampered = signed("dk_1", BODY, now);
+		tampered.setContent(BODY.replace("\"ambulanceId\":7", "\"ambulanceId\":8").getBytes(StandardCharsets.UTF_8));
+
+		assertEquals(401, run(tampered).getStatus());
+		assertEquals(401, run(signed("dk_1", BODY, now - 3600)).getStatus());
+		assertEquals(401, run(signed("dk_gone", BODY, now)).getStatus());
+		assertEquals(413, run(signed("dk_1", "x".repeat(2048), now)).getStatus());
+		assertNull(SecurityContextHolder.getContext().getAuthentication());
+	}
+
+	@Test
+	void aCapturedRequestCannotBeReplayed() throws Exception {
+		when(keyCache.find("dk_1")).thenReturn(Optional.of(new DeviceKeyCache.DeviceKey("dk_1", 7L, SECRET)));
+		long now = System.currentTimeMillis() / 1000;
+
+		assertEquals(200, run(signed("dk_1", BODY, now)).getStatus());
+		assertEquals(401, run(signed("dk_1", BODY, now)).getStatus());
+		// A new reading is a new signature
+		assertEquals(200, run(signed("dk_1", BODY.replace("12.9", "12.8"), now)).getStatus());
+	}
+
+	private MockHttpServletResponse run(MockHttpServletRequest request) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+
+	private static MockHttpServletRequest signed(String keyId, String body, long timestamp) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/ambulances/telemetry");
+		request.setQueryString("batch=1");
+		byte[] content = body.getBytes(StandardCharsets.UTF_8);
+		request.setContent(content);
+		request.addHeader(DeviceSignature.KEY_HEADER, keyId);
+		request.addHeader(DeviceSignature.TIMESTAMP_HEADER, String.valueOf(timestamp));
+		request.addHeader(DeviceSignature.SIGNATURE_HEADER,
+				DeviceSignature.sign(SECRET, "POST", "/api/ambulances/telemetry?batch=1", timestamp, content));
+		return request;
+	}
+}
@@ -0,0 +1,47 @@
+package com.campus.safety.ambulancetracker.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class KeysetPageTest {
+
+	@Test
+	void extraRowOnlySignalsTheNextCursor() {
+		KeysetPage<String> full = KeysetPage.of(List.of(1L, 2L, 3L), 2, id -> id, id -> "#" + id);
+		assertEquals(List.of("#1", "#2"), full.items());
+		assertEquals(2L, full.nextCursor());
+
+		KeysetPage<String> last = KeysetPage.of(List.of(3L), 2, id -> id, id -> "#" + id);
+		assertEquals(List.of("#3"), last.items());
+		assertNull(last.nextCursor());
+	}
+
+	@Test
+	void streamAllWalksEveryPageOnlyAsFarAsConsumed() {
+		List<Long> table = LongStream.rangeClosed(1, 7).boxed().toList();
+		List<Long> cursors = new ArrayList<>();
+		int limit = 3;
+
+		List<Long> all = KeysetPage.streamAll(after -> {
+			cursors.add(after);
+			List<Long> rows = table.stream().filter(id -> id > after).limit(limit + 1).toList();
+			return KeysetPage.of(rows, limit, id -> id, id -> id);
+		}).toList();
+
+		assertEquals(table, all);
+		assertEquals(List.of(0L, 3L, 6L), cursors);
+
+		cursors.clear();
+		KeysetPage.<Long>streamAll(after -> {
+			cursors.add(after);
+			return KeysetPage.of(table.stream().filter(id -> id > after).limit(limit + 1).toList(), limit, id -> id, id -> id);
+		}).limit(2).toList();
+		assertEquals(List.of(0L), cursors);
+	}
+}
@@ -0,0 +1,52 @@
+package com.campus.safety.ambulancetracker.repository;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AdmissionControlledDataSourceTest {
+
+	@Test
+	void refusesCallersOncePermitsAndQueueAreUsedUp() throws SQLException {
+		DataSource pool = mock(DataSource.class);
+		Connection pooled = mock(Connection.class);
+		when(pool.getConnection()).thenReturn(pooled);
+		AdmissionControlledDataSource admission = new AdmissionControlledDataSource(pool, 1, 0, 0);
+
+		Connection first = admission.getConnection();
+		assertThrows(SQLTransientConnectionException.class, admission::getConnection);
+		assertEquals(1, admission.rejectedCount());
+
+		first.close();
+		first.close();
+		verify(pooled, times(2)).close();
+		assertEquals(1, admission.availablePermits());
+		admission.getConnection().close();
+	}
+
+	@Test
+	void timesOutQueuedCallersAndGivesBackThePermitWhenThePoolFails() throws SQLException {
+		DataSource pool = mock(DataSource.class);
+		when(pool.getConnection()).thenReturn(mock(Connection.class));
+		AdmissionControlledDataSource admission = new AdmissionControlledDataSource(pool, 1, 5, 20);
+
+		Connection held = admission.getConnection();
+		assertThrows(SQLTransientConnectionException.class, admission::getConnection);
+		assertEquals(0, admission.waitingCount());
+		held.close();
+
+		when(pool.getConnection()).thenThrow(new SQLException("Connection refused"));
+		assertThrows(SQLException.class, admission::getConnection);
+		assertEquals(1, admission.availablePermits());
+	}
+}
@@ -0,0 +1,94 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.controller.AmbulanceController;
+import com.campus.safety.ambulancetracker.dto.AssignmentNotice;
+import com.campus.safety.ambulancetracker.model.Ambulance;
+import com.campus.safety.ambulancetracker.model.EmergencyRequest;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AssignmentNotifierTest {
+
+	private static final LocalDateTime ASSIGNED_AT = LocalDateTime.of(2025, 3, 10, 12, 0);
+
+	private final ResponseTimeTracker responseTimes = mock(ResponseTimeTracker.class);
+
+	@Test
+	void anAssignmentPublishedWhileTheDeviceRegistersIsStillDelivered() {
+		EmergencyRequest request = assignedRequest();
+		// Publishes after await's first look at the latest assignment, before the device is parked
+		AssignmentNotifier notifier = new AssignmentNotifier(responseTimes) {
+			@Override
+			void register(Long ambulanceId, DeferredResult<ResponseEntity<AssignmentNotice>> result) {
+				publish(ambulanceId, request);
+				super.register(ambulanceId, result);
+			}
+		};
+
+		DeferredResult<ResponseEntity<AssignmentNotice>> result = notifier.await(7L, 0, 30_000);
+
+		assertTrue(result.hasResult());
+		@SuppressWarnings("unchecked")
+		ResponseEntity<AssignmentNotice> delivered = (ResponseEntity<AssignmentNotice>) result.getResult();
+		assertEquals(41L, delivered.getBody().requestId());
+		verify(responseTimes).recordNotification(eq(ASSIGNED_AT), any(LocalDateTime.class));
+	}
+
+	@Test
+	void aWaitThatRunsOutAnswers204AndLeavesNothingParked() throws Exception {
+		AmbulanceService ambulanceService = mock(AmbulanceService.class);
+		when(ambulanceService.findById(7L)).thenReturn(Optional.of(new Ambulance()));
+		AssignmentNotifier notifier = new AssignmentNotifier(responseTimes);
+		MockMvc mvc = MockMvcBuilders.standaloneSetup(
+				new AmbulanceController(ambulanceService, notifier, mock(LocationHistory.class))).build();
+
+		MvcResult pending = mvc.perform(get("/api/ambulances/7/assignment").param("timeout", "1000"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		assertEquals(1, notifier.waitingDevices());
+
+		// What the container does when the async timeout expires
+		MockAsyncContext context = (MockAsyncContext) pending.getRequest().getAsyncContext();
+		for (AsyncListener listener : context.getListeners()) {
+			listener.onTimeout(new AsyncEvent(context));
+		}
+		mvc.perform(asyncDispatch(pending)).andExpect(status().isNoContent());
+		for (AsyncListener listener : context.getListeners()) {
+			listener.onComplete(new AsyncEvent(context));
+		}
+
+		assertEquals(0, notifier.waitingDevices());
+		verify(responseTimes, never()).recordNotification(any(), any());
+	}
+
+	private static EmergencyRequest assignedRequest() {
+		EmergencyRequest request = new EmergencyRequest();
+		request.setId(41L);
+		request.setPriority("HIGH");
+		request.setStartTime(ASSIGNED_AT);
+		return request;
+	}
+}
@@ -0,0 +1,130 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.model.Ambulance;
+import com.campus.safety.ambulancetracker.model.AmbulanceStatus;
+import com.campus.safety.ambulancetracker.repository.AmbulanceLocationWriter;
+import com.campus.safety.ambulancetracker.repository.AmbulanceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Many threads dispatch against the same fleet at once; no ambulance may be claimed twice.
+ * The repository is replaced by a map with compare-and-set semantics, standing in for the
+ * conditional UPDATE, and part of the fleet is marked as already dispatched by another instance.
+ */
+class ConcurrentDispatchStressTest {
+
+	private static final int FLEET_SIZE = 300;
+	private static final int DISPATCHER_THREADS = 32;
+	private static final double BASE_LAT = 12.9716;
+	private static final double BASE_LNG = 77.5946;
+
+	@Test
+	void concurrentDispatchesNeverAssignTheSameAmbulanceTwice() throws Exception {
+		Map<Long, AmbulanceStatus> database = new ConcurrentHashMap<>();
+		Map<Long, Ambulance> rows = new ConcurrentHashMap<>();
+
+		AmbulanceRepository repository = mock(AmbulanceRepository.class);
+		when(repository.compareAndSetStatus(anyLong(), any(), any(), any())).thenAnswer(call -> {
+			Long id = call.getArgument(0);
+			AmbulanceStatus expected = call.getArgument(1);
+			AmbulanceStatus status = call.getArgument(2);
+			return database.replace(id, expected, status) ? 1 : 0;
+		});
+		when(repository.findById(anyLong())).thenAnswer(call -> {
+			Ambulance row = rows.get((Long) call.getArgument(0));
+			if (row == null) {
+				return Optional.empty();
+			}
+			Ambulance copy = FleetRegistry.snapshotOf(row);
+			copy.setStatus(database.get(row.getId()));
+			return Optional.of(copy);
+		});
+
+		FleetRegistry registry = new FleetRegistry(repository, mock(AmbulanceLocationWriter.class));
+		SpatialIndex index = new SpatialIndex(registry);
+		AmbulanceService service = new AmbulanceService(repository, mock(AmbulanceLocationWriter.class), registry, index,
+				mock(TelemetryLog.class), mock(DispatchEventStore.class), new DispatchMetrics(new SimpleMeterRegistry(), mock(PendingRequestQueue.class), registry));
+
+		Random random = new Random(42);
+		int expectedClaims = 0;
+		for (long id = 1; id <= FLEET_SIZE; id++) {
+			Ambulance ambulance = new Ambulance();
+			ambulance.setId(id);
+			ambulance.setVehicleNo("KA01-" + id);
+			ambulance.setStatus(AmbulanceStatus.AVAILABLE);
+			ambulance.setLatitude(BASE_LAT + (random.nextDouble() - 0.5) * 0.1);
+			ambulance.setLongitude(BASE_LNG + (random.nextDouble() - 0.5) * 0.1);
+			ambulance.setLastUpdated(LocalDateTime.now());
+			ambulance.setVersion(0L);
+			rows.put(id, ambulance);
+			registry.put(ambulance);
+
+			// Every tenth unit was already dispatched by another instance; only the database knows
+			boolean takenElsewhere = id % 10 == 0;
+			database.put(id, takenElsewhere ? AmbulanceStatus.EN_ROUTE : AmbulanceStatus.AVAILABLE);
+			if (!takenElsewhere) {
+				expectedClaims++;
+			}
+		}
+
+		Map<Long, Integer> claimedBy = new ConcurrentHashMap<>();
+		AtomicInteger duplicates = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(DISPATCHER_THREADS);
+		List<Future<?>> workers = new ArrayList<>();
+
+		for (int t = 0; t < DISPATCHER_THREADS; t++) {
+			int thread = t;
+			workers.add(pool.submit(() -> {
+				start.await();
+				ThreadLocalRandom rnd = ThreadLocalRandom.current();
+				while (!service.findAvailableAmbulances().isEmpty()) {
+					double lat = BASE_LAT + (rnd.nextDouble() - 0.5) * 0.1;
+					double lng = BASE_LNG + (rnd.nextDouble() - 0.5) * 0.1;
+					Optional<Ambulance> claimed = service.claimNearestAvailable(lat, lng);
+					if (claimed.isPresent() && claimedBy.putIfAbsent(claimed.get().getId(), thread) != null) {
+						duplicates.incrementAndGet();
+					}
+				}
+				return null;
+			}));
+		}
+
+		start.countDown();
+		for (Future<?> worker : workers) {
+			worker.get(60, TimeUnit.SECONDS);
+		}
+		pool.shutdown();
+
+		assertEquals(0, duplicates.get(), "ambulances assigned more than once");
+		assertEquals(expectedClaims, claimedBy.size());
+		for (Long id : claimedBy.keySet()) {
+			assertEquals(AmbulanceStatus.EN_ROUTE, database.get(id));
+		}
+		assertTrue(service.findAvailableAmbulances().isEmpty());
+		assertEquals(FLEET_SIZE, registry.findByStatus(AmbulanceStatus.EN_ROUTE).size());
+	}
+}
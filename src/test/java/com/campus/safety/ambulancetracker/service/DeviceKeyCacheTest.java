@@ -0,0 +1,39 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.model.DeviceCredential;
+import com.campus.safety.ambulancetracker.repository.DeviceCredentialRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DeviceKeyCacheTest {
+
+	@Test
+	void aFloodOfUnknownKeyIdsCannotPushOutAWorkingKey() {
+		DeviceCredentialRepository repository = mock(DeviceCredentialRepository.class);
+		DeviceCredential credential = new DeviceCredential();
+		credential.setKeyId("dk_real");
+		credential.setAmbulanceId(7L);
+		credential.setSecret(Base64.getEncoder().encodeToString(new byte[32]));
+		when(repository.findByKeyIdAndRevokedAtIsNull(anyString())).thenReturn(Optional.empty());
+		when(repository.findByKeyIdAndRevokedAtIsNull("dk_real")).thenReturn(Optional.of(credential));
+
+		DeviceKeyCache cache = new DeviceKeyCache(repository, 300, 10, 5);
+		assertTrue(cache.find("dk_real").isPresent());
+		for (int i = 0; i < 1000; i++) {
+			cache.find("dk_random_" + i);
+		}
+
+		assertTrue(cache.find("dk_real").isPresent());
+		verify(repository, times(1)).findByKeyIdAndRevokedAtIsNull("dk_real");
+		assertTrue(cache.size() <= 10 + 5);
+	}
+}
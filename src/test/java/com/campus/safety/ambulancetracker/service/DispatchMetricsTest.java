@@ -0,0 +1,46 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.model.AmbulanceStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DispatchMetricsTest {
+
+	@Test
+	void callsOutsideATransactionAreTimedByOutcome() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		DispatchMetrics metrics = new DispatchMetrics(registry, mock(PendingRequestQueue.class), mock(FleetRegistry.class));
+
+		assertEquals("done", metrics.time(DispatchMetrics.Operation.CREATE_REQUEST, () -> "done"));
+		assertThrows(IllegalArgumentException.class, () -> metrics.time(DispatchMetrics.Operation.CREATE_REQUEST, () -> {
+			throw new IllegalArgumentException("User not found");
+		}));
+
+		assertEquals(1, registry.get("dispatch.requests.create").tag("outcome", "success").timer().count());
+		assertEquals(1, registry.get("dispatch.requests.create").tag("outcome", "error").timer().count());
+		assertEquals(0, registry.get("dispatch.requests.complete").tag("outcome", "success").timer().count());
+	}
+
+	@Test
+	void gaugesReadTheQueueAndRegistryAtScrapeTime() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		PendingRequestQueue queue = mock(PendingRequestQueue.class);
+		FleetRegistry fleet = mock(FleetRegistry.class);
+		DispatchMetrics metrics = new DispatchMetrics(registry, queue, fleet);
+
+		when(queue.size()).thenReturn(3);
+		when(fleet.countByStatus(AmbulanceStatus.AVAILABLE)).thenReturn(7);
+		when(fleet.countByStatus(AmbulanceStatus.EN_ROUTE)).thenReturn(2);
+		metrics.pendingRequestAssigned();
+
+		assertEquals(3, registry.get("dispatch.pending.requests").gauge().value());
+		assertEquals(7, registry.get("fleet.units").tag("status", "AVAILABLE").gauge().value());
+		assertEquals(2, registry.get("fleet.units").tag("status", "EN_ROUTE").gauge().value());
+		assertEquals(1, registry.get("dispatch.pending.assignments").counter().count());
+	}
+}
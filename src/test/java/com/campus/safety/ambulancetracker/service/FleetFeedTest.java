@@ -0,0 +1,149 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.dto.FleetDelta;
+import com.campus.safety.ambulancetracker.model.Ambulance;
+import com.campus.safety.ambulancetracker.model.AmbulanceStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FleetFeedTest {
+
+	private final FleetRegistry registry = mock(FleetRegistry.class);
+	private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+	private final FleetFeed feed = new FleetFeed(registry, 2, false) {
+		@Override
+		SseEmitter newEmitter() {
+			RecordingEmitter emitter = new RecordingEmitter();
+			emitters.add(emitter);
+			return emitter;
+		}
+	};
+
+	@AfterEach
+	void stop() {
+		feed.shutdown();
+	}
+
+	@Test
+	void changesToOneUnitWhileASendIsInFlightGoOutAsOneDelta() throws Exception {
+		Ambulance unit = unit(1L, AmbulanceStatus.AVAILABLE, 12.9700);
+		when(registry.findAll()).thenReturn(List.of(unit));
+		feed.subscribe();
+		RecordingEmitter emitter = emitters.get(0);
+
+		// The initial state is being written; the unit moves five times meanwhile
+		assertTrue(emitter.sending.await(5, TimeUnit.SECONDS));
+		Ambulance previous = unit;
+		for (int i = 1; i <= 5; i++) {
+			Ambulance next = unit(1L, AmbulanceStatus.EN_ROUTE, 12.9700 + i / 1000.0);
+			feed.onFleetChange(previous, next);
+			previous = next;
+		}
+		emitter.release.countDown();
+
+		awaitDeltas(emitter, 2);
+		Thread.sleep(100);
+		assertEquals(List.of(FleetDelta.of(unit), FleetDelta.of(previous)), emitter.deltas);
+	}
+
+	@Test
+	void subscribersWhoseStreamFailedOrCompletedAreDropped() throws Exception {
+		when(registry.findAll()).thenReturn(List.of());
+		feed.subscribe();
+		feed.subscribe();
+		feed.subscribe();
+		emitters.forEach(emitter -> emitter.release.countDown());
+		assertEquals(3, feed.subscriberCount());
+
+		// The browser went away: the next write fails
+		emitters.get(0).failing = true;
+		// The container completed or errored the others
+		emitters.get(1).completion.run();
+		emitters.get(2).error.accept(new IOException("Broken pipe"));
+
+		feed.onFleetChange(null, unit(1L, AmbulanceStatus.AVAILABLE, 12.97));
+		long deadline = System.currentTimeMillis() + 5000;
+		while (feed.subscriberCount() > 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(0, feed.subscriberCount());
+	}
+
+	private static void awaitDeltas(RecordingEmitter emitter, int count) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (emitter.deltas.size() < count) {
+			if (System.currentTimeMillis() > deadline) {
+				fail("expected " + count + " deltas but got " + emitter.deltas);
+			}
+			Thread.sleep(10);
+		}
+	}
+
+	private static Ambulance unit(Long id, AmbulanceStatus status, double latitude) {
+		Ambulance unit = new Ambulance();
+		unit.setId(id);
+		unit.setVehicleNo("KA01MT" + id);
+		unit.setStatus(status);
+		unit.setLatitude(latitude);
+		unit.setLongitude(77.59);
+		return unit;
+	}
+
+	/**
+	 * Records the deltas sent instead of writing them, holding the first send until released.
+	 */
+	private static final class RecordingEmitter extends SseEmitter {
+
+		private final List<FleetDelta> deltas = new CopyOnWriteArrayList<>();
+		private final CountDownLatch sending = new CountDownLatch(1);
+		private final CountDownLatch release = new CountDownLatch(1);
+		private volatile boolean failing;
+		private Runnable completion;
+		private Consumer<Throwable> error;
+
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			sending.countDown();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (failing) {
+				throw new IOException("Broken pipe");
+			}
+			builder.build().stream()
+					.filter(part -> part.getData() instanceof FleetDelta)
+					.forEach(part -> deltas.add((FleetDelta) part.getData()));
+		}
+
+		@Override
+		public void onCompletion(Runnable callback) {
+			completion = callback;
+		}
+
+		@Override
+		public void onError(Consumer<Throwable> callback) {
+			error = callback;
+		}
+
+		@Override
+		public void completeWithError(Throwable ex) {
+			// Nothing to close in a test
+		}
+	}
+}
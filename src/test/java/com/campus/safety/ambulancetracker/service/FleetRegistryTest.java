@@ -0,0 +1,61 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.model.Ambulance;
+import com.campus.safety.ambulancetracker.model.AmbulanceStatus;
+import com.campus.safety.ambulancetracker.repository.AmbulanceLocationWriter;
+import com.campus.safety.ambulancetracker.repository.AmbulanceRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FleetRegistryTest {
+
+	@Test
+	void flushWaitsForAFlushAlreadyWriting() throws Exception {
+		AmbulanceRepository repository = mock(AmbulanceRepository.class);
+		AmbulanceLocationWriter writer = mock(AmbulanceLocationWriter.class);
+		Ambulance unit = new Ambulance();
+		unit.setId(1L);
+		unit.setStatus(AmbulanceStatus.AVAILABLE);
+		unit.setLatitude(12.97);
+		unit.setLongitude(77.59);
+		unit.setLastUpdated(LocalDateTime.now());
+		when(repository.findAll()).thenReturn(List.of(unit));
+
+		CountDownLatch writing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		doAnswer(call -> {
+			writing.countDown();
+			release.await();
+			return null;
+		}).when(writer).batchUpdateLocations(anyList());
+
+		FleetRegistry registry = new FleetRegistry(repository, writer);
+		registry.reload();
+		registry.apply(1L, AmbulanceStatus.AVAILABLE, 12.98, 77.60, null);
+
+		// The scheduled flush has taken the dirty id and is still writing it
+		CompletableFuture<Void> scheduled = CompletableFuture.runAsync(registry::flushLocations);
+		assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+		// A checkpoint's flush must not return before that write has finished
+		CompletableFuture<Void> checkpoint = CompletableFuture.runAsync(registry::flushLocations);
+		Thread.sleep(200);
+		assertFalse(checkpoint.isDone());
+
+		release.countDown();
+		scheduled.get(5, TimeUnit.SECONDS);
+		checkpoint.get(5, TimeUnit.SECONDS);
+	}
+}
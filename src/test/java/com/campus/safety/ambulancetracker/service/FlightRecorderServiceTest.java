@@ -0,0 +1,58 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.dto.RecordingStatus;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightRecorderServiceTest {
+
+	private final FlightRecorderService flightRecorder = new FlightRecorderService(60, 16 * 1024 * 1024);
+
+	@AfterEach
+	void closeRecording() {
+		flightRecorder.close();
+	}
+
+	@Test
+	void recordsDispatchPhasesUntilStopped() throws Exception {
+		assertThrows(IllegalArgumentException.class, flightRecorder::dump);
+
+		RecordingStatus started = flightRecorder.start("default", 600);
+		assertEquals("RUNNING", started.state());
+		assertEquals(60, started.maxDurationSeconds());
+		assertThrows(IllegalStateException.class, () -> flightRecorder.start("default", 10));
+
+		DispatchPhaseEvent phase = DispatchPhaseEvent.start(DispatchPhaseEvent.REASSIGN_PENDING);
+		phase.finish(42L, 7L);
+
+		assertEquals("STOPPED", flightRecorder.stop().state());
+		Path file = flightRecorder.dump();
+		try {
+			List<RecordedEvent> phases = RecordingFile.readAllEvents(file).stream()
+					.filter(event -> event.getEventType().getName().endsWith(".DispatchPhase"))
+					.toList();
+			assertEquals(1, phases.size());
+			assertEquals("REASSIGN_PENDING", phases.get(0).getString("phase"));
+			assertEquals(42L, phases.get(0).getLong("requestId"));
+			assertEquals(7L, phases.get(0).getLong("ambulanceId"));
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	void rejectsUnknownSettings() {
+		assertThrows(IllegalArgumentException.class, () -> flightRecorder.start("no-such-settings", 60));
+		assertTrue(flightRecorder.status().isEmpty());
+	}
+}
@@ -0,0 +1,94 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.model.RequestPriority;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntakeJournalTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void unreleasedRecordsSurviveARestartUntilReleased() throws IOException {
+		IntakeRecord withPickup = record("a", 12.97, 77.59, RequestPriority.HIGH);
+		IntakeRecord withoutPickup = record("b", null, null, RequestPriority.LOW);
+
+		IntakeJournal journal = new IntakeJournal(dir.toString(), 1024 * 1024);
+		long first = journal.append(withPickup);
+		journal.append(withoutPickup);
+		journal.append(record("c", null, null, RequestPriority.MEDIUM));
+		journal.release(first);
+		journal.close();
+
+		// A torn write after a crash ends the segment without losing what came before
+		try (Stream<Path> files = Files.list(dir)) {
+			Path segment = files.findFirst().orElseThrow();
+			Files.write(segment, new byte[]{0, 0, 0, 40, 1, 2}, StandardOpenOption.APPEND);
+		}
+
+		IntakeJournal restarted = new IntakeJournal(dir.toString(), 1024 * 1024);
+		List<IntakeJournal.Journaled> recovered = restarted.recover();
+		assertEquals(List.of(withPickup, withoutPickup, record("c", null, null, RequestPriority.MEDIUM)),
+				recovered.stream().map(IntakeJournal.Journaled::record).toList());
+
+		recovered.forEach(journaled -> restarted.release(journaled.segment()));
+		assertEquals(1, segmentCount(), "released segment should be deleted, leaving only the new one");
+		restarted.close();
+
+		IntakeJournal again = new IntakeJournal(dir.toString(), 1024 * 1024);
+		assertTrue(again.recover().isEmpty());
+		again.close();
+	}
+
+	@Test
+	void rollsToANewSegmentWhenFull() throws IOException {
+		IntakeJournal journal = new IntakeJournal(dir.toString(), 100);
+		long first = journal.append(record("a", null, null, RequestPriority.HIGH));
+		long second = journal.append(record("b", null, null, RequestPriority.HIGH));
+		assertEquals(first + 1, second);
+
+		journal.release(first);
+		assertEquals(1, segmentCount());
+		journal.close();
+	}
+
+	@Test
+	void segmentsRolledBeforeRecoveryAreNotRecoveredAgain() throws IOException {
+		IntakeJournal crashed = new IntakeJournal(dir.toString(), 100);
+		crashed.append(record("a", null, null, RequestPriority.HIGH));
+		crashed.close();
+
+		// Intakes accepted after the restart but before startup recovery, enough to roll a segment
+		IntakeJournal restarted = new IntakeJournal(dir.toString(), 100);
+		long first = restarted.append(record("b", null, null, RequestPriority.HIGH));
+		long second = restarted.append(record("c", null, null, RequestPriority.HIGH));
+		assertEquals(first + 1, second);
+
+		assertEquals(List.of(record("a", null, null, RequestPriority.HIGH)),
+				restarted.recover().stream().map(IntakeJournal.Journaled::record).toList());
+		restarted.close();
+	}
+
+	private long segmentCount() throws IOException {
+		try (Stream<Path> files = Files.list(dir)) {
+			return files.count();
+		}
+	}
+
+	private static IntakeRecord record(String suffix, Double latitude, Double longitude, RequestPriority priority) {
+		return new IntakeRecord("intake-" + suffix, 7L, "Patient " + suffix, "Campus clinic", latitude, longitude,
+				priority, LocalDateTime.of(2025, 3, 1, 10, 15, 30, 123_456_789));
+	}
+}
@@ -0,0 +1,88 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.dto.IntakeStatus;
+import com.campus.safety.ambulancetracker.dto.RequestSummary;
+import com.campus.safety.ambulancetracker.model.RequestPriority;
+import com.campus.safety.ambulancetracker.repository.ArchivedRequestRepository;
+import com.campus.safety.ambulancetracker.repository.EmergencyRequestRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IntakePipelineTest {
+
+	private final IntakeJournal journal = mock(IntakeJournal.class);
+	private final EmergencyRequestService requestService = mock(EmergencyRequestService.class);
+	private final EmergencyRequestRepository requestRepository = mock(EmergencyRequestRepository.class);
+	private final ArchivedRequestRepository archiveRepository = mock(ArchivedRequestRepository.class);
+	private final UserDirectory userDirectory = mock(UserDirectory.class);
+	private final IntakePipeline pipeline = new IntakePipeline(journal, requestService, requestRepository,
+			archiveRepository, userDirectory, mock(UserService.class), 16, 16, 60);
+
+	@AfterEach
+	void stop() throws InterruptedException {
+		pipeline.stop();
+	}
+
+	@Test
+	void aBatchThatFailsAfterCommittingIsReportedDispatchedNotRetried() throws Exception {
+		when(userDirectory.contains(1L)).thenReturn(true);
+		when(journal.recover()).thenReturn(List.of());
+		// The requests were saved, then an after-commit step threw
+		when(requestService.dispatchIntakes(anyList())).thenThrow(new IllegalStateException("after commit"));
+		when(requestRepository.findExistingIntakeIds(any())).thenAnswer(call -> Set.copyOf(call.getArgument(0)));
+		RequestSummary saved = new RequestSummary(41L, "PENDING", "HIGH", 1L, "Jo Doe", "USER", null, null,
+				"p", "d", null, null, LocalDateTime.now(), null, null);
+		when(requestRepository.findSummaryByIntakeId(any())).thenReturn(Optional.of(saved));
+
+		IntakeStatus queued = pipeline.submit(1L, "p", "d", null, null, RequestPriority.HIGH);
+		pipeline.start();
+
+		IntakeStatus status = awaitDone(queued.intakeId());
+		assertEquals(IntakeStatus.DISPATCHED, status.state());
+		assertEquals(41L, status.request().id());
+		verify(requestService, times(1)).dispatchIntakes(anyList());
+		verify(journal).release(any(Long.class));
+	}
+
+	@Test
+	void aJournaledIntakeAlreadyArchivedIsNotReplayed() throws Exception {
+		IntakeRecord archived = new IntakeRecord("intake-archived", 1L, "p", "d", null, null,
+				RequestPriority.HIGH, LocalDateTime.now().minusDays(40));
+		when(journal.recover()).thenReturn(List.of(new IntakeJournal.Journaled(3L, archived)));
+		when(requestRepository.findExistingIntakeIds(any())).thenReturn(Set.of());
+		when(archiveRepository.findExistingIntakeIds(List.of("intake-archived"))).thenReturn(Set.of("intake-archived"));
+
+		pipeline.start();
+
+		assertEquals(0, pipeline.backlog());
+		verify(journal).release(3L);
+		verify(requestService, never()).dispatchIntakes(anyList());
+	}
+
+	private IntakeStatus awaitDone(String intakeId) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (System.currentTimeMillis() < deadline) {
+			IntakeStatus status = pipeline.status(intakeId).orElseThrow();
+			if (status.done()) {
+				return status;
+			}
+			Thread.sleep(10);
+		}
+		return fail("intake was not dispatched in time");
+	}
+}
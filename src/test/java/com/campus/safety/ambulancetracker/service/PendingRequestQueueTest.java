@@ -0,0 +1,103 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.model.RequestPriority;
+import com.campus.safety.ambulancetracker.repository.EmergencyRequestRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class PendingRequestQueueTest {
+
+	private static final LocalDateTime T0 = LocalDateTime.of(2025, 3, 10, 12, 0);
+
+	private final PendingRequestQueue queue = new PendingRequestQueue(mock(EmergencyRequestRepository.class));
+
+	@Test
+	void pollsByPriorityThenRequestTimeThenId() {
+		queue.add(entry(1L, RequestPriority.LOW, T0));
+		queue.add(entry(2L, RequestPriority.MEDIUM, T0.plusMinutes(5)));
+		queue.add(entry(3L, RequestPriority.HIGH, T0.plusMinutes(9)));
+		queue.add(entry(4L, RequestPriority.MEDIUM, T0.plusMinutes(1)));
+		queue.add(entry(6L, RequestPriority.HIGH, T0.plusMinutes(2)));
+		queue.add(entry(5L, RequestPriority.HIGH, T0.plusMinutes(2)));
+
+		assertEquals(List.of(5L, 6L, 3L, 4L, 2L, 1L), drain());
+		assertEquals(0, queue.size());
+	}
+
+	@Test
+	void addingAQueuedIdAgainReplacesItsEntry() {
+		queue.add(entry(1L, RequestPriority.LOW, T0));
+		queue.add(entry(2L, RequestPriority.MEDIUM, T0));
+		// Request 1 is re-queued as more urgent, as after a rolled-back assignment
+		queue.add(entry(1L, RequestPriority.HIGH, T0.plusMinutes(3)));
+
+		assertEquals(2, queue.size());
+		assertEquals(Optional.of(entry(1L, RequestPriority.HIGH, T0.plusMinutes(3))), queue.poll());
+		assertEquals(List.of(2L), drain());
+	}
+
+	@Test
+	void concurrentPollersNeverGetTheSameEntry() throws Exception {
+		int requests = 20_000;
+		for (long id = 1; id <= requests; id++) {
+			queue.add(entry(id, RequestPriority.values()[(int) (id % 3)], T0.plusSeconds(id % 97)));
+		}
+
+		int pollers = 4;
+		ExecutorService executor = Executors.newFixedThreadPool(pollers);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<List<Long>>> results = new ArrayList<>();
+		for (int i = 0; i < pollers; i++) {
+			results.add(executor.submit(() -> {
+				start.await();
+				List<Long> taken = new ArrayList<>();
+				Optional<PendingRequestQueue.Entry> next;
+				while ((next = queue.poll()).isPresent()) {
+					taken.add(next.get().requestId());
+				}
+				return taken;
+			}));
+		}
+		start.countDown();
+
+		List<Long> all = new ArrayList<>();
+		for (Future<List<Long>> result : results) {
+			all.addAll(result.get(30, TimeUnit.SECONDS));
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+		Set<Long> distinct = new HashSet<>(all);
+		assertEquals(requests, all.size(), "every entry is polled exactly once");
+		assertEquals(requests, distinct.size());
+		assertEquals(0, queue.size());
+	}
+
+	private List<Long> drain() {
+		List<Long> ids = new ArrayList<>();
+		Optional<PendingRequestQueue.Entry> next;
+		while ((next = queue.poll()).isPresent()) {
+			ids.add(next.get().requestId());
+		}
+		return ids;
+	}
+
+	private static PendingRequestQueue.Entry entry(long id, RequestPriority priority, LocalDateTime requestTime) {
+		return new PendingRequestQueue.Entry(id, priority, requestTime);
+	}
+}
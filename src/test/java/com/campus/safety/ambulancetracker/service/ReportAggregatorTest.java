@@ -0,0 +1,251 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.model.AmbulanceStatus;
+import com.campus.safety.ambulancetracker.model.DispatchEvent;
+import com.campus.safety.ambulancetracker.model.ProjectionSnapshot;
+import com.campus.safety.ambulancetracker.repository.ArchivedRequestRepository;
+import com.campus.safety.ambulancetracker.repository.EmergencyRequestRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReportAggregatorTest {
+
+	private static final LocalDateTime T0 = LocalDateTime.of(2025, 3, 10, 12, 0);
+
+	private final DispatchEventStore store = mock(DispatchEventStore.class);
+	private final EmergencyRequestRepository requestRepository = mock(EmergencyRequestRepository.class);
+	private final ArchivedRequestRepository archiveRepository = mock(ArchivedRequestRepository.class);
+	private final List<DispatchEvent> log = new ArrayList<>();
+	private final List<ProjectionSnapshot> saved = new ArrayList<>();
+
+	@BeforeEach
+	void fakeStore() {
+		doAnswer(call -> {
+			long after = call.getArgument(0);
+			long through = call.getArgument(1);
+			Consumer<DispatchEvent> consumer = call.getArgument(2);
+			List<DispatchEvent> range = log.stream().filter(e -> e.getId() > after && e.getId() <= through).toList();
+			range.forEach(consumer);
+			return (long) range.size();
+		}).when(store).replay(anyLong(), anyLong(), any());
+		doAnswer(call -> {
+			saved.add(new ProjectionSnapshot(call.getArgument(0), call.getArgument(1), call.getArgument(2), T0));
+			return null;
+		}).when(store).saveSnapshot(anyString(), anyLong(), anyString());
+		when(store.loadSnapshot(ReportAggregator.SNAPSHOT_NAME))
+				.thenAnswer(call -> saved.isEmpty() ? Optional.empty() : Optional.of(saved.get(saved.size() - 1)));
+		when(store.latestPosition()).thenAnswer(call -> log.stream().mapToLong(DispatchEvent::getId).max().orElse(0));
+	}
+
+	@Test
+	void countersFollowEachRequestTransition() {
+		ReportAggregator aggregator = aggregator();
+		aggregator.rebuild();
+
+		append(DispatchEvent.requested(1L, "HIGH", T0), aggregator);
+		append(DispatchEvent.requested(2L, "LOW", T0), aggregator);
+		append(DispatchEvent.requested(3L, "MEDIUM", T0), aggregator);
+		append(DispatchEvent.assigned(1L, 7L, T0, T0.plusMinutes(1)), aggregator);
+		append(DispatchEvent.assigned(2L, 8L, T0, T0.plusMinutes(2)), aggregator);
+		append(DispatchEvent.completed(1L, 7L, "ASSIGNED", T0.plusMinutes(1), T0.plusMinutes(11)), aggregator);
+		append(DispatchEvent.completed(2L, 8L, "ASSIGNED", T0.plusMinutes(2), T0.plusMinutes(7)), aggregator);
+		// Unit status changes are not request transitions
+		append(DispatchEvent.unitStatus(8L, AmbulanceStatus.EN_ROUTE, AmbulanceStatus.AVAILABLE, T0), aggregator);
+		append(DispatchEvent.requested(4L, "HIGH", T0.plusMinutes(8)), aggregator);
+		append(DispatchEvent.assigned(4L, 8L, T0.plusMinutes(8), T0.plusMinutes(8)), aggregator);
+
+		ReportAggregator.Snapshot midway = aggregator.snapshot();
+		assertEquals(4, midway.totalRequests());
+		assertEquals(1, midway.pendingRequests());
+		assertEquals(1, midway.assignedRequests());
+		assertEquals(2, midway.completedRequests());
+		assertEquals(900, midway.durationSecondsSum());
+		assertEquals(2, midway.durationCount());
+
+		// Unit 8 overtakes unit 7 as the busiest
+		append(DispatchEvent.completed(4L, 8L, "ASSIGNED", T0.plusMinutes(8), T0.plusMinutes(10)), aggregator);
+		ReportAggregator.Snapshot kpis = aggregator.snapshot();
+		assertEquals(0, kpis.assignedRequests());
+		assertEquals(3, kpis.completedRequests());
+		assertEquals(1020, kpis.durationSecondsSum());
+		assertEquals(3, kpis.durationCount());
+		assertEquals(8L, kpis.busiestAmbulanceId());
+		assertEquals(2, kpis.busiestAmbulanceCompletions());
+	}
+
+	@Test
+	void firstStartCountsLiveAndArchivedRequests() {
+		ReportAggregator aggregator = aggregator();
+		when(requestRepository.count()).thenReturn(5L);
+		when(requestRepository.countByStatus("PENDING")).thenReturn(1L);
+		when(requestRepository.countByStatus("ASSIGNED")).thenReturn(1L);
+		when(requestRepository.countByStatus("COMPLETED")).thenReturn(3L);
+		when(archiveRepository.count()).thenReturn(4L);
+		when(requestRepository.streamCompletedDurations()).thenAnswer(call -> Stream.of(
+				new Object[]{T0, T0.plusSeconds(60)}, new Object[]{T0, T0.plusSeconds(120)}));
+		when(archiveRepository.streamCompletedDurations()).thenAnswer(call -> Stream.<Object[]>of(
+				new Object[]{T0, T0.plusSeconds(30)}));
+		when(requestRepository.findBusiestAmbulanceIdJPQL()).thenReturn(List.<Object[]>of(new Object[]{7L, 3L}));
+		when(archiveRepository.countCompletionsByAmbulance())
+				.thenReturn(List.of(new Object[]{7L, 1L}, new Object[]{9L, 3L}));
+
+		aggregator.rebuild();
+
+		ReportAggregator.Snapshot kpis = aggregator.snapshot();
+		assertEquals(9, kpis.totalRequests());
+		assertEquals(1, kpis.pendingRequests());
+		assertEquals(1, kpis.assignedRequests());
+		assertEquals(7, kpis.completedRequests());
+		assertEquals(210, kpis.durationSecondsSum());
+		assertEquals(3, kpis.durationCount());
+		assertEquals(7L, kpis.busiestAmbulanceId());
+		assertEquals(4, kpis.busiestAmbulanceCompletions());
+		assertEquals(1, saved.size(), "the table counts are saved as the first snapshot");
+	}
+
+	@Test
+	void restartRestoresTheSnapshotAndReplaysOnlyTheTail() {
+		ReportAggregator live = aggregator();
+		live.rebuild();
+		assertEquals(1, saved.size(), "first start saves the table counts as the first snapshot");
+
+		// Two requests: one assigned straight away and completed, one left pending
+		append(DispatchEvent.requested(1L, "HIGH", T0), live);
+		append(DispatchEvent.assigned(1L, 7L, T0, T0.plusSeconds(30)), live);
+		append(DispatchEvent.requested(2L, "LOW", T0.plusMinutes(1)), live);
+		append(DispatchEvent.unitStatus(7L, null, AmbulanceStatus.EN_ROUTE, T0), live);
+		append(DispatchEvent.completed(1L, 7L, "ASSIGNED", T0.plusSeconds(30), T0.plusMinutes(10).plusSeconds(30)), live);
+
+		// Only the first three have settled when the snapshot is taken
+		when(store.settledPosition(0)).thenReturn(3L);
+		live.takeSnapshot();
+		assertEquals(3L, saved.get(saved.size() - 1).getPosition());
+
+		ReportAggregator restarted = aggregator();
+		restarted.rebuild();
+		assertEquals(live.snapshot(), restarted.snapshot());
+
+		ReportAggregator.Snapshot kpis = restarted.snapshot();
+		assertEquals(2, kpis.totalRequests());
+		assertEquals(1, kpis.pendingRequests());
+		assertEquals(0, kpis.assignedRequests());
+		assertEquals(1, kpis.completedRequests());
+		assertEquals(600, kpis.durationSecondsSum());
+		assertEquals(7L, kpis.busiestAmbulanceId());
+
+		// Events already replayed are not counted again when their commit is published late
+		restarted.onDispatchEvent(log.get(4));
+		assertEquals(kpis, restarted.snapshot());
+		// Only the very first start scanned the request table
+		verify(requestRepository, times(1)).streamCompletedDurations();
+	}
+
+	@Test
+	void nothingSettledLeavesTheSnapshotAlone() {
+		ReportAggregator aggregator = aggregator();
+		aggregator.rebuild();
+		append(DispatchEvent.requested(1L, "HIGH", T0), aggregator);
+		when(store.settledPosition(0)).thenReturn(0L);
+
+		aggregator.takeSnapshot();
+
+		assertEquals(1, saved.size());
+		verify(store, never()).saveSnapshot(eq(ReportAggregator.SNAPSHOT_NAME), eq(1L), anyString());
+	}
+
+	@Test
+	void eventsPublishedDuringTheRebuildAreCountedOnceAfterIt() {
+		ReportAggregator first = aggregator();
+		first.rebuild();
+		append(DispatchEvent.requested(1L, "HIGH", T0), first);
+		when(store.settledPosition(0)).thenReturn(1L);
+		first.takeSnapshot();
+
+		ReportAggregator restarted = aggregator();
+		DispatchEvent before = numbered(DispatchEvent.requested(2L, "LOW", T0), 2);
+		DispatchEvent during = numbered(DispatchEvent.requested(3L, "LOW", T0), 3);
+		log.add(before);
+		// Request 3 commits while the replay is reading; both commits are published to the old counters
+		doAnswer(call -> {
+			Consumer<DispatchEvent> consumer = call.getArgument(2);
+			consumer.accept(before);
+			log.add(during);
+			restarted.onDispatchEvent(before);
+			restarted.onDispatchEvent(during);
+			return 1L;
+		}).when(store).replay(eq(1L), anyLong(), any());
+
+		restarted.rebuild();
+
+		assertEquals(3, restarted.snapshot().totalRequests());
+		assertEquals(3, restarted.snapshot().pendingRequests());
+	}
+
+	@Test
+	void aLowerIdCommittingAfterTheRebuildIsStillCounted() {
+		ReportAggregator first = aggregator();
+		first.rebuild();
+		append(DispatchEvent.requested(1L, "HIGH", T0), first);
+		when(store.settledPosition(0)).thenReturn(1L);
+		first.takeSnapshot();
+
+		// Event 2 was numbered first but its transaction is still open when event 3 commits
+		DispatchEvent slow = numbered(DispatchEvent.requested(2L, "LOW", T0), 2);
+		DispatchEvent committed = numbered(DispatchEvent.requested(3L, "LOW", T0), 3);
+		log.add(committed);
+
+		ReportAggregator restarted = aggregator();
+		restarted.rebuild();
+		assertEquals(2, restarted.snapshot().totalRequests());
+
+		log.add(1, slow);
+		restarted.onDispatchEvent(slow);
+		restarted.onDispatchEvent(committed);
+		assertEquals(3, restarted.snapshot().totalRequests());
+
+		// Once both have settled the snapshot folds them in, each once
+		when(store.settledPosition(1)).thenReturn(3L);
+		restarted.takeSnapshot();
+		assertEquals(3L, saved.get(saved.size() - 1).getPosition());
+		ReportAggregator again = aggregator();
+		again.rebuild();
+		assertEquals(restarted.snapshot(), again.snapshot());
+	}
+
+	private ReportAggregator aggregator() {
+		when(requestRepository.streamCompletedDurations()).thenAnswer(call -> Stream.empty());
+		when(archiveRepository.streamCompletedDurations()).thenAnswer(call -> Stream.empty());
+		return new ReportAggregator(requestRepository, archiveRepository, store, new ObjectMapper());
+	}
+
+	private void append(DispatchEvent event, ReportAggregator aggregator) {
+		log.add(numbered(event, log.size() + 1));
+		aggregator.onDispatchEvent(event);
+	}
+
+	private static DispatchEvent numbered(DispatchEvent event, long id) {
+		event.setId(id);
+		event.setRecordedAt(event.getOccurredAt());
+		return event;
+	}
+}
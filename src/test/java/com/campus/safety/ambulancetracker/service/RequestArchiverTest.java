@@ -0,0 +1,91 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.repository.ArchivedRequestRepository;
+import com.campus.safety.ambulancetracker.repository.EmergencyRequestRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RequestArchiverTest {
+
+	private static final LocalDateTime CUTOFF = LocalDateTime.of(2025, 2, 1, 0, 0);
+
+	private final EmergencyRequestRepository requestRepository = mock(EmergencyRequestRepository.class);
+	private final ArchivedRequestRepository archiveRepository = mock(ArchivedRequestRepository.class);
+	private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+	@Test
+	void movesFullBatchesUntilAShortOneAndCommitsEach() {
+		when(requestRepository.findCompletedIdsEndedBefore(eq(CUTOFF), any(Limit.class)))
+				.thenReturn(List.of(1L, 2L), List.of(3L, 4L), List.of(5L));
+		when(archiveRepository.copyFromLive(anyList(), any())).thenAnswer(call -> ((List<?>) call.getArgument(0)).size());
+		when(requestRepository.deleteCompletedByIdIn(anyList())).thenAnswer(call -> ((List<?>) call.getArgument(0)).size());
+
+		assertEquals(5, archiver(10).archiveEndedBefore(CUTOFF));
+
+		// The short third batch shows nothing is left, so no fourth lookup
+		verify(requestRepository, times(3)).findCompletedIdsEndedBefore(eq(CUTOFF), any(Limit.class));
+		verify(transactionManager, times(3)).commit(any());
+	}
+
+	@Test
+	void stopsWhenTheRunsBatchBudgetIsSpent() {
+		when(requestRepository.findCompletedIdsEndedBefore(eq(CUTOFF), any(Limit.class))).thenReturn(List.of(1L, 2L));
+		when(archiveRepository.copyFromLive(anyList(), any())).thenReturn(2);
+		when(requestRepository.deleteCompletedByIdIn(anyList())).thenReturn(2);
+
+		assertEquals(6, archiver(3).archiveEndedBefore(CUTOFF));
+	}
+
+	@Test
+	void rollsBackABatchThatWouldLoseOrDuplicateRows() {
+		when(requestRepository.findCompletedIdsEndedBefore(eq(CUTOFF), any(Limit.class))).thenReturn(List.of(1L, 2L));
+		when(archiveRepository.copyFromLive(anyList(), any())).thenReturn(2);
+		when(requestRepository.deleteCompletedByIdIn(anyList())).thenReturn(1);
+
+		assertThrows(IllegalStateException.class, () -> archiver(10).archiveEndedBefore(CUTOFF));
+		verify(transactionManager).rollback(any());
+		verify(transactionManager, times(0)).commit(any());
+	}
+
+	@Test
+	void aScheduledRunDoesNotHoldTheSchedulerThreadThroughItsPauses() throws Exception {
+		when(requestRepository.findCompletedIdsEndedBefore(any(), any(Limit.class))).thenReturn(List.of(1L, 2L));
+		when(archiveRepository.copyFromLive(anyList(), any())).thenReturn(2);
+		when(requestRepository.deleteCompletedByIdIn(anyList())).thenReturn(2);
+		RequestArchiver archiver = new RequestArchiver(requestRepository, archiveRepository,
+				new TransactionTemplate(transactionManager), 30, 2, 10_000, 10);
+
+		long start = System.nanoTime();
+		archiver.archiveCompleted();
+		// A second trigger while the first run is still pausing does not queue another
+		archiver.archiveCompleted();
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+
+		verify(transactionManager, timeout(5000)).commit(any());
+		archiver.shutdown();
+		verify(requestRepository, times(1)).findCompletedIdsEndedBefore(any(), any(Limit.class));
+	}
+
+	private RequestArchiver archiver(int maxBatchesPerRun) {
+		return new RequestArchiver(requestRepository, archiveRepository, new TransactionTemplate(transactionManager),
+				30, 2, 0, maxBatchesPerRun);
+	}
+}
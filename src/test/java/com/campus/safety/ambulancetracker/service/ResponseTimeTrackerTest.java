@@ -0,0 +1,59 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.dto.LatencyPercentiles;
+import com.campus.safety.ambulancetracker.dto.ResponseTimeReport;
+import com.campus.safety.ambulancetracker.repository.ArchivedRequestRepository;
+import com.campus.safety.ambulancetracker.repository.EmergencyRequestRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class ResponseTimeTrackerTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 10, 12, 30);
+
+	@Test
+	void percentilesStayWithinBucketPrecision() {
+		ResponseTimeTracker tracker = new ResponseTimeTracker(mock(EmergencyRequestRepository.class),
+				mock(ArchivedRequestRepository.class));
+		// 1..1000 seconds of assignment delay, all within the last hour
+		for (int i = 1; i <= 1000; i++) {
+			LocalDateTime assignedAt = NOW.minusSeconds(i % 3000);
+			tracker.recordAssignment(assignedAt.minusSeconds(i), assignedAt);
+		}
+
+		LatencyPercentiles lastHour = tracker.report(NOW).assignmentDelay().get(0);
+		assertEquals(1000, lastHour.count());
+		assertClose(500_000, lastHour.p50Millis());
+		assertClose(950_000, lastHour.p95Millis());
+		assertClose(990_000, lastHour.p99Millis());
+		assertClose(1_000_000, lastHour.maxMillis());
+	}
+
+	@Test
+	void samplesAgeOutOfEachWindow() {
+		ResponseTimeTracker tracker = new ResponseTimeTracker(mock(EmergencyRequestRepository.class),
+				mock(ArchivedRequestRepository.class));
+		tracker.recordService(NOW.minusHours(2).minusMinutes(5), NOW.minusHours(2));
+		tracker.recordService(NOW.minusDays(3).minusMinutes(5), NOW.minusDays(3));
+		tracker.recordService(NOW.minusDays(9).minusMinutes(5), NOW.minusDays(9));
+
+		ResponseTimeReport report = tracker.report(NOW);
+		List<LatencyPercentiles> service = report.serviceTime();
+		assertEquals(0, service.get(0).count());
+		assertNull(service.get(0).p50Millis());
+		assertEquals(1, service.get(1).count());
+		assertEquals(2, service.get(2).count());
+		assertEquals(0, report.assignmentDelay().get(2).count());
+	}
+
+	private static void assertClose(long expected, Long actual) {
+		assertTrue(Math.abs(actual - expected) <= expected * 0.035, "expected ~" + expected + " but was " + actual);
+	}
+}
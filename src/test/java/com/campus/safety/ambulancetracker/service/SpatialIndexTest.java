@@ -0,0 +1,147 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.dto.NearbyAmbulance;
+import com.campus.safety.ambulancetracker.model.Ambulance;
+import com.campus.safety.ambulancetracker.model.AmbulanceStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SpatialIndexTest {
+
+	private static final AmbulanceStatus[] STATUSES = AmbulanceStatus.values();
+
+	private final Map<Long, Ambulance> fleet = new HashMap<>();
+	private final SpatialIndex index = emptyIndex();
+
+	@Test
+	void nearestMatchesABruteForceScanWithAndWithoutAStatusFilter() {
+		Random random = new Random(42);
+		// About 5 km by 5 km around the campus, many cells wide
+		for (long id = 1; id <= 300; id++) {
+			place(id, STATUSES[random.nextInt(STATUSES.length)],
+					12.95 + random.nextDouble() * 0.045, 77.57 + random.nextDouble() * 0.045);
+		}
+
+		for (int query = 0; query < 100; query++) {
+			double latitude = 12.94 + random.nextDouble() * 0.065;
+			double longitude = 77.56 + random.nextDouble() * 0.065;
+			for (int k : new int[]{1, 3, 10}) {
+				for (AmbulanceStatus status : new AmbulanceStatus[]{null, AmbulanceStatus.AVAILABLE, AmbulanceStatus.OUT_OF_SERVICE}) {
+					assertEquals(ids(bruteForceNearest(latitude, longitude, k, status)),
+							ids(index.nearest(latitude, longitude, k, status)),
+							"k=" + k + " status=" + status + " at " + latitude + "," + longitude);
+				}
+			}
+		}
+	}
+
+	@Test
+	void radiusQueryFindsUnitsInEveryCellItsCircleCrosses() {
+		// 13.000 / 77.600 is a corner shared by four cells; units sit on all sides of it
+		double latitude = 12.9998;
+		double longitude = 77.5998;
+		Random random = new Random(7);
+		for (long id = 1; id <= 200; id++) {
+			place(id, AmbulanceStatus.AVAILABLE,
+					latitude - 0.01 + random.nextDouble() * 0.02, longitude - 0.01 + random.nextDouble() * 0.02);
+		}
+
+		for (double radius : new double[]{50, 150, 400, 900, 2000}) {
+			List<NearbyAmbulance> found = index.within(latitude, longitude, radius);
+			assertEquals(ids(bruteForceWithin(latitude, longitude, radius)), ids(found), "radius " + radius);
+			assertTrue(found.stream().allMatch(nearby -> nearby.distanceMeters() <= radius));
+		}
+	}
+
+	@Test
+	void unitsMovingBetweenCellsAreFoundOnlyWhereTheyAreNow() {
+		place(1L, AmbulanceStatus.AVAILABLE, 12.9716, 77.5946);
+		place(2L, AmbulanceStatus.AVAILABLE, 12.9900, 77.6100);
+
+		// Unit 1 drives a few cells north-east, past unit 2
+		place(1L, AmbulanceStatus.EN_ROUTE, 13.0050, 77.6250);
+
+		assertEquals(List.of(), ids(index.within(12.9716, 77.5946, 300)));
+		assertEquals(List.of(1L), ids(index.within(13.0050, 77.6250, 300)));
+		assertEquals(List.of(2L), ids(index.nearest(12.9716, 77.5946, 1, AmbulanceStatus.AVAILABLE)));
+		assertEquals(List.of(2L, 1L), ids(index.nearest(12.9716, 77.5946, 5, null)));
+		assertEquals(2, index.size());
+
+		// Removed from the fleet, or no position any more
+		index.onFleetChange(fleet.remove(2L), null);
+		Ambulance lost = FleetRegistry.snapshotOf(fleet.get(1L));
+		lost.setLatitude(null);
+		lost.setLongitude(null);
+		index.onFleetChange(fleet.get(1L), lost);
+		assertEquals(0, index.size());
+		assertEquals(List.of(), index.nearest(12.9716, 77.5946, 5, null));
+	}
+
+	@Test
+	void aSparseFleetIsFoundByWideningTheSearch() {
+		// Two units tens of kilometres from the query and from each other
+		place(1L, AmbulanceStatus.AVAILABLE, 12.5000, 77.1000);
+		place(2L, AmbulanceStatus.AVAILABLE, 13.4000, 78.2000);
+		place(3L, AmbulanceStatus.OUT_OF_SERVICE, 12.9800, 77.6000);
+
+		assertEquals(List.of(1L), ids(index.nearest(12.9716, 77.5946, 1, AmbulanceStatus.AVAILABLE)));
+		assertEquals(List.of(1L, 2L), ids(index.nearest(12.9716, 77.5946, 5, AmbulanceStatus.AVAILABLE)));
+		assertEquals(List.of(), index.nearest(12.9716, 77.5946, 3, AmbulanceStatus.RETURNING));
+		assertEquals(List.of(3L, 1L, 2L), ids(index.nearest(12.9716, 77.5946, 3, null)));
+	}
+
+	private SpatialIndex emptyIndex() {
+		FleetRegistry registry = mock(FleetRegistry.class);
+		when(registry.findAll()).thenReturn(List.of());
+		return new SpatialIndex(registry);
+	}
+
+	private void place(long id, AmbulanceStatus status, double latitude, double longitude) {
+		Ambulance unit = new Ambulance();
+		unit.setId(id);
+		unit.setStatus(status);
+		unit.setLatitude(latitude);
+		unit.setLongitude(longitude);
+		index.onFleetChange(fleet.get(id), unit);
+		fleet.put(id, unit);
+	}
+
+	private List<NearbyAmbulance> bruteForceNearest(double latitude, double longitude, int k, AmbulanceStatus status) {
+		return fleet.values().stream()
+				.filter(unit -> status == null || unit.getStatus() == status)
+				.map(unit -> nearby(unit, latitude, longitude))
+				.sorted(Comparator.comparingDouble(NearbyAmbulance::distanceMeters))
+				.limit(k)
+				.toList();
+	}
+
+	private List<NearbyAmbulance> bruteForceWithin(double latitude, double longitude, double radiusMeters) {
+		return fleet.values().stream()
+				.map(unit -> nearby(unit, latitude, longitude))
+				.filter(nearby -> nearby.distanceMeters() <= radiusMeters)
+				.sorted(Comparator.comparingDouble(NearbyAmbulance::distanceMeters))
+				.toList();
+	}
+
+	private static NearbyAmbulance nearby(Ambulance unit, double latitude, double longitude) {
+		return new NearbyAmbulance(unit,
+				SpatialIndex.distanceMeters(latitude, longitude, unit.getLatitude(), unit.getLongitude()));
+	}
+
+	private static List<Long> ids(List<NearbyAmbulance> found) {
+		List<Long> ids = new ArrayList<>();
+		found.forEach(nearby -> ids.add(nearby.ambulance().getId()));
+		return ids;
+	}
+}
@@ -0,0 +1,169 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.model.Ambulance;
+import com.campus.safety.ambulancetracker.model.AmbulanceStatus;
+import com.campus.safety.ambulancetracker.repository.AmbulanceLocationWriter;
+import com.campus.safety.ambulancetracker.repository.AmbulanceRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TelemetryLogTest {
+
+	private static final LocalDateTime T0 = LocalDateTime.of(2025, 3, 1, 8, 0);
+	// [length][crc][id, status, lat, lng, epoch second, nano]
+	private static final int RECORD_BYTES = 8 + 8 + 1 + 8 + 8 + 8 + 4;
+	private static final int THREE_RECORDS = RECORD_BYTES * 3 + Integer.BYTES;
+
+	@TempDir
+	Path dir;
+
+	private final AmbulanceLocationWriter writer = mock(AmbulanceLocationWriter.class);
+
+	@Test
+	void replayAfterRestartRestoresTheLatestStateOfEachUnit() throws IOException {
+		TelemetryLog log = new TelemetryLog(registry(2), writer, dir.toString(), 1024 * 1024);
+		log.appendAll(List.of(reading(1L, AmbulanceStatus.EN_ROUTE, 12.90, 1), reading(2L, AmbulanceStatus.AVAILABLE, 12.50, 1)));
+		log.appendAll(List.of(reading(1L, AmbulanceStatus.ON_SCENE, 12.95, 2)));
+		log.close();
+
+		FleetRegistry restarted = registry(2);
+		TelemetryLog again = new TelemetryLog(restarted, writer, dir.toString(), 1024 * 1024);
+		again.replay();
+
+		assertUnit(restarted, 1L, AmbulanceStatus.ON_SCENE, 12.95, 2);
+		assertUnit(restarted, 2L, AmbulanceStatus.AVAILABLE, 12.50, 1);
+		assertEquals(List.of(1L), segments(), "replayed segments are deleted once flushed");
+		again.close();
+	}
+
+	@Test
+	void aCorruptTailRecordEndsTheSegmentWithoutLosingEarlierOnes() throws IOException {
+		TelemetryLog log = new TelemetryLog(registry(1), writer, dir.toString(), 1024 * 1024);
+		log.appendAll(List.of(reading(1L, AmbulanceStatus.EN_ROUTE, 12.91, 1)));
+		log.appendAll(List.of(reading(1L, AmbulanceStatus.EN_ROUTE, 12.92, 2)));
+		log.appendAll(List.of(reading(1L, AmbulanceStatus.ON_SCENE, 12.93, 3)));
+		log.close();
+
+		// Flip a payload byte of the third record, as a write torn by a crash would leave it
+		try (FileChannel segment = FileChannel.open(dir.resolve(segmentName(0)), StandardOpenOption.WRITE)) {
+			segment.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), RECORD_BYTES * 2L + 8 + 20);
+		}
+
+		FleetRegistry restarted = registry(1);
+		TelemetryLog again = new TelemetryLog(restarted, writer, dir.toString(), 1024 * 1024);
+		again.replay();
+
+		assertUnit(restarted, 1L, AmbulanceStatus.EN_ROUTE, 12.92, 2);
+		again.close();
+	}
+
+	@Test
+	void recordsSpanningASegmentRollAreAllReplayed() throws IOException {
+		TelemetryLog log = new TelemetryLog(registry(7), writer, dir.toString(), THREE_RECORDS);
+		List<Ambulance> batch = new ArrayList<>();
+		LongStream.rangeClosed(1, 7).forEach(id -> batch.add(reading(id, AmbulanceStatus.EN_ROUTE, 12.0 + id / 100.0, 1)));
+		log.appendAll(batch);
+		log.close();
+		assertEquals(List.of(0L, 1L, 2L), segments());
+
+		FleetRegistry restarted = registry(7);
+		TelemetryLog again = new TelemetryLog(restarted, writer, dir.toString(), THREE_RECORDS);
+		again.replay();
+
+		for (long id = 1; id <= 7; id++) {
+			assertUnit(restarted, id, AmbulanceStatus.EN_ROUTE, 12.0 + id / 100.0, 1);
+		}
+		again.close();
+	}
+
+	@Test
+	void checkpointDeletesOnlySegmentsCompleteBeforeTheFlush() throws IOException {
+		FleetRegistry registry = registry(7);
+		TelemetryLog log = new TelemetryLog(registry, writer, dir.toString(), THREE_RECORDS);
+		log.replay();
+		for (long id = 1; id <= 7; id++) {
+			log.appendAll(List.of(reading(id, AmbulanceStatus.EN_ROUTE, 12.5, 1)));
+		}
+		assertEquals(List.of(0L, 1L, 2L), segments());
+
+		// More readings arrive while the flush is writing and fill segment 2, rolling to 3
+		registry.apply(1L, AmbulanceStatus.EN_ROUTE, 12.6, 77.6, T0.plusMinutes(2));
+		doAnswer(call -> {
+			log.appendAll(List.of(reading(1L, AmbulanceStatus.EN_ROUTE, 12.6, 2),
+					reading(2L, AmbulanceStatus.EN_ROUTE, 12.6, 2), reading(3L, AmbulanceStatus.EN_ROUTE, 12.6, 2)));
+			return null;
+		}).when(writer).batchUpdateLocations(anyList());
+
+		log.checkpoint();
+
+		assertEquals(List.of(2L, 3L), segments(), "segment 2 was still open when the flush began");
+		log.close();
+	}
+
+	private FleetRegistry registry(int units) {
+		AmbulanceRepository repository = mock(AmbulanceRepository.class);
+		List<Ambulance> fleet = new ArrayList<>();
+		for (long id = 1; id <= units; id++) {
+			Ambulance unit = new Ambulance();
+			unit.setId(id);
+			unit.setStatus(AmbulanceStatus.AVAILABLE);
+			unit.setLatitude(12.0);
+			unit.setLongitude(77.0);
+			unit.setLastUpdated(T0);
+			fleet.add(unit);
+		}
+		when(repository.findAll()).thenReturn(fleet);
+		FleetRegistry registry = new FleetRegistry(repository, writer);
+		registry.reload();
+		return registry;
+	}
+
+	private static Ambulance reading(long id, AmbulanceStatus status, double latitude, int minute) {
+		Ambulance reading = new Ambulance();
+		reading.setId(id);
+		reading.setStatus(status);
+		reading.setLatitude(latitude);
+		reading.setLongitude(77.5);
+		reading.setLastUpdated(T0.plusMinutes(minute).plusNanos(123_456_789));
+		return reading;
+	}
+
+	private static void assertUnit(FleetRegistry registry, long id, AmbulanceStatus status, double latitude, int minute) {
+		Ambulance unit = registry.findById(id).orElseThrow();
+		assertEquals(status, unit.getStatus());
+		assertEquals(latitude, unit.getLatitude());
+		assertEquals(77.5, unit.getLongitude());
+		assertEquals(T0.plusMinutes(minute).plusNanos(123_456_789), unit.getLastUpdated());
+	}
+
+	private List<Long> segments() throws IOException {
+		try (Stream<Path> files = Files.list(dir)) {
+			return files.map(path -> path.getFileName().toString())
+					.map(name -> Long.parseLong(name.substring("wal-".length(), name.length() - ".log".length())))
+					.sorted()
+					.toList();
+		}
+	}
+
+	private static String segmentName(long index) {
+		return String.format("wal-%020d.log", index);
+	}
+}
@@ -0,0 +1,52 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.dto.TrackPoint;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrackSegmentTest {
+
+	private static final LocalDateTime START = LocalDateTime.of(2025, 3, 10, 9, 0);
+
+	@Test
+	void roundTripsPointsCompactly() {
+		TrackSegment segment = new TrackSegment(1L, TrackSegment.hourOf(START));
+		for (int i = 0; i < 720; i++) {
+			segment.append(START.plusSeconds(5L * i), 12.9716 + i * 0.00004, 77.5946 - i * 0.00003);
+		}
+
+		byte[] data = segment.toBytes();
+		// Well under the 24 bytes a row per ping would need for the same fields
+		assertTrue(data.length < 720 * 8, "encoded size " + data.length);
+
+		List<TrackPoint> all = TrackSegment.decode(data, START, START.plusHours(1));
+		assertEquals(720, all.size());
+		assertEquals(START.plusSeconds(5L * 719), all.get(719).time());
+		assertEquals(12.9716 + 719 * 0.00004, all.get(719).latitude(), 1e-7);
+		assertEquals(77.5946 - 719 * 0.00003, all.get(719).longitude(), 1e-7);
+
+		List<TrackPoint> slice = TrackSegment.decode(data, START.plusMinutes(10), START.plusMinutes(20));
+		assertEquals(121, slice.size());
+		assertEquals(START.plusMinutes(10), slice.get(0).time());
+	}
+
+	@Test
+	void downsamplingKeepsOnePointPerBucketAndTheLast() {
+		TrackSegment segment = new TrackSegment(1L, TrackSegment.hourOf(START));
+		for (int i = 0; i < 100; i++) {
+			segment.append(START.plusSeconds(i), 12.97, 77.59);
+		}
+		List<TrackPoint> points = TrackSegment.decode(segment.toBytes(), START, START.plusHours(1));
+
+		TrackSegment thinned = TrackSegment.downsample(1L, points, 30);
+		List<TrackPoint> kept = TrackSegment.decode(thinned.toBytes(), START, START.plusHours(1));
+		assertEquals(5, kept.size());
+		assertEquals(START, kept.get(0).time());
+		assertEquals(START.plusSeconds(99), kept.get(4).time());
+	}
+}
@@ -0,0 +1,55 @@
+package com.campus.safety.ambulancetracker.service;
+
+import com.campus.safety.ambulancetracker.dto.UserMatch;
+import com.campus.safety.ambulancetracker.dto.UserSummary;
+import com.campus.safety.ambulancetracker.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserDirectoryTest {
+
+	private static final UserSummary JOHN = new UserSummary(2L, "John", "Doe", "john.doe@campus.edu", "98765-43211", "user", "USER");
+	private static final UserSummary JOAN = new UserSummary(5L, "Joan", "Rivers", "jr@campus.edu", "+91 91234 56789", "jriv", "STAFF");
+
+	@Test
+	void matchesAnyIndexedTermByPrefixOncePerUser() {
+		UserRepository repository = mock(UserRepository.class);
+		when(repository.findPageAfter(eq(0L), any(Limit.class))).thenReturn(List.of(JOHN, JOAN));
+		when(repository.findPageAfter(eq(5L), any(Limit.class))).thenReturn(List.of());
+		UserDirectory directory = new UserDirectory(repository);
+		directory.rebuild();
+
+		assertEquals(List.of(5L, 2L), ids(directory.search("  JO", 10)));
+		assertEquals(List.of(2L), ids(directory.search("john d", 10)));
+		assertEquals(List.of(2L), ids(directory.search("987 654", 10)));
+		assertEquals(List.of(5L), ids(directory.search("jr@", 10)));
+		assertEquals(List.of(5L), ids(directory.search("91234", 10)));
+		assertEquals(1, directory.search("jo", 1).size());
+		assertTrue(directory.search(" ", 10).isEmpty());
+	}
+
+	@Test
+	void putReplacesTheTermsOfAChangedUser() {
+		UserDirectory directory = new UserDirectory(mock(UserRepository.class));
+		directory.put(JOHN);
+		directory.put(new UserSummary(2L, "Johnny", "Doe", "johnny@campus.edu", "1112223333", "jdoe", "USER"));
+
+		assertTrue(directory.search("user", 10).isEmpty());
+		assertTrue(directory.search("9876", 10).isEmpty());
+		assertEquals("Johnny Doe", directory.search("jdoe", 10).get(0).name());
+		assertEquals(1, directory.size());
+	}
+
+	private static List<Long> ids(List<UserMatch> matches) {
+		return matches.stream().map(UserMatch::id).toList();
+	}
+}